@@ -15,10 +15,23 @@ repositories {
     mavenCentral()
 }
 
+sourceSets {
+    create("jmh") {
+        compileClasspath += sourceSets.main.get().output
+        runtimeClasspath += sourceSets.main.get().output
+    }
+}
+
+val jmhImplementation by configurations.getting
+val jmhAnnotationProcessor by configurations.getting
+
 dependencies {
     testImplementation(platform("org.junit:junit-bom:5.10.0"))
     testImplementation("org.junit.jupiter:junit-jupiter")
     testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+
+    jmhImplementation("org.openjdk.jmh:jmh-core:1.37")
+    jmhAnnotationProcessor("org.openjdk.jmh:jmh-generator-annprocess:1.37")
 }
 
 publishing {
@@ -33,4 +46,25 @@ publishing {
 
 tasks.test {
     useJUnitPlatform()
-}
\ No newline at end of file
+    // Test output is never a terminal, so color would otherwise be detected as unsupported.
+    systemProperty("janis.color", "always")
+}
+
+tasks.check {
+    dependsOn(tasks.named("jmhClasses"))
+}
+
+tasks.register<JavaExec>("jmh") {
+    description = "Runs the JMH benchmarks, reporting allocations per operation with the GC profiler."
+    group = "verification"
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+
+    val resultFile = layout.buildDirectory.file("reports/jmh/results.json")
+    doFirst { resultFile.get().asFile.parentFile.mkdirs() }
+
+    args(project.findProperty("jmh.includes")?.toString() ?: ".*")
+    // Forked benchmark JVMs are not attached to a terminal; measure the styled path regardless.
+    args("-jvmArgsAppend", "-Djanis.color=always")
+    args("-prof", "gc", "-rf", "json", "-rff", resultFile.get().asFile.absolutePath)
+}
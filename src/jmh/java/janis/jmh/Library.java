@@ -0,0 +1,112 @@
+package janis.jmh;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Method handles into the Janis classes under benchmark.
+ * JMH refuses benchmark classes in the default package, while the library itself lives there,
+ * so the benchmarks cannot name its types in source. The handles below are resolved once,
+ * erased to {@code Object}, and stored in static final fields so the JIT inlines them like direct calls.
+ */
+final class Library {
+    static final MethodHandle OF;
+    static final MethodHandle STYLE;
+    static final MethodHandle COLOR;
+    static final MethodHandle BG_COLOR;
+    static final MethodHandle RGB;
+    static final MethodHandle BG_RGB;
+    static final MethodHandle HEX;
+    static final MethodHandle BOLD;
+    static final MethodHandle DIM;
+    static final MethodHandle ITALIC;
+    static final MethodHandle UNDERLINED;
+    static final MethodHandle SLOW_BLINK;
+    static final MethodHandle RAPID_BLINK;
+    static final MethodHandle REVERSE;
+    static final MethodHandle HIDE;
+    static final MethodHandle RENDER;
+    static final MethodHandle BUILD;
+    static final MethodHandle APPLY;
+    static final MethodHandle ANSI_PREFIX;
+    static final MethodHandle FROM_HEX;
+    static final MethodHandle NEW_RGB;
+    static final MethodHandle NEW_STYLE_CONFIG;
+    static final Object RED;
+    static final Object BRIGHT_CYAN;
+
+    static {
+        try {
+            Class<?> janis = Class.forName("Janis");
+            Class<?> builder = Class.forName("StyleBuilder");
+            Class<?> style = Class.forName("Style");
+            Class<?> basicColor = Class.forName("BasicColor");
+            Class<?> rgb = Class.forName("Rgb");
+            Class<?> styleConfig = Class.forName("StyleConfig");
+            Class<?> generator = Class.forName("AnsiCodeGenerator");
+
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            MethodHandles.Lookup janisLookup = MethodHandles.privateLookupIn(janis, lookup);
+
+            OF = erase(janisLookup.findStatic(janis, "of", MethodType.methodType(builder, String.class)));
+            STYLE = erase(janisLookup.findStatic(janis, "style", MethodType.methodType(builder)));
+            COLOR = erase(janisLookup.findVirtual(builder, "color", MethodType.methodType(builder, basicColor)));
+            BG_COLOR = erase(janisLookup.findVirtual(builder, "bgColor", MethodType.methodType(builder, basicColor)));
+            RGB = erase(janisLookup.findVirtual(builder, "rgb",
+                    MethodType.methodType(builder, int.class, int.class, int.class)));
+            BG_RGB = erase(janisLookup.findVirtual(builder, "bgRgb",
+                    MethodType.methodType(builder, int.class, int.class, int.class)));
+            HEX = erase(janisLookup.findVirtual(builder, "hex", MethodType.methodType(builder, String.class)));
+            BOLD = attribute(janisLookup, builder, "bold");
+            DIM = attribute(janisLookup, builder, "dim");
+            ITALIC = attribute(janisLookup, builder, "italic");
+            UNDERLINED = attribute(janisLookup, builder, "underlined");
+            SLOW_BLINK = attribute(janisLookup, builder, "slowBlink");
+            RAPID_BLINK = attribute(janisLookup, builder, "rapidBlink");
+            REVERSE = attribute(janisLookup, builder, "reverse");
+            HIDE = attribute(janisLookup, builder, "hide");
+            RENDER = erase(janisLookup.findVirtual(builder, "render", MethodType.methodType(String.class)));
+            BUILD = erase(janisLookup.findVirtual(builder, "build", MethodType.methodType(style)));
+            APPLY = erase(janisLookup.findVirtual(style, "apply", MethodType.methodType(String.class, String.class)));
+            ANSI_PREFIX = erase(janisLookup.findStatic(generator, "getAnsiPrefix",
+                    MethodType.methodType(String.class, styleConfig)));
+            FROM_HEX = erase(janisLookup.findStatic(rgb, "fromHex", MethodType.methodType(rgb, String.class)));
+            NEW_RGB = erase(janisLookup.findConstructor(rgb,
+                    MethodType.methodType(void.class, int.class, int.class, int.class)));
+            NEW_STYLE_CONFIG = erase(janisLookup.findConstructor(styleConfig,
+                    MethodType.methodType(void.class, basicColor, rgb, basicColor, rgb,
+                            boolean.class, boolean.class, boolean.class, boolean.class,
+                            boolean.class, boolean.class, boolean.class, boolean.class)));
+
+            RED = basicColor.getField("RED").get(null);
+            BRIGHT_CYAN = basicColor.getField("BRIGHT_CYAN").get(null);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private Library() {
+    }
+
+    private static MethodHandle attribute(MethodHandles.Lookup lookup, Class<?> builder, String name)
+            throws ReflectiveOperationException {
+        return erase(lookup.findVirtual(builder, name, MethodType.methodType(builder)));
+    }
+
+    /**
+     * Replaces every Janis type in the handle's signature with {@code Object},
+     * leaving primitives and {@code String} untouched so callers can use {@code invokeExact}.
+     */
+    private static MethodHandle erase(MethodHandle handle) {
+        MethodType type = handle.type();
+        for (int i = 0; i < type.parameterCount(); i++) {
+            type = type.changeParameterType(i, eraseType(type.parameterType(i)));
+        }
+        return handle.asType(type.changeReturnType(eraseType(type.returnType())));
+    }
+
+    private static Class<?> eraseType(Class<?> type) {
+        return type.isPrimitive() || type == String.class ? type : Object.class;
+    }
+}
@@ -0,0 +1,11 @@
+package janis.jmh;
+
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Runs {@link StyleBenchmarks} on as many threads as there are available processors,
+ * exposing contention on any state shared between styling calls.
+ */
+@Threads(Threads.MAX)
+public class MultiThreadedStyleBenchmarks extends StyleBenchmarks {
+}
@@ -0,0 +1,10 @@
+package janis.jmh;
+
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Runs {@link StyleBenchmarks} on a single thread.
+ */
+@Threads(1)
+public class SingleThreadedStyleBenchmarks extends StyleBenchmarks {
+}
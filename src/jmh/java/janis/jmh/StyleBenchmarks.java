@@ -0,0 +1,139 @@
+package janis.jmh;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the styling hot paths: rendering and building styles, applying a built style,
+ * generating the ANSI prefix for a configuration and parsing hexadecimal colors.
+ * The thread count is chosen by the concrete subclasses.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public abstract class StyleBenchmarks {
+    static final String TEXT = "GET /api/orders/42 200 OK in 12 ms";
+
+    private static final int BASIC = 0;
+    private static final int RGB = 1;
+    private static final int ALL = 2;
+
+    /**
+     * The style configuration under test, shared by all benchmark threads.
+     */
+    @State(Scope.Benchmark)
+    public static class Config {
+        /**
+         * basic: a basic color and bold, rgb: RGB foreground and background,
+         * all: a basic foreground, an RGB background and every attribute.
+         */
+        @Param({"basic", "rgb", "all"})
+        public String kind;
+
+        int kindId;
+        Object style;
+        Object styleConfig;
+
+        @Setup
+        public void setup() throws Throwable {
+            kindId = switch (kind) {
+                case "basic" -> BASIC;
+                case "rgb" -> RGB;
+                case "all" -> ALL;
+                default -> throw new IllegalArgumentException("Unknown style kind: " + kind);
+            };
+            style = (Object) Library.BUILD.invokeExact(configure(kindId, (Object) Library.STYLE.invokeExact()));
+            styleConfig = newStyleConfig(kindId);
+        }
+    }
+
+    /**
+     * The hexadecimal color string to parse.
+     */
+    @State(Scope.Benchmark)
+    public static class Hex {
+        @Param({"#1A2B3C", "#ABC"})
+        public String hex;
+    }
+
+    @Benchmark
+    public String render(Config config) throws Throwable {
+        Object builder = (Object) Library.OF.invokeExact(TEXT);
+        return (String) Library.RENDER.invokeExact(configure(config.kindId, builder));
+    }
+
+    @Benchmark
+    public Object build(Config config) throws Throwable {
+        Object builder = (Object) Library.STYLE.invokeExact();
+        return (Object) Library.BUILD.invokeExact(configure(config.kindId, builder));
+    }
+
+    @Benchmark
+    public String apply(Config config) throws Throwable {
+        return (String) Library.APPLY.invokeExact(config.style, TEXT);
+    }
+
+    @Benchmark
+    public String ansiPrefix(Config config) throws Throwable {
+        return (String) Library.ANSI_PREFIX.invokeExact(config.styleConfig);
+    }
+
+    @Benchmark
+    public Object fromHex(Hex input) throws Throwable {
+        return (Object) Library.FROM_HEX.invokeExact(input.hex);
+    }
+
+    private static Object configure(int kindId, Object builder) throws Throwable {
+        switch (kindId) {
+            case BASIC -> {
+                builder = (Object) Library.COLOR.invokeExact(builder, Library.RED);
+                return (Object) Library.BOLD.invokeExact(builder);
+            }
+            case RGB -> {
+                builder = (Object) Library.RGB.invokeExact(builder, 255, 100, 50);
+                return (Object) Library.BG_RGB.invokeExact(builder, 0, 150, 200);
+            }
+            default -> {
+                builder = (Object) Library.COLOR.invokeExact(builder, Library.BRIGHT_CYAN);
+                builder = (Object) Library.BG_RGB.invokeExact(builder, 0, 150, 200);
+                builder = (Object) Library.BOLD.invokeExact(builder);
+                builder = (Object) Library.DIM.invokeExact(builder);
+                builder = (Object) Library.ITALIC.invokeExact(builder);
+                builder = (Object) Library.UNDERLINED.invokeExact(builder);
+                builder = (Object) Library.SLOW_BLINK.invokeExact(builder);
+                builder = (Object) Library.RAPID_BLINK.invokeExact(builder);
+                builder = (Object) Library.REVERSE.invokeExact(builder);
+                return (Object) Library.HIDE.invokeExact(builder);
+            }
+        }
+    }
+
+    private static Object newStyleConfig(int kindId) throws Throwable {
+        Object noColor = null;
+        return switch (kindId) {
+            case BASIC -> (Object) Library.NEW_STYLE_CONFIG.invokeExact(
+                    Library.RED, noColor, noColor, noColor,
+                    true, false, false, false, false, false, false, false);
+            case RGB -> (Object) Library.NEW_STYLE_CONFIG.invokeExact(
+                    noColor, (Object) Library.NEW_RGB.invokeExact(255, 100, 50),
+                    noColor, (Object) Library.NEW_RGB.invokeExact(0, 150, 200),
+                    false, false, false, false, false, false, false, false);
+            default -> (Object) Library.NEW_STYLE_CONFIG.invokeExact(
+                    Library.BRIGHT_CYAN, noColor, noColor, (Object) Library.NEW_RGB.invokeExact(0, 150, 200),
+                    true, true, true, true, true, true, true, true);
+        };
+    }
+}
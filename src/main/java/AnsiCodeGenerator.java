@@ -1,104 +1,486 @@
+import java.nio.charset.StandardCharsets;
+
 /**
  * Utility class for generating ANSI escape codes based on style configurations.
  * This class handles the conversion of style settings into proper ANSI sequences
  * for terminal text formatting.
  */
 final class AnsiCodeGenerator {
+    /**
+     * The escape sequence that resets all colors and attributes.
+     */
+    static final String RESET = "\u001B[0m";
+
+    /**
+     * The reset sequence pre-encoded as bytes, shared by every style writing to byte sinks.
+     */
+    static final byte[] RESET_BYTES = RESET.getBytes(StandardCharsets.US_ASCII);
+
+    private static final String[] ATTRIBUTE_CODES = {
+            "\u001b[1m", "\u001b[2m", "\u001b[3m", "\u001b[4m",
+            "\u001b[5m", "\u001b[6m", "\u001b[7m", "\u001b[8m"
+    };
+
+    private static volatile SgrMode sgrMode = SgrMode.COMBINED;
+    private static volatile ColorDepth colorDepth = ColorDepth.TRUECOLOR;
+
+    /**
+     * Returns the mode used when no mode is given explicitly.
+     *
+     * @return the current default emission mode
+     */
+    static SgrMode getSgrMode() {
+        return sgrMode;
+    }
+
+    /**
+     * Changes the mode used when no mode is given explicitly.
+     *
+     * @param mode the new default emission mode
+     */
+    static void setSgrMode(SgrMode mode) {
+        sgrMode = mode;
+    }
+
+    /**
+     * Returns the color depth colors are reduced to when no depth is given explicitly.
+     *
+     * @return the current default color depth
+     */
+    static ColorDepth getColorDepth() {
+        return colorDepth;
+    }
+
+    /**
+     * Changes the color depth colors are reduced to when no depth is given explicitly.
+     *
+     * @param depth the new default color depth
+     */
+    static void setColorDepth(ColorDepth depth) {
+        colorDepth = depth;
+    }
+
     /**
      * Generates the complete ANSI prefix string for the given style configuration.
-     * Combines text color, background color, and text attributes into a single ANSI sequence.
+     * Combines text color, background color, and text attributes using the default emission mode,
+     * with colors reduced to the default color depth.
      *
      * @param config the style configuration containing color and attribute settings
      * @return the complete ANSI escape sequence prefix
      */
     public static String getAnsiPrefix(StyleConfig config) {
-        return getColorTextPrefix(config) + getColorBackgroundPrefix(config) + getAttributePrefix(config);
+        return getAnsiPrefix(PackedStyle.of(config), sgrMode, colorDepth);
     }
 
     /**
-     * Generates the ANSI code for text foreground color.
-     * Supports both RGB colors (24-bit true color) and basic 8/16 colors.
-     * RGB colors take precedence over basic colors if both are set.
+     * Generates the complete ANSI prefix string for a packed style, with its colors reduced
+     * to the given color depth.
      *
-     * @param config the style configuration
-     * @return the ANSI escape sequence for foreground color, or empty string if no color is set
+     * @param style the packed style, see {@link PackedStyle}
+     * @param mode  whether to emit one combined sequence or one sequence per color and attribute
+     * @param depth the color depth of the terminal
+     * @return the complete ANSI escape sequence prefix
      */
-    private static String getColorTextPrefix(StyleConfig config) {
-        if (config.rgbColor() != null && config.basicColor() == null) {
-            Rgb rgb = config.rgbColor();
-            return String.format("\u001b[38;2;%d;%d;%dm", rgb.r(), rgb.g(), rgb.b());
+    static String getAnsiPrefix(long style, SgrMode mode, ColorDepth depth) {
+        return getAnsiPrefix(ColorPalette.downsample(style, depth), mode);
+    }
+
+    /**
+     * Generates the complete ANSI prefix string for the given style configuration and emission mode.
+     *
+     * @param config the style configuration containing color and attribute settings
+     * @param mode   whether to emit one combined sequence or one sequence per color and attribute
+     * @return the complete ANSI escape sequence prefix
+     */
+    static String getAnsiPrefix(StyleConfig config, SgrMode mode) {
+        return getAnsiPrefix(PackedStyle.of(config), mode);
+    }
+
+    /**
+     * Generates the complete ANSI prefix string for a packed style and emission mode.
+     *
+     * @param style the packed style, see {@link PackedStyle}
+     * @param mode  whether to emit one combined sequence or one sequence per color and attribute
+     * @return the complete ANSI escape sequence prefix
+     */
+    static String getAnsiPrefix(long style, SgrMode mode) {
+        String shared = IndexedColor.soleColorCode(style);
+        if (shared != null) {
+            return shared;
         }
+        return appendAnsiPrefix(style, mode, new StringBuilder(getAnsiPrefixLength(style, mode))).toString();
+    }
+
+    /**
+     * Appends the complete ANSI prefix for the given style configuration to a caller-supplied builder.
+     *
+     * @param config the style configuration containing color and attribute settings
+     * @param mode   whether to emit one combined sequence or one sequence per color and attribute
+     * @param out    the builder to append to
+     * @return the given builder
+     */
+    static StringBuilder appendAnsiPrefix(StyleConfig config, SgrMode mode, StringBuilder out) {
+        return appendAnsiPrefix(PackedStyle.of(config), mode, out);
+    }
 
-        if (config.basicColor() != null) {
-            return config.basicColor().getAnsiCode(false);
+    /**
+     * Appends the complete ANSI prefix for a packed style to a caller-supplied builder.
+     * Nothing is allocated beyond what the builder may need to grow.
+     *
+     * @param style the packed style, see {@link PackedStyle}
+     * @param mode  whether to emit one combined sequence or one sequence per color and attribute
+     * @param out   the builder to append to
+     * @return the given builder
+     */
+    static StringBuilder appendAnsiPrefix(long style, SgrMode mode, StringBuilder out) {
+        if (mode == SgrMode.COMBINED) {
+            return appendCombinedPrefix(style, out);
         }
 
-        return "";
+        appendColor(out, PackedStyle.foregroundKind(style), PackedStyle.foreground(style), false);
+        appendColor(out, PackedStyle.backgroundKind(style), PackedStyle.background(style), true);
+        return appendAttributePrefix(PackedStyle.attributes(style), out);
     }
 
     /**
-     * Generates the ANSI code for background color.
-     * Supports both RGB colors (24-bit true color) and basic 8/16 colors.
-     * RGB colors take precedence over basic colors if both are set.
+     * Computes the exact length of the prefix {@link #appendAnsiPrefix(StyleConfig, SgrMode, StringBuilder)}
+     * appends, so callers can size their buffers up front.
      *
      * @param config the style configuration
-     * @return the ANSI escape sequence for background color, or empty string if no color is set
+     * @param mode   the emission mode
+     * @return the length of the ANSI prefix in characters
      */
-    private static String getColorBackgroundPrefix(StyleConfig config) {
-        if (config.bgRgbColor() != null && config.bgBasicColor() == null) {
-            Rgb rgb = config.bgRgbColor();
-            return String.format("\u001b[48;2;%d;%d;%dm", rgb.r(), rgb.g(), rgb.b());
+    static int getAnsiPrefixLength(StyleConfig config, SgrMode mode) {
+        return getAnsiPrefixLength(PackedStyle.of(config), mode);
+    }
+
+    /**
+     * Computes the exact length of the prefix {@link #appendAnsiPrefix(long, SgrMode, StringBuilder)}
+     * appends, so callers can size their buffers up front.
+     *
+     * @param style the packed style, see {@link PackedStyle}
+     * @param mode  the emission mode
+     * @return the length of the ANSI prefix in characters
+     */
+    static int getAnsiPrefixLength(long style, SgrMode mode) {
+        if (mode == SgrMode.COMBINED) {
+            return getCombinedPrefixLength(style);
         }
 
-        if (config.bgBasicColor() != null) {
-            return config.bgBasicColor().getAnsiCode(true);
+        return colorLength(PackedStyle.foregroundKind(style), PackedStyle.foreground(style), false)
+                + colorLength(PackedStyle.backgroundKind(style), PackedStyle.background(style), true)
+                + 4 * Integer.bitCount(PackedStyle.attributes(style));
+    }
+
+    /**
+     * Appends the shortest sequence that changes the terminal from one style to another,
+     * instead of resetting and emitting the full prefix of the new style.
+     * Only attributes that are switched off or on and colors that change are emitted, for example
+     * {@code ESC[22m} to turn off bold. When the difference would be longer than resetting and
+     * emitting the new style in full, the reset form is used instead.
+     *
+     * @param from the packed style currently active, or {@link PackedStyle#UNKNOWN} if it is not known
+     * @param to   the packed style to switch to, must not be {@link PackedStyle#UNKNOWN}
+     * @param mode whether to emit one combined sequence or one sequence per parameter
+     * @param out  the builder to append to
+     * @return the given builder
+     */
+    static StringBuilder appendTransition(long from, long to, SgrMode mode, StringBuilder out) {
+        if (from == to) {
+            return out;
+        }
+        if (to == PackedStyle.EMPTY) {
+            return out.append(RESET);
+        }
+        if (from == PackedStyle.EMPTY) {
+            return appendAnsiPrefix(to, mode, out);
+        }
+
+        if (from != PackedStyle.UNKNOWN) {
+            int start = out.length();
+            appendDifference(from, to, mode, out);
+            if (out.length() - start <= getResetTransitionLength(to, mode)) {
+                return out;
+            }
+            out.setLength(start);
         }
 
-        return "";
+        if (mode == SgrMode.SEPARATE) {
+            return appendAnsiPrefix(to, mode, out.append(RESET));
+        }
+        int count = nextParameter(out, mode, 0);
+        out.append('0');
+        count = appendAttributeParameters(out, mode, count, PackedStyle.attributes(to));
+        count = appendColorParameters(out, mode, count, to, false);
+        appendColorParameters(out, mode, count, to, true);
+        return out.append('m');
     }
 
     /**
-     * Generates ANSI codes for text attributes such as bold, italic, underline, etc.
-     * Multiple attributes can be combined in a single string.
+     * Appends the parameters that switch off removed attributes and switch on added ones,
+     * followed by the colors that differ between the two styles.
+     */
+    private static void appendDifference(long from, long to, SgrMode mode, StringBuilder out) {
+        int fromAttributes = PackedStyle.attributes(from);
+        int toAttributes = PackedStyle.attributes(to);
+        int removed = fromAttributes & ~toAttributes;
+        int added = toAttributes & ~fromAttributes;
+        int count = 0;
+
+        // 22 switches off both bold and dim, 25 both blink speeds: re-enable whichever stays
+        if ((removed & (PackedStyle.BOLD | PackedStyle.DIM)) != 0) {
+            count = appendCode(out, mode, count, 22);
+            added |= toAttributes & (PackedStyle.BOLD | PackedStyle.DIM);
+        }
+        if ((removed & PackedStyle.ITALIC) != 0) {
+            count = appendCode(out, mode, count, 23);
+        }
+        if ((removed & PackedStyle.UNDERLINED) != 0) {
+            count = appendCode(out, mode, count, 24);
+        }
+        if ((removed & (PackedStyle.SLOW_BLINK | PackedStyle.RAPID_BLINK)) != 0) {
+            count = appendCode(out, mode, count, 25);
+            added |= toAttributes & (PackedStyle.SLOW_BLINK | PackedStyle.RAPID_BLINK);
+        }
+        if ((removed & PackedStyle.REVERSE) != 0) {
+            count = appendCode(out, mode, count, 27);
+        }
+        if ((removed & PackedStyle.HIDE) != 0) {
+            count = appendCode(out, mode, count, 28);
+        }
+        count = appendAttributeParameters(out, mode, count, added);
+
+        if (PackedStyle.foregroundKind(from) != PackedStyle.foregroundKind(to)
+                || PackedStyle.foreground(from) != PackedStyle.foreground(to)) {
+            count = PackedStyle.foregroundKind(to) == PackedStyle.NONE
+                    ? appendCode(out, mode, count, 39)
+                    : appendColorParameters(out, mode, count, to, false);
+        }
+        if (PackedStyle.backgroundKind(from) != PackedStyle.backgroundKind(to)
+                || PackedStyle.background(from) != PackedStyle.background(to)) {
+            count = PackedStyle.backgroundKind(to) == PackedStyle.NONE
+                    ? appendCode(out, mode, count, 49)
+                    : appendColorParameters(out, mode, count, to, true);
+        }
+
+        if (count > 0) {
+            out.append('m');
+        }
+    }
+
+    /**
+     * Returns the length of the sequence that resets the terminal and then applies the given style.
+     */
+    private static int getResetTransitionLength(long to, SgrMode mode) {
+        if (mode == SgrMode.SEPARATE) {
+            return RESET.length() + getAnsiPrefixLength(to, mode);
+        }
+        // "0;" in front of the parameters of the style
+        return getCombinedPrefixLength(to) + 2;
+    }
+
+    /**
+     * Starts the next parameter of a transition: opens the escape sequence for the first parameter
+     * and separates later ones, either with {@code ;} or, in separate mode, by closing the current
+     * sequence and opening a new one. The caller closes the last sequence with {@code m}.
+     *
+     * @return the number of parameters written so far, including the one being started
+     */
+    private static int nextParameter(StringBuilder out, SgrMode mode, int count) {
+        if (count == 0) {
+            out.append(SgrEncoder.CSI);
+        } else if (mode == SgrMode.SEPARATE) {
+            out.append('m').append(SgrEncoder.CSI);
+        } else {
+            out.append(';');
+        }
+        return count + 1;
+    }
+
+    private static int appendCode(StringBuilder out, SgrMode mode, int count, int code) {
+        count = nextParameter(out, mode, count);
+        SgrEncoder.appendDecimal(out, code);
+        return count;
+    }
+
+    private static int appendAttributeParameters(StringBuilder out, SgrMode mode, int count, int mask) {
+        while (mask != 0) {
+            count = nextParameter(out, mode, count);
+            out.append((char) ('1' + Integer.numberOfTrailingZeros(mask)));
+            mask &= mask - 1;
+        }
+        return count;
+    }
+
+    private static int appendColorParameters(StringBuilder out, SgrMode mode, int count, long style,
+                                             boolean background) {
+        int kind = background ? PackedStyle.backgroundKind(style) : PackedStyle.foregroundKind(style);
+        if (kind == PackedStyle.NONE) {
+            return count;
+        }
+        count = nextParameter(out, mode, count);
+        appendColorParameters(out, kind, background ? PackedStyle.background(style) : PackedStyle.foreground(style),
+                background);
+        return count;
+    }
+
+    /**
+     * Appends every attribute and color of the style as the parameters of a single escape sequence.
+     * Attributes come first, followed by the foreground and the background color.
      *
-     * @param config the style configuration containing attribute flags
-     * @return the combined ANSI escape sequences for all enabled attributes
+     * @param style the packed style
+     * @param out   the builder to append to
+     * @return the given builder
      */
-    private static String getAttributePrefix(StyleConfig config) {
-        StringBuilder prefix = new StringBuilder();
+    private static StringBuilder appendCombinedPrefix(long style, StringBuilder out) {
+        int mask = PackedStyle.attributes(style);
+        int foregroundKind = PackedStyle.foregroundKind(style);
+        int backgroundKind = PackedStyle.backgroundKind(style);
+        if (mask == 0 && foregroundKind == PackedStyle.NONE && backgroundKind == PackedStyle.NONE) {
+            return out;
+        }
 
-        if (config.isBold()) {
-            prefix.append("\u001b[1m");
+        out.append(SgrEncoder.CSI);
+        boolean first = true;
+        while (mask != 0) {
+            if (!first) {
+                out.append(';');
+            }
+            out.append((char) ('1' + Integer.numberOfTrailingZeros(mask)));
+            mask &= mask - 1;
+            first = false;
         }
 
-        if (config.isDim()) {
-            prefix.append("\u001b[2m");
+        if (foregroundKind != PackedStyle.NONE) {
+            if (!first) {
+                out.append(';');
+            }
+            appendColorParameters(out, foregroundKind, PackedStyle.foreground(style), false);
+            first = false;
         }
 
-        if (config.isItalic()) {
-            prefix.append("\u001b[3m");
+        if (backgroundKind != PackedStyle.NONE) {
+            if (!first) {
+                out.append(';');
+            }
+            appendColorParameters(out, backgroundKind, PackedStyle.background(style), true);
         }
 
-        if (config.isUnderlined()) {
-            prefix.append("\u001b[4m");
+        return out.append('m');
+    }
+
+    /**
+     * Computes the exact length of the sequence {@link #appendCombinedPrefix(long, StringBuilder)} appends.
+     *
+     * @param style the packed style
+     * @return the length of the combined sequence in characters, or 0 if nothing is set
+     */
+    private static int getCombinedPrefixLength(long style) {
+        int parameters = Integer.bitCount(PackedStyle.attributes(style));
+        int length = parameters;
+
+        int foregroundKind = PackedStyle.foregroundKind(style);
+        if (foregroundKind != PackedStyle.NONE) {
+            length += colorParametersLength(foregroundKind, PackedStyle.foreground(style), false);
+            parameters++;
         }
 
-        if (config.isSlowBlink()) {
-            prefix.append("\u001b[5m");
+        int backgroundKind = PackedStyle.backgroundKind(style);
+        if (backgroundKind != PackedStyle.NONE) {
+            length += colorParametersLength(backgroundKind, PackedStyle.background(style), true);
+            parameters++;
         }
 
-        if (config.isRapidBlink()) {
-            prefix.append("\u001b[6m");
+        // separators between the parameters plus the final 'm' add up to one character per parameter
+        return parameters == 0 ? 0 : SgrEncoder.CSI.length() + length + parameters;
+    }
+
+    /**
+     * Appends the escape sequence for a foreground or background color.
+     * Supports basic 8/16 colors, 256-color palette entries and RGB colors (24-bit true color).
+     *
+     * @param out        the builder to append to
+     * @param kind       the color kind, see {@link PackedStyle}
+     * @param value      the color value matching the kind
+     * @param background true for the background color, false for the foreground
+     */
+    private static void appendColor(StringBuilder out, int kind, int value, boolean background) {
+        if (kind == PackedStyle.BASIC) {
+            out.append(PackedStyle.basicColor(value).getAnsiCode(background));
+        } else if (kind == PackedStyle.RGB) {
+            SgrEncoder.appendRgb(out, value, background);
+        } else if (kind == PackedStyle.INDEXED) {
+            out.append(IndexedColor.of(value).getAnsiCode(background));
+        }
+    }
+
+    /**
+     * Returns the length of the sequence {@link #appendColor(StringBuilder, int, int, boolean)} appends.
+     *
+     * @param kind       the color kind
+     * @param value      the color value matching the kind
+     * @param background true for the background color, false for the foreground
+     * @return the length in characters, or 0 if no color is set
+     */
+    private static int colorLength(int kind, int value, boolean background) {
+        if (kind == PackedStyle.BASIC) {
+            return PackedStyle.basicColor(value).getAnsiCode(background).length();
+        }
+        if (kind == PackedStyle.INDEXED) {
+            return IndexedColor.of(value).getAnsiCode(background).length();
         }
+        return kind == PackedStyle.RGB ? SgrEncoder.rgbLength(value) : 0;
+    }
 
-        if (config.isReverse()) {
-            prefix.append("\u001b[7m");
+    /**
+     * Appends the parameters of a foreground or background color for use inside a combined sequence.
+     *
+     * @param out        the builder to append to
+     * @param kind       the color kind, must not be {@link PackedStyle#NONE}
+     * @param value      the color value matching the kind
+     * @param background true for the background color, false for the foreground
+     */
+    private static void appendColorParameters(StringBuilder out, int kind, int value, boolean background) {
+        if (kind == PackedStyle.BASIC) {
+            SgrEncoder.appendDecimal(out, PackedStyle.basicColor(value).getSgrCode(background));
+        } else if (kind == PackedStyle.INDEXED) {
+            out.append(IndexedColor.of(value).getSgrParameters(background));
+        } else {
+            SgrEncoder.appendRgbParameters(out, value, background);
         }
+    }
 
-        if (config.isHide()) {
-            prefix.append("\u001b[8m");
+    /**
+     * Returns the length of the parameters {@link #appendColorParameters(StringBuilder, int, int, boolean)} appends.
+     *
+     * @param kind       the color kind, must not be {@link PackedStyle#NONE}
+     * @param value      the color value matching the kind
+     * @param background true for the background color, false for the foreground
+     * @return the length in characters
+     */
+    private static int colorParametersLength(int kind, int value, boolean background) {
+        if (kind == PackedStyle.BASIC) {
+            return SgrEncoder.decimalLength(PackedStyle.basicColor(value).getSgrCode(background));
         }
+        if (kind == PackedStyle.INDEXED) {
+            return IndexedColor.of(value).getSgrParameters(background).length();
+        }
+        return SgrEncoder.rgbParametersLength(value);
+    }
 
-        return prefix.toString();
+    /**
+     * Appends ANSI codes for text attributes such as bold, italic, underline, etc.
+     * Each enabled attribute contributes one precomputed escape sequence.
+     *
+     * @param mask the attribute mask, see {@link PackedStyle}
+     * @param out  the builder to append to
+     * @return the given builder
+     */
+    private static StringBuilder appendAttributePrefix(int mask, StringBuilder out) {
+        while (mask != 0) {
+            out.append(ATTRIBUTE_CODES[Integer.numberOfTrailingZeros(mask)]);
+            mask &= mask - 1;
+        }
+        return out;
     }
 }
@@ -0,0 +1,324 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Strips escape sequences from styled text and measures how many terminal columns it occupies,
+ * for example to align the output of {@link Style#apply(String)} or to write it to a log file.
+ *
+ * <p>Control sequences ({@code ESC [ ... m} and every other CSI sequence), operating system commands
+ * such as hyperlinks ({@code ESC ] ... BEL} or {@code ESC ] ... ESC \}) and two-character escapes are
+ * recognized. A sequence cut off at the end of the input is dropped entirely.</p>
+ *
+ * <p>Text between escape sequences is found without looking at every character: strings are scanned
+ * with {@link String#indexOf(int, int)}, which the JVM compiles to vector instructions, and byte arrays
+ * are scanned eight bytes at a time, so escape-free stretches of a large log buffer are skipped at
+ * close to memory bandwidth and copied with bulk array copies.</p>
+ *
+ * <p>Widths follow the terminal conventions: East Asian wide and fullwidth characters and emoji occupy
+ * two columns, combining marks, control and format characters such as the zero-width joiner occupy none.</p>
+ */
+public final class AnsiText {
+    private static final char ESC = '\u001b';
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final long ESCAPES = 0x1B1B1B1B1B1B1B1BL;
+    private static final long ONES = 0x0101010101010101L;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+    private static final long LOW_BITS = 0x7F7F7F7F7F7F7F7FL;
+
+    /**
+     * Private constructor to prevent instantiation.
+     * This is a utility class that should only be accessed through its static methods.
+     */
+    private AnsiText() {
+        throw new UnsupportedOperationException("Utility class cannot be instantiated");
+    }
+
+    /**
+     * Returns the text without escape sequences.
+     *
+     * @param text the styled text (must not be null)
+     * @return the visible text, or the same string if it is a string without escape sequences
+     * @throws NullPointerException if text is null
+     */
+    public static String strip(CharSequence text) {
+        Objects.requireNonNull(text, "text must not be null");
+        int first = indexOfEscape(text, 0, text.length());
+        if (first == text.length()) {
+            return text.toString();
+        }
+        return strip(text, new StringBuilder(text.length())).toString();
+    }
+
+    /**
+     * Appends the text without escape sequences to a caller-owned builder.
+     *
+     * @param text the styled text (must not be null)
+     * @param out  the builder to append to (must not be null)
+     * @return the given builder
+     * @throws NullPointerException if text or out is null
+     */
+    public static StringBuilder strip(CharSequence text, StringBuilder out) {
+        Objects.requireNonNull(text, "text must not be null");
+        Objects.requireNonNull(out, "out must not be null");
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            int escape = indexOfEscape(text, i, length);
+            out.append(text, i, escape);
+            i = escape < length ? escapeEnd(text, escape, length) : length;
+        }
+        return out;
+    }
+
+    /**
+     * Returns UTF-8 encoded text without escape sequences.
+     *
+     * @param utf8 the styled text encoded as UTF-8 (must not be null)
+     * @return a new array with the visible text
+     * @throws NullPointerException if utf8 is null
+     */
+    public static byte[] strip(byte[] utf8) {
+        Objects.requireNonNull(utf8, "utf8 must not be null");
+        byte[] out = new byte[utf8.length];
+        return Arrays.copyOf(out, strip(utf8, 0, utf8.length, out, 0));
+    }
+
+    /**
+     * Copies a range of UTF-8 encoded text without its escape sequences into a byte array. The output
+     * is never longer than the input, so the source array may also be the destination with
+     * {@code dstOffset <= offset} to strip a buffer in place.
+     *
+     * @param src       the styled text encoded as UTF-8 (must not be null)
+     * @param offset    the index of the first byte to read
+     * @param length    the number of bytes to read
+     * @param dst       the array to write the visible text to (must not be null)
+     * @param dstOffset the index in the destination to start writing at
+     * @return the number of bytes written
+     * @throws NullPointerException      if src or dst is null
+     * @throws IndexOutOfBoundsException if a range does not fit its array
+     */
+    public static int strip(byte[] src, int offset, int length, byte[] dst, int dstOffset) {
+        Objects.requireNonNull(src, "src must not be null");
+        Objects.requireNonNull(dst, "dst must not be null");
+        Objects.checkFromIndexSize(offset, length, src.length);
+        Objects.checkFromIndexSize(dstOffset, length, dst.length);
+
+        int end = offset + length;
+        int i = offset;
+        int position = dstOffset;
+        while (i < end) {
+            int escape = indexOfEscape(src, i, end);
+            System.arraycopy(src, i, dst, position, escape - i);
+            position += escape - i;
+            i = escape < end ? escapeEnd(src, escape, end) : end;
+        }
+        return position - dstOffset;
+    }
+
+    /**
+     * Returns the number of terminal columns the text occupies, ignoring escape sequences.
+     * The text is assumed to be a single line.
+     *
+     * @param text the styled text (must not be null)
+     * @return the display width in columns
+     * @throws NullPointerException if text is null
+     */
+    public static int visibleWidth(CharSequence text) {
+        Objects.requireNonNull(text, "text must not be null");
+        return visibleWidth(text, 0, text.length());
+    }
+
+    /**
+     * Returns the number of terminal columns a range of text occupies, ignoring escape sequences.
+     *
+     * @param text  the styled text (must not be null)
+     * @param start the index of the first character
+     * @param end   the index after the last character
+     * @return the display width in columns
+     * @throws NullPointerException      if text is null
+     * @throws IndexOutOfBoundsException if the range is not within the text
+     */
+    public static int visibleWidth(CharSequence text, int start, int end) {
+        Objects.requireNonNull(text, "text must not be null");
+        Objects.checkFromToIndex(start, end, text.length());
+        int width = 0;
+        int i = start;
+        while (i < end) {
+            char c = text.charAt(i);
+            if (c >= 0x20 && c < 0x7F) {
+                width++;
+                i++;
+            } else if (c == ESC) {
+                i = escapeEnd(text, i, end);
+            } else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(text.charAt(i + 1))) {
+                width += CharWidth.of(Character.toCodePoint(c, text.charAt(i + 1)));
+                i += 2;
+            } else {
+                width += CharWidth.of(c);
+                i++;
+            }
+        }
+        return width;
+    }
+
+    /**
+     * Returns the number of terminal columns a code point occupies.
+     *
+     * @param codePoint the code point
+     * @return 2 for wide characters, 0 for zero-width and control characters, 1 otherwise
+     */
+    public static int width(int codePoint) {
+        return CharWidth.of(codePoint);
+    }
+
+    /**
+     * Returns the index of the next escape character, or {@code end} if there is none.
+     */
+    private static int indexOfEscape(CharSequence text, int from, int end) {
+        if (text instanceof String) {
+            int index = ((String) text).indexOf(ESC, from);
+            return index < 0 || index > end ? end : index;
+        }
+        for (int i = from; i < end; i++) {
+            if (text.charAt(i) == ESC) {
+                return i;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Returns the index of the next escape byte, or {@code end} if there is none. Whole words of eight
+     * bytes are tested at once: a byte of the word XORed with the escape byte is zero exactly where the
+     * escape is, and the lowest zero byte is found with the usual carry trick.
+     * Package-private so that {@link SgrParser} skips text the same way.
+     */
+    static int indexOfEscape(byte[] bytes, int from, int end) {
+        int i = from;
+        for (; i + Long.BYTES <= end; i += Long.BYTES) {
+            long word = (long) LONGS.get(bytes, i) ^ ESCAPES;
+            long zeros = (word - ONES) & ~word & HIGH_BITS;
+            if (zeros != 0) {
+                return i + (Long.numberOfTrailingZeros(zeros) >>> 3);
+            }
+        }
+        for (; i < end; i++) {
+            if (bytes[i] == ESC) {
+                return i;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Returns the index of the next escape byte in a buffer, or {@code end} if there is none, reading
+     * with absolute gets so that direct and memory-mapped buffers are scanned in place. Words are read
+     * in the byte order of the buffer, so the exact zero-byte test is used: unlike the carry trick it
+     * flags no byte above a match, which matters when the first byte in memory is the most significant.
+     * Package-private for {@link SgrParser}.
+     */
+    static int indexOfEscape(ByteBuffer buffer, int from, int end) {
+        boolean littleEndian = buffer.order() == ByteOrder.LITTLE_ENDIAN;
+        int i = from;
+        for (; i + Long.BYTES <= end; i += Long.BYTES) {
+            long word = buffer.getLong(i) ^ ESCAPES;
+            long zeros = ~(((word & LOW_BITS) + LOW_BITS) | word | LOW_BITS);
+            if (zeros != 0) {
+                int bit = littleEndian ? Long.numberOfTrailingZeros(zeros) : Long.numberOfLeadingZeros(zeros);
+                return i + (bit >>> 3);
+            }
+        }
+        for (; i < end; i++) {
+            if (buffer.get(i) == ESC) {
+                return i;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Returns the index after the escape sequence that starts at the given escape character.
+     * Package-private so that other ANSI-aware code skips sequences the same way.
+     *
+     * @param text  the text containing the sequence
+     * @param start the index of the escape character
+     * @param end   the index after the last character that may belong to the sequence
+     * @return the index after the sequence, or {@code end} if it is cut off
+     */
+    static int escapeEnd(CharSequence text, int start, int end) {
+        int i = start + 1;
+        if (i >= end) {
+            return end;
+        }
+        char introducer = text.charAt(i++);
+        if (introducer == '[') {
+            while (i < end && text.charAt(i) >= 0x20 && text.charAt(i) <= 0x3F) {
+                i++;
+            }
+            return i < end && text.charAt(i) >= 0x40 && text.charAt(i) <= 0x7E ? i + 1 : i;
+        }
+        if (isStringIntroducer(introducer)) {
+            for (; i < end; i++) {
+                char c = text.charAt(i);
+                if (c == 0x07) {
+                    return i + 1;
+                }
+                if (c == ESC && i + 1 < end && text.charAt(i + 1) == '\\') {
+                    return i + 2;
+                }
+            }
+            return end;
+        }
+        i--;
+        while (i < end && text.charAt(i) >= 0x20 && text.charAt(i) <= 0x2F) {
+            i++;
+        }
+        return Math.min(i + 1, end);
+    }
+
+    /**
+     * Byte array variant of {@link #escapeEnd(CharSequence, int, int)}. Escape sequences consist of ASCII
+     * characters only, so UTF-8 text is handled byte by byte exactly like characters.
+     */
+    private static int escapeEnd(byte[] bytes, int start, int end) {
+        int i = start + 1;
+        if (i >= end) {
+            return end;
+        }
+        int introducer = bytes[i++];
+        if (introducer == '[') {
+            while (i < end && bytes[i] >= 0x20 && bytes[i] <= 0x3F) {
+                i++;
+            }
+            return i < end && bytes[i] >= 0x40 && bytes[i] <= 0x7E ? i + 1 : i;
+        }
+        if (isStringIntroducer(introducer)) {
+            for (; i < end; i++) {
+                if (bytes[i] == 0x07) {
+                    return i + 1;
+                }
+                if (bytes[i] == ESC && i + 1 < end && bytes[i + 1] == '\\') {
+                    return i + 2;
+                }
+            }
+            return end;
+        }
+        i--;
+        while (i < end && bytes[i] >= 0x20 && bytes[i] <= 0x2F) {
+            i++;
+        }
+        return Math.min(i + 1, end);
+    }
+
+    /**
+     * Returns whether the character after an escape starts a sequence terminated by BEL or
+     * {@code ESC \}: an operating system command, device control string, or privacy or application message.
+     */
+    private static boolean isStringIntroducer(int c) {
+        return c == ']' || c == 'P' || c == 'X' || c == '^' || c == '_';
+    }
+}
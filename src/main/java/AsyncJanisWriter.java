@@ -0,0 +1,419 @@
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Styled console output shared by many threads. Producers hand styled segments to a bounded lock-free
+ * queue and return immediately; a dedicated writer thread drains the queue in batches into a
+ * {@link JanisWriter}, so producers never contend on the stream lock and never wait for the console.
+ * Under load many segments are coalesced into one write; the output is flushed whenever the queue runs empty.
+ *
+ * <pre>{@code
+ * try (AsyncJanisWriter out = new AsyncJanisWriter(Files.newOutputStream(Path.of("events.log")))) {
+ *     workers.forEach(worker -> worker.onEvent(event -> out.println(eventStyle, event.toString())));
+ * }
+ * }</pre>
+ *
+ * <p>Segments from one thread are written in the order they were submitted. Segments from different
+ * threads may interleave, so a line that must stay together should be submitted with a single
+ * {@link #println(Style, CharSequence)} call. What happens when the queue is full is decided by the
+ * {@link BackpressurePolicy}.</p>
+ *
+ * <p>The writer thread is a daemon thread; call {@link #close()} to make sure everything submitted is written.
+ * Closing also closes the wrapped stream, so wrap a stream the caller owns rather than {@code System.out}.
+ * Segments submitted while the writer is being closed may be lost.</p>
+ */
+public final class AsyncJanisWriter implements Flushable, Closeable {
+    /**
+     * The number of segments the queue holds unless configured otherwise.
+     */
+    public static final int DEFAULT_CAPACITY = 8192;
+
+    private static final long IDLE_PARK_NANOS = 50_000_000L;
+    private static final long WAIT_PARK_NANOS = 100_000L;
+
+    private final JanisWriter target;
+    private final JanisWriter spill;
+    private final BackpressurePolicy policy;
+    private final MpscRingBuffer<Segment> queue;
+    private final Thread writerThread;
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder spilled = new LongAdder();
+    private volatile boolean closed;
+    private volatile boolean parked;
+    private volatile long flushRequested;
+    private volatile long written;
+    private volatile IOException failure;
+
+    /**
+     * Creates a writer for an output stream with the default queue capacity that blocks producers when full.
+     *
+     * @param out the stream to write to (must not be null)
+     * @throws NullPointerException if out is null
+     */
+    public AsyncJanisWriter(OutputStream out) {
+        this(new JanisWriter(out), DEFAULT_CAPACITY, BackpressurePolicy.BLOCK);
+    }
+
+    /**
+     * Creates a writer draining into the given writer, which from then on belongs to the writer thread.
+     *
+     * @param target   the writer to drain into (must not be null)
+     * @param capacity the number of segments the queue holds, rounded up to a power of two
+     * @param policy   what to do when the queue is full (must not be null), {@link BackpressurePolicy#SPILL}
+     *                 requires {@link #AsyncJanisWriter(JanisWriter, int, Path)}
+     * @throws NullPointerException     if target or policy is null
+     * @throws IllegalArgumentException if capacity is not positive or policy is SPILL
+     */
+    public AsyncJanisWriter(JanisWriter target, int capacity, BackpressurePolicy policy) {
+        this(target, capacity, policy, null);
+    }
+
+    /**
+     * Creates a writer draining into the given writer that appends segments to a spill file
+     * instead of waiting when the queue is full.
+     *
+     * @param target    the writer to drain into (must not be null)
+     * @param capacity  the number of segments the queue holds, rounded up to a power of two
+     * @param spillFile the file overflowing segments are appended to, created if missing (must not be null)
+     * @throws NullPointerException     if target or spillFile is null
+     * @throws IllegalArgumentException if capacity is not positive
+     * @throws IOException              if the spill file cannot be opened
+     */
+    public AsyncJanisWriter(JanisWriter target, int capacity, Path spillFile) throws IOException {
+        this(target, capacity, BackpressurePolicy.SPILL, new JanisWriter(FileChannel.open(
+                Objects.requireNonNull(spillFile, "spillFile must not be null"),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)));
+    }
+
+    private AsyncJanisWriter(JanisWriter target, int capacity, BackpressurePolicy policy, JanisWriter spill) {
+        Objects.requireNonNull(target, "target must not be null");
+        Objects.requireNonNull(policy, "BackpressurePolicy cannot be null");
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive. Got: " + capacity);
+        }
+        if (policy == BackpressurePolicy.SPILL && spill == null) {
+            throw new IllegalArgumentException("SPILL requires a spill file. Got: " + policy);
+        }
+
+        this.target = target;
+        this.spill = spill;
+        this.policy = policy;
+        this.queue = new MpscRingBuffer<>(capacity);
+        this.writerThread = new Thread(this::drainLoop, "janis-async-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * Submits a segment in the given style.
+     *
+     * @param style the style of the segment (must not be null)
+     * @param text  the text of the segment (must not be null), copied before this method returns
+     * @return this writer for method chaining
+     * @throws NullPointerException  if style or text is null
+     * @throws IllegalStateException if the writer is closed
+     */
+    public AsyncJanisWriter print(Style style, CharSequence text) {
+        Objects.requireNonNull(style, "style must not be null");
+        Objects.requireNonNull(text, "text must not be null");
+        submit(new Segment(style, text.toString(), false));
+        return this;
+    }
+
+    /**
+     * Submits an unstyled segment.
+     *
+     * @param text the text of the segment (must not be null), copied before this method returns
+     * @return this writer for method chaining
+     * @throws NullPointerException  if text is null
+     * @throws IllegalStateException if the writer is closed
+     */
+    public AsyncJanisWriter print(CharSequence text) {
+        Objects.requireNonNull(text, "text must not be null");
+        submit(new Segment(null, text.toString(), false));
+        return this;
+    }
+
+    /**
+     * Submits a segment in the given style followed by a line break, written together as one unit.
+     *
+     * @param style the style of the segment (must not be null)
+     * @param text  the text of the segment (must not be null), copied before this method returns
+     * @return this writer for method chaining
+     * @throws NullPointerException  if style or text is null
+     * @throws IllegalStateException if the writer is closed
+     */
+    public AsyncJanisWriter println(Style style, CharSequence text) {
+        Objects.requireNonNull(style, "style must not be null");
+        Objects.requireNonNull(text, "text must not be null");
+        submit(new Segment(style, text.toString(), true));
+        return this;
+    }
+
+    /**
+     * Submits an unstyled segment followed by a line break, written together as one unit.
+     *
+     * @param text the text of the segment (must not be null), copied before this method returns
+     * @return this writer for method chaining
+     * @throws NullPointerException  if text is null
+     * @throws IllegalStateException if the writer is closed
+     */
+    public AsyncJanisWriter println(CharSequence text) {
+        Objects.requireNonNull(text, "text must not be null");
+        submit(new Segment(null, text.toString(), true));
+        return this;
+    }
+
+    /**
+     * Returns the policy applied when the queue is full.
+     *
+     * @return the backpressure policy
+     */
+    public BackpressurePolicy policy() {
+        return policy;
+    }
+
+    /**
+     * Returns the number of segments the queue holds.
+     *
+     * @return the queue capacity
+     */
+    public int capacity() {
+        return queue.capacity();
+    }
+
+    /**
+     * Returns the number of segments discarded because the queue was full.
+     *
+     * @return the drop count, always 0 unless the policy is {@link BackpressurePolicy#DROP}
+     */
+    public long droppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Returns the number of segments written to the spill file because the queue was full.
+     *
+     * @return the spill count, always 0 unless the policy is {@link BackpressurePolicy#SPILL}
+     */
+    public long spilledCount() {
+        return spilled.sum();
+    }
+
+    /**
+     * Waits until every segment submitted before this call has been written and flushed.
+     *
+     * @throws IOException if the writer is closed or writing has failed
+     */
+    @Override
+    public void flush() throws IOException {
+        if (closed) {
+            throw new IOException("AsyncJanisWriter is closed");
+        }
+        long submitted = queue.offeredCount();
+        flushRequested = submitted;
+        LockSupport.unpark(writerThread);
+        while (written < submitted && writerThread.isAlive()) {
+            LockSupport.parkNanos(this, WAIT_PARK_NANOS);
+        }
+        if (spill != null) {
+            synchronized (spill) {
+                flushSpill();
+            }
+        }
+        checkFailure();
+    }
+
+    /**
+     * Stops accepting segments, waits until the writer thread has written everything queued and closes the
+     * target writer and the spill file. Closing an already closed writer has no effect.
+     *
+     * @throws IOException if writing or closing has failed
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        LockSupport.unpark(writerThread);
+        boolean interrupted = false;
+        while (writerThread.isAlive()) {
+            try {
+                writerThread.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        try {
+            target.close();
+        } catch (IOException e) {
+            recordFailure(e);
+        }
+        if (spill != null) {
+            synchronized (spill) {
+                try {
+                    spill.close();
+                } catch (IOException e) {
+                    recordFailure(e);
+                }
+            }
+        }
+        checkFailure();
+    }
+
+    private void submit(Segment segment) {
+        if (closed) {
+            throw new IllegalStateException("AsyncJanisWriter is closed");
+        }
+        if (!queue.offer(segment)) {
+            switch (policy) {
+                case BLOCK -> {
+                    LockSupport.unpark(writerThread);
+                    while (!queue.offer(segment)) {
+                        if (!writerThread.isAlive()) {
+                            throw new IllegalStateException("AsyncJanisWriter is closed");
+                        }
+                        LockSupport.parkNanos(this, WAIT_PARK_NANOS);
+                    }
+                }
+                case DROP -> {
+                    dropped.increment();
+                    return;
+                }
+                case SPILL -> {
+                    writeSpill(segment);
+                    return;
+                }
+            }
+        }
+        // The writer checks the queue after announcing that it parks, so either it sees this segment
+        // or this thread sees the flag; both sides use volatile accesses for the handshake.
+        if (parked) {
+            LockSupport.unpark(writerThread);
+        }
+    }
+
+    /**
+     * Body of the writer thread: drains the queue in batches, flushes when it runs empty and parks until
+     * a producer wakes it up.
+     */
+    private void drainLoop() {
+        long consumed = 0;
+        while (true) {
+            boolean stopping = closed;
+            Segment segment;
+            int batch = 0;
+            while (batch < queue.capacity() && (segment = queue.poll()) != null) {
+                write(target, segment);
+                consumed++;
+                batch++;
+            }
+
+            boolean empty = queue.isEmpty();
+            if (empty || flushRequested > written) {
+                flushTarget();
+                written = consumed;
+            }
+            if (!empty) {
+                if (batch == 0) {
+                    // A producer has claimed a slot but not yet published its segment.
+                    Thread.onSpinWait();
+                }
+                continue;
+            }
+            if (stopping) {
+                return;
+            }
+
+            parked = true;
+            if (queue.isEmpty() && !closed) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+            parked = false;
+        }
+    }
+
+    private void write(JanisWriter writer, Segment segment) {
+        if (failure != null) {
+            return;
+        }
+        try {
+            if (segment.style != null) {
+                writer.write(segment.style, segment.text);
+            } else {
+                writer.write(segment.text);
+            }
+            if (segment.newLine) {
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            recordFailure(e);
+        }
+    }
+
+    private void flushTarget() {
+        if (failure != null) {
+            return;
+        }
+        try {
+            target.flush();
+        } catch (IOException e) {
+            recordFailure(e);
+        }
+    }
+
+    private void writeSpill(Segment segment) {
+        synchronized (spill) {
+            if (closed) {
+                throw new IllegalStateException("AsyncJanisWriter is closed");
+            }
+            write(spill, segment);
+            spilled.increment();
+        }
+    }
+
+    private void flushSpill() {
+        if (failure != null) {
+            return;
+        }
+        try {
+            spill.flush();
+        } catch (IOException e) {
+            recordFailure(e);
+        }
+    }
+
+    private void recordFailure(IOException e) {
+        synchronized (this) {
+            if (failure == null) {
+                failure = e;
+            }
+        }
+    }
+
+    private void checkFailure() throws IOException {
+        IOException e = failure;
+        if (e != null) {
+            throw new IOException("AsyncJanisWriter failed to write", e);
+        }
+    }
+
+    /**
+     * A submitted segment; a null style stands for unstyled text.
+     */
+    private record Segment(Style style, String text, boolean newLine) {
+    }
+}
@@ -0,0 +1,18 @@
+/**
+ * Determines what happens when a producer hands a segment to a full {@link AsyncJanisWriter} queue.
+ */
+public enum BackpressurePolicy {
+    /**
+     * The producer waits until the writer thread has made room.
+     */
+    BLOCK,
+    /**
+     * The segment is discarded and counted in {@link AsyncJanisWriter#droppedCount()}.
+     */
+    DROP,
+    /**
+     * The segment is written to a spill file instead, so no output is lost and producers never wait
+     * for the console.
+     */
+    SPILL
+}
@@ -41,14 +41,19 @@ public enum BasicColor {
     BRIGHT_WHITE(67);
 
     private final int ansiCodeOffset;
+    private final String foregroundCode;
+    private final String backgroundCode;
 
     /**
      * Constructs a BasicColor with the specified ANSI code offset.
+     * The foreground and background escape sequences are built once here and shared by every style.
      *
      * @param ansiCodeOffset the offset value added to the base ANSI code
      */
     BasicColor(int ansiCodeOffset) {
         this.ansiCodeOffset = ansiCodeOffset;
+        this.foregroundCode = SgrEncoder.CSI + (30 + ansiCodeOffset) + "m";
+        this.backgroundCode = SgrEncoder.CSI + (40 + ansiCodeOffset) + "m";
     }
 
     /**
@@ -58,7 +63,16 @@ public enum BasicColor {
      * @return the complete ANSI escape sequence for this color
      */
     public String getAnsiCode(boolean isBackground) {
-        int baseCode = isBackground ? 40 : 30;
-        return String.format("\u001b[%dm", baseCode + this.ansiCodeOffset);
+        return isBackground ? backgroundCode : foregroundCode;
+    }
+
+    /**
+     * Returns the numeric SGR parameter for this color, as used inside a combined escape sequence.
+     *
+     * @param isBackground true if this color should be applied as background, false for foreground
+     * @return the SGR parameter, for example 31 for red text or 101 for a bright red background
+     */
+    int getSgrCode(boolean isBackground) {
+        return (isBackground ? 40 : 30) + this.ansiCodeOffset;
     }
 }
@@ -0,0 +1,27 @@
+/**
+ * Snapshot of the hit and miss counters of a cache.
+ *
+ * @param hitCount      the number of lookups that found a cached entry
+ * @param missCount     the number of lookups that had to create a new entry
+ * @param evictionCount the number of entries discarded to stay within the maximum size
+ */
+public record CacheStats(long hitCount, long missCount, long evictionCount) {
+    /**
+     * Returns the total number of lookups.
+     *
+     * @return the sum of hits and misses
+     */
+    public long requestCount() {
+        return hitCount + missCount;
+    }
+
+    /**
+     * Returns the ratio of lookups that found a cached entry.
+     *
+     * @return the hit rate between 0.0 and 1.0, or 1.0 if there were no lookups yet
+     */
+    public double hitRate() {
+        long requests = requestCount();
+        return requests == 0 ? 1.0 : (double) hitCount / requests;
+    }
+}
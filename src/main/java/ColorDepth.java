@@ -0,0 +1,21 @@
+/**
+ * The number of colors a terminal can show. Colors a terminal cannot show are replaced with the
+ * nearest color it can show when escape sequences are generated.
+ *
+ * @see Janis#setColorDepth(ColorDepth)
+ */
+public enum ColorDepth {
+    /**
+     * 24-bit color: RGB colors are emitted as they are.
+     */
+    TRUECOLOR,
+    /**
+     * The xterm 256-color palette: RGB colors are replaced with the nearest entry of the 6x6x6 color cube
+     * or the grayscale ramp.
+     */
+    XTERM_256,
+    /**
+     * The 16 basic colors: RGB colors and palette entries are replaced with the nearest {@link BasicColor}.
+     */
+    ANSI_16
+}
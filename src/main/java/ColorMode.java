@@ -0,0 +1,22 @@
+/**
+ * Determines whether styles emit ANSI escape sequences.
+ *
+ * @see Janis#setColorMode(ColorMode)
+ * @see Style#withColorMode(ColorMode)
+ */
+public enum ColorMode {
+    /**
+     * Emit escape sequences only when the output looks like a color terminal: {@code NO_COLOR} is not set,
+     * {@code TERM} is not {@code dumb} and a console is attached, unless {@code FORCE_COLOR} or
+     * {@code CLICOLOR_FORCE} asks for color anyway. For a single style, follow the global mode.
+     */
+    AUTO,
+    /**
+     * Always emit escape sequences.
+     */
+    ALWAYS,
+    /**
+     * Never emit escape sequences; styled text is the plain text.
+     */
+    NEVER
+}
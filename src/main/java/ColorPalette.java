@@ -0,0 +1,172 @@
+/**
+ * Maps colors to the nearest entry of the xterm 256-color palette or the 16 basic colors.
+ *
+ * <p>Searching the nearest palette entry for every color is too slow for gradients and heat maps,
+ * so each mapping uses a lookup table indexed by the color reduced to 15 bits (RGB555). The tables
+ * have 32768 entries each and are built the first time they are needed.</p>
+ */
+final class ColorPalette {
+    /**
+     * The xterm default values of the 16 system colors, in {@link BasicColor} ordinal order.
+     */
+    private static final int[] SYSTEM_COLORS = {
+            0x000000, 0xCD0000, 0x00CD00, 0xCDCD00, 0x0000EE, 0xCD00CD, 0x00CDCD, 0xE5E5E5,
+            0x7F7F7F, 0xFF0000, 0x00FF00, 0xFFFF00, 0x5C5CFF, 0xFF00FF, 0x00FFFF, 0xFFFFFF
+    };
+
+    private static final int[] CUBE_LEVELS = {0, 95, 135, 175, 215, 255};
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private ColorPalette() {
+    }
+
+    /**
+     * Returns the color of an entry of the xterm 256-color palette.
+     *
+     * @param index the palette index, 0-255
+     * @return the color packed as {@code 0xRRGGBB}
+     */
+    static int xterm256Rgb(int index) {
+        if (index < 16) {
+            return SYSTEM_COLORS[index];
+        }
+        if (index < 232) {
+            int cube = index - 16;
+            return (CUBE_LEVELS[cube / 36] << 16) | (CUBE_LEVELS[(cube / 6) % 6] << 8) | CUBE_LEVELS[cube % 6];
+        }
+        int gray = 8 + 10 * (index - 232);
+        return (gray << 16) | (gray << 8) | gray;
+    }
+
+    /**
+     * Returns the entry of the 256-color palette nearest to a color. Only the color cube and the
+     * grayscale ramp are considered, since terminals often redefine the 16 system colors.
+     *
+     * @param rgb the color packed as {@code 0xRRGGBB}
+     * @return the palette index, 16-255
+     */
+    static int toXterm256(int rgb) {
+        return Xterm256Table.TABLE[rgb555(rgb)] & 0xFF;
+    }
+
+    /**
+     * Returns the basic color nearest to a color.
+     *
+     * @param rgb the color packed as {@code 0xRRGGBB}
+     * @return the {@link BasicColor} ordinal
+     */
+    static int toBasic(int rgb) {
+        return BasicTable.TABLE[rgb555(rgb)];
+    }
+
+    /**
+     * Reduces the colors of a packed style to a color depth. Attributes and colors the depth
+     * can already show are kept.
+     *
+     * @param style the packed style
+     * @param depth the color depth of the terminal
+     * @return the packed style with every color representable at the given depth
+     */
+    static long downsample(long style, ColorDepth depth) {
+        if (depth == ColorDepth.TRUECOLOR || style == PackedStyle.UNKNOWN) {
+            return style;
+        }
+
+        int kind = PackedStyle.foregroundKind(style);
+        if (needsDownsampling(kind, depth)) {
+            int value = PackedStyle.foreground(style);
+            style = depth == ColorDepth.XTERM_256
+                    ? PackedStyle.withForeground(style, PackedStyle.INDEXED, toXterm256(value))
+                    : PackedStyle.withForeground(style, PackedStyle.BASIC, toBasic(kind, value));
+        }
+        kind = PackedStyle.backgroundKind(style);
+        if (needsDownsampling(kind, depth)) {
+            int value = PackedStyle.background(style);
+            style = depth == ColorDepth.XTERM_256
+                    ? PackedStyle.withBackground(style, PackedStyle.INDEXED, toXterm256(value))
+                    : PackedStyle.withBackground(style, PackedStyle.BASIC, toBasic(kind, value));
+        }
+        return style;
+    }
+
+    private static boolean needsDownsampling(int kind, ColorDepth depth) {
+        return kind == PackedStyle.RGB || (kind == PackedStyle.INDEXED && depth == ColorDepth.ANSI_16);
+    }
+
+    private static int toBasic(int kind, int value) {
+        if (kind == PackedStyle.INDEXED) {
+            return value < 16 ? value : toBasic(xterm256Rgb(value));
+        }
+        return toBasic(value);
+    }
+
+    private static int rgb555(int rgb) {
+        return ((rgb >>> 9) & 0x7C00) | ((rgb >>> 6) & 0x3E0) | ((rgb >>> 3) & 0x1F);
+    }
+
+    /**
+     * Returns the color at the center of an RGB555 cell, so each cell maps to the palette entry
+     * nearest to the colors it stands for.
+     */
+    private static int cellColor(int rgb555) {
+        int r = ((rgb555 >>> 10) & 0x1F) << 3 | 4;
+        int g = ((rgb555 >>> 5) & 0x1F) << 3 | 4;
+        int b = (rgb555 & 0x1F) << 3 | 4;
+        return (r << 16) | (g << 8) | b;
+    }
+
+    /**
+     * Returns a perceptually weighted squared distance between two colors ("redmean" approximation),
+     * which matches human judgment better than the plain Euclidean distance at the same cost.
+     */
+    static int distance(int a, int b) {
+        int r1 = (a >>> 16) & 0xFF;
+        int r2 = (b >>> 16) & 0xFF;
+        int redMean = (r1 + r2) >> 1;
+        int dr = r1 - r2;
+        int dg = ((a >>> 8) & 0xFF) - ((b >>> 8) & 0xFF);
+        int db = (a & 0xFF) - (b & 0xFF);
+        return (((512 + redMean) * dr * dr) >> 8) + 4 * dg * dg + (((767 - redMean) * db * db) >> 8);
+    }
+
+    private static int nearest(int rgb, int from, int to, boolean xterm) {
+        int best = from;
+        int bestDistance = Integer.MAX_VALUE;
+        for (int i = from; i < to; i++) {
+            int candidate = distance(rgb, xterm ? xterm256Rgb(i) : SYSTEM_COLORS[i]);
+            if (candidate < bestDistance) {
+                best = i;
+                bestDistance = candidate;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Lazily initialized table from RGB555 to the nearest 256-color palette index.
+     */
+    private static final class Xterm256Table {
+        static final byte[] TABLE = new byte[1 << 15];
+
+        static {
+            for (int i = 0; i < TABLE.length; i++) {
+                TABLE[i] = (byte) nearest(cellColor(i), 16, 256, true);
+            }
+        }
+    }
+
+    /**
+     * Lazily initialized table from RGB555 to the nearest basic color ordinal.
+     */
+    private static final class BasicTable {
+        static final byte[] TABLE = new byte[1 << 15];
+
+        static {
+            for (int i = 0; i < TABLE.length; i++) {
+                TABLE[i] = (byte) nearest(cellColor(i), 0, 16, false);
+            }
+        }
+    }
+}
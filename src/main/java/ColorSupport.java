@@ -0,0 +1,124 @@
+import java.io.Console;
+import java.lang.reflect.Method;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Holds the global {@link ColorMode} and whether it currently enables escape sequences.
+ * The environment is inspected once, when the class is initialized or when the mode is set to
+ * {@link ColorMode#AUTO}, so checking whether color is enabled is a single volatile read.
+ * The initial mode can be chosen with the {@code janis.color} system property
+ * ({@code auto}, {@code always} or {@code never}).
+ */
+final class ColorSupport {
+    /**
+     * The system property choosing the initial color mode.
+     */
+    static final String PROPERTY = "janis.color";
+
+    private static volatile ColorMode mode;
+    private static volatile boolean enabled;
+
+    static {
+        setMode(initialMode(System.getProperty(PROPERTY)));
+    }
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private ColorSupport() {
+    }
+
+    /**
+     * Returns whether styles following the global mode emit escape sequences.
+     *
+     * @return true if color is enabled
+     */
+    static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the global color mode.
+     *
+     * @return the color mode
+     */
+    static ColorMode getMode() {
+        return mode;
+    }
+
+    /**
+     * Sets the global color mode, inspecting the environment again for {@link ColorMode#AUTO}.
+     *
+     * @param colorMode the color mode
+     */
+    static synchronized void setMode(ColorMode colorMode) {
+        enabled = switch (colorMode) {
+            case ALWAYS -> true;
+            case NEVER -> false;
+            case AUTO -> detect(System.getenv(), isTerminal());
+        };
+        mode = colorMode;
+    }
+
+    /**
+     * Parses the value of the {@code janis.color} system property, falling back to {@link ColorMode#AUTO}
+     * if it is missing or not recognized.
+     *
+     * @param property the property value, may be null
+     * @return the initial color mode
+     */
+    static ColorMode initialMode(String property) {
+        if (property != null) {
+            for (ColorMode colorMode : ColorMode.values()) {
+                if (colorMode.name().equalsIgnoreCase(property.trim())) {
+                    return colorMode;
+                }
+            }
+        }
+        return ColorMode.AUTO;
+    }
+
+    /**
+     * Decides whether color should be enabled, following the {@code NO_COLOR}, {@code FORCE_COLOR} and
+     * {@code CLICOLOR_FORCE} conventions and treating {@code TERM=dumb} as a terminal without color.
+     *
+     * @param env      the environment variables
+     * @param terminal whether the output is attached to a terminal
+     * @return true if color should be enabled
+     */
+    static boolean detect(Map<String, String> env, boolean terminal) {
+        if (isSet(env.get("NO_COLOR"))) {
+            return false;
+        }
+        if (isSet(env.get("FORCE_COLOR")) || isSet(env.get("CLICOLOR_FORCE"))) {
+            return true;
+        }
+        String term = env.get("TERM");
+        if (term != null && term.toLowerCase(Locale.ROOT).equals("dumb")) {
+            return false;
+        }
+        return terminal;
+    }
+
+    private static boolean isSet(String value) {
+        return value != null && !value.isEmpty() && !value.equals("0") && !value.equalsIgnoreCase("false");
+    }
+
+    /**
+     * Returns whether standard output is attached to a terminal. Since Java 22 a console may exist even
+     * when output is redirected, so {@code Console.isTerminal()} is consulted where it is available.
+     */
+    private static boolean isTerminal() {
+        Console console = System.console();
+        if (console == null) {
+            return false;
+        }
+        try {
+            Method isTerminal = Console.class.getMethod("isTerminal");
+            return (Boolean) isTerminal.invoke(console);
+        } catch (ReflectiveOperationException e) {
+            return true;
+        }
+    }
+}
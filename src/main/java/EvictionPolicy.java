@@ -0,0 +1,15 @@
+/**
+ * Determines which entry a bounded cache discards when it is full.
+ *
+ * @see StyleCache
+ */
+public enum EvictionPolicy {
+    /**
+     * Discards the least recently used entry.
+     */
+    LRU,
+    /**
+     * Discards the entry that was added first, regardless of how often it is used.
+     */
+    FIFO
+}
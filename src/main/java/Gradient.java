@@ -0,0 +1,209 @@
+import java.util.Objects;
+
+/**
+ * A color gradient that styles a whole string in one pass, for banners and heat-map bars.
+ *
+ * <pre>{@code
+ * Gradient sunset = Gradient.of("#FF5F6D", "#FFC371");
+ * System.out.println(sunset.apply("Build finished"));
+ * }</pre>
+ *
+ * <p>Each code point gets the color at its position between the first and the last stop, but an escape
+ * sequence is only emitted where the color actually changes: neighbouring characters whose colors are
+ * equal after quantization to the current {@link ColorDepth} share one sequence, the color is switched
+ * without a reset in between, and whitespace keeps the current color of a foreground gradient. A single
+ * reset ends the text. On a 256-color terminal a long gradient therefore needs only a handful of
+ * sequences.</p>
+ *
+ * <p>Stops are interpolated in sRGB by default. {@link #perceptual()} interpolates in linear light
+ * instead, which avoids the dark band halfway between complementary colors; the conversions use
+ * precomputed lookup tables, so both are equally fast.</p>
+ *
+ * <p>Gradients are immutable and thread-safe.</p>
+ */
+public final class Gradient {
+    private final int[] stops;
+    private final boolean perceptual;
+    private final boolean background;
+
+    private Gradient(int[] stops, boolean perceptual, boolean background) {
+        this.stops = stops;
+        this.perceptual = perceptual;
+        this.background = background;
+    }
+
+    /**
+     * Creates a gradient through the given colors, evenly spaced.
+     *
+     * @param hexStops the colors in hexadecimal format (#RGB or #RRGGBB), at least two
+     * @return the gradient
+     * @throws NullPointerException     if hexStops or one of its colors is null
+     * @throws IllegalArgumentException if there are fewer than two colors or a color is invalid
+     */
+    public static Gradient of(String... hexStops) {
+        Objects.requireNonNull(hexStops, "hexStops must not be null");
+        int[] stops = new int[hexStops.length];
+        for (int i = 0; i < stops.length; i++) {
+            stops[i] = Rgb.parseHex(Objects.requireNonNull(hexStops[i], "Hex color cannot be null"));
+        }
+        return new Gradient(checkCount(stops), false, false);
+    }
+
+    /**
+     * Creates a gradient through the given colors, evenly spaced.
+     *
+     * @param rgbStops the colors packed as {@code 0xRRGGBB}, at least two
+     * @return the gradient
+     * @throws NullPointerException     if rgbStops is null
+     * @throws IllegalArgumentException if there are fewer than two colors or a color is out of range
+     */
+    public static Gradient ofRgb(int... rgbStops) {
+        Objects.requireNonNull(rgbStops, "rgbStops must not be null");
+        for (int rgb : rgbStops) {
+            if ((rgb & ~0xFFFFFF) != 0) {
+                throw new IllegalArgumentException("RGB color must be in the range 0x000000-0xFFFFFF. Got: 0x"
+                        + Integer.toHexString(rgb).toUpperCase());
+            }
+        }
+        return new Gradient(checkCount(rgbStops.clone()), false, false);
+    }
+
+    private static int[] checkCount(int[] stops) {
+        if (stops.length < 2) {
+            throw new IllegalArgumentException("A gradient needs at least two colors. Got: " + stops.length);
+        }
+        return stops;
+    }
+
+    /**
+     * Returns a copy of this gradient that interpolates in linear light instead of sRGB.
+     *
+     * @return the perceptual gradient
+     */
+    public Gradient perceptual() {
+        return perceptual ? this : new Gradient(stops, true, background);
+    }
+
+    /**
+     * Returns a copy of this gradient that colors the background instead of the text.
+     *
+     * @return the background gradient
+     */
+    public Gradient background() {
+        return background ? this : new Gradient(stops, perceptual, true);
+    }
+
+    /**
+     * Returns the color of the gradient at a position.
+     *
+     * @param position the position from 0 (the first stop) to 1 (the last stop); values outside are clamped
+     * @return the color packed as {@code 0xRRGGBB}
+     */
+    public int colorAt(double position) {
+        double scaled = Math.min(Math.max(position, 0), 1) * (stops.length - 1);
+        int segment = Math.min((int) scaled, stops.length - 2);
+        return interpolate(stops[segment], stops[segment + 1], scaled - segment);
+    }
+
+    /**
+     * Applies the gradient to a text. If color is disabled, the text is returned unchanged.
+     *
+     * @param text the text to color (must not be null)
+     * @return the colored text
+     * @throws NullPointerException if text is null
+     */
+    public String apply(CharSequence text) {
+        Objects.requireNonNull(text, "text must not be null");
+        if (!ColorSupport.isEnabled()) {
+            return text.toString();
+        }
+        return apply(text, new StringBuilder(text.length() * 4 + 16)).toString();
+    }
+
+    /**
+     * Appends the text with the gradient applied to a caller-owned builder. If color is disabled, the
+     * text is appended unchanged.
+     *
+     * @param text the text to color (must not be null)
+     * @param out  the builder to append to (must not be null)
+     * @return the given builder
+     * @throws NullPointerException if text or out is null
+     */
+    public StringBuilder apply(CharSequence text, StringBuilder out) {
+        Objects.requireNonNull(text, "text must not be null");
+        Objects.requireNonNull(out, "out must not be null");
+        if (!ColorSupport.isEnabled()) {
+            return out.append(text);
+        }
+
+        int length = text.length();
+        int count = Character.codePointCount(text, 0, length);
+        ColorDepth depth = AnsiCodeGenerator.getColorDepth();
+        SgrMode mode = AnsiCodeGenerator.getSgrMode();
+        double step = count > 1 ? 1.0 / (count - 1) : 0;
+        long current = PackedStyle.EMPTY;
+        int index = 0;
+        int i = 0;
+        while (i < length) {
+            int codePoint = Character.codePointAt(text, i);
+            int next = i + Character.charCount(codePoint);
+            if (background || current == PackedStyle.EMPTY || !Character.isWhitespace(codePoint)) {
+                long style = ColorPalette.downsample(styleOf(colorAt(index * step)), depth);
+                AnsiCodeGenerator.appendTransition(current, style, mode, out);
+                current = style;
+            }
+            out.append(text, i, next);
+            index++;
+            i = next;
+        }
+        if (current != PackedStyle.EMPTY) {
+            out.append(AnsiCodeGenerator.RESET);
+        }
+        return out;
+    }
+
+    private long styleOf(int rgb) {
+        return background
+                ? PackedStyle.withBackground(PackedStyle.EMPTY, PackedStyle.RGB, rgb)
+                : PackedStyle.withForeground(PackedStyle.EMPTY, PackedStyle.RGB, rgb);
+    }
+
+    private int interpolate(int from, int to, double t) {
+        return (channel(from >>> 16, to >>> 16, t) << 16)
+                | (channel((from >>> 8) & 0xFF, (to >>> 8) & 0xFF, t) << 8)
+                | channel(from & 0xFF, to & 0xFF, t);
+    }
+
+    private int channel(int from, int to, double t) {
+        if (from == to) {
+            return from;
+        }
+        if (!perceptual) {
+            return (int) (from + (to - from) * t + 0.5);
+        }
+        float linear = Linear.TO_LINEAR[from] + (Linear.TO_LINEAR[to] - Linear.TO_LINEAR[from]) * (float) t;
+        return Linear.TO_SRGB[(int) (linear * (Linear.STEPS - 1) + 0.5f)] & 0xFF;
+    }
+
+    /**
+     * Lookup tables converting sRGB components to linear light and back, built when first used.
+     * Linear values are quantized to 4096 steps, fine enough for 8-bit output.
+     */
+    private static final class Linear {
+        static final int STEPS = 4096;
+        static final float[] TO_LINEAR = new float[256];
+        static final byte[] TO_SRGB = new byte[STEPS];
+
+        static {
+            for (int i = 0; i < TO_LINEAR.length; i++) {
+                double c = i / 255.0;
+                TO_LINEAR[i] = (float) (c <= 0.04045 ? c / 12.92 : Math.pow((c + 0.055) / 1.055, 2.4));
+            }
+            for (int i = 0; i < STEPS; i++) {
+                double l = i / (double) (STEPS - 1);
+                double c = l <= 0.0031308 ? l * 12.92 : 1.055 * Math.pow(l, 1 / 2.4) - 0.055;
+                TO_SRGB[i] = (byte) Math.round(c * 255);
+            }
+        }
+    }
+}
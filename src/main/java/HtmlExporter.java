@@ -0,0 +1,369 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/**
+ * Converts ANSI-colored text files, such as build logs, into standalone HTML pages.
+ *
+ * <pre>{@code
+ * HtmlExporter.export(Path.of("build.log"), Path.of("build.html"));
+ * }</pre>
+ *
+ * <p>The input is memory-mapped in windows of at most 64 MiB and parsed in place by an {@link SgrParser},
+ * without copying it to the heap; text runs are copied from the mapping straight into one large direct
+ * buffer that is written to the output whenever it fills up. Memory use is therefore the same for a log
+ * of a few kilobytes and one of several gigabytes.</p>
+ *
+ * <p>Each distinct style gets one CSS class, numbered in order of first appearance. Styles are told apart
+ * by the packed representation {@link Style} uses, so equal styles share a class no matter how the escape
+ * sequences that selected them were written. Since the classes are only known once the whole input has
+ * been read, their rules are written in a {@code <style>} element at the end of the page. Text is
+ * written as UTF-8, with {@code &}, {@code <}, {@code >} and {@code "} escaped.</p>
+ */
+public final class HtmlExporter {
+    /**
+     * The size of the direct output buffer, 1 MiB.
+     */
+    public static final int OUTPUT_BUFFER_SIZE = 1 << 20;
+
+    private static final long MAP_WINDOW = 1L << 26;
+    private static final int DEFAULT_FOREGROUND = 0xD4D4D4;
+    private static final int DEFAULT_BACKGROUND = 0x1E1E1E;
+    private static final byte[] SPAN_START = ascii("<span class=\"s");
+    private static final byte[] SPAN_START_END = ascii("\">");
+    private static final byte[] SPAN_END = ascii("</span>");
+    private static final byte[] AMP = ascii("&amp;");
+    private static final byte[] LT = ascii("&lt;");
+    private static final byte[] GT = ascii("&gt;");
+    private static final byte[] QUOT = ascii("&quot;");
+
+    private final WritableByteChannel output;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(OUTPUT_BUFFER_SIZE);
+    private final StyleInterner classes = new StyleInterner();
+    private long currentStyle = PackedStyle.EMPTY;
+
+    private HtmlExporter(WritableByteChannel output) {
+        this.output = output;
+    }
+
+    /**
+     * Converts an ANSI-colored text file into an HTML file, replacing the output file if it exists.
+     * The input is expected to be UTF-8 or another ASCII-compatible encoding, which is passed through.
+     *
+     * @param input  the ANSI-colored file (must not be null)
+     * @param output the HTML file to write (must not be null)
+     * @return the number of distinct styles, which is the number of CSS classes written
+     * @throws NullPointerException if input or output is null
+     * @throws IOException          if reading the input or writing the output fails
+     */
+    public static int export(Path input, Path output) throws IOException {
+        Objects.requireNonNull(input, "input must not be null");
+        Objects.requireNonNull(output, "output must not be null");
+        try (FileChannel channel = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            return export(input, channel);
+        }
+    }
+
+    /**
+     * Converts an ANSI-colored text file into an HTML page written to a channel. The channel is not closed.
+     *
+     * @param input  the ANSI-colored file (must not be null)
+     * @param output the channel to write the HTML page to (must not be null)
+     * @return the number of distinct styles, which is the number of CSS classes written
+     * @throws NullPointerException if input or output is null
+     * @throws IOException          if reading the input or writing the output fails
+     */
+    public static int export(Path input, WritableByteChannel output) throws IOException {
+        Objects.requireNonNull(input, "input must not be null");
+        Objects.requireNonNull(output, "output must not be null");
+        HtmlExporter exporter = new HtmlExporter(output);
+        Path name = input.getFileName();
+        exporter.begin(name == null ? "" : name.toString());
+
+        SgrParser parser = new SgrParser(exporter.new Text());
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long position = 0; position < size; position += MAP_WINDOW) {
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(MAP_WINDOW, size - position));
+                parser.feed(window);
+            }
+        } catch (UncheckedIOException e) {
+            // write failures are carried out of the parser callback, which cannot throw checked exceptions
+            throw e.getCause();
+        }
+
+        exporter.end();
+        return exporter.classes.size();
+    }
+
+    private void begin(String title) throws IOException {
+        put("<!DOCTYPE html>\n<html>\n<head>\n<meta charset=\"utf-8\">\n<title>");
+        StringBuilder escaped = new StringBuilder();
+        for (int i = 0; i < title.length(); i++) {
+            appendEscaped(escaped, title.charAt(i));
+        }
+        put(escaped);
+        put("</title>\n<style>\npre.janis { color: ");
+        put(hex(DEFAULT_FOREGROUND));
+        put("; background: ");
+        put(hex(DEFAULT_BACKGROUND));
+        put("; padding: 1em; }\n</style>\n</head>\n<body>\n<pre class=\"janis\">");
+    }
+
+    /**
+     * Opens the span of a style unless it is already open, closing the previous one.
+     */
+    private void switchStyle(long style) throws IOException {
+        if (style == currentStyle) {
+            return;
+        }
+        if (currentStyle != PackedStyle.EMPTY) {
+            put(SPAN_END);
+        }
+        if (style != PackedStyle.EMPTY) {
+            put(SPAN_START);
+            putNumber(classes.intern(style));
+            put(SPAN_START_END);
+        }
+        currentStyle = style;
+    }
+
+    private static byte[] entity(byte b) {
+        switch (b) {
+            case '&':
+                return AMP;
+            case '<':
+                return LT;
+            case '>':
+                return GT;
+            case '"':
+                return QUOT;
+            default:
+                return null;
+        }
+    }
+
+    private void end() throws IOException {
+        if (currentStyle != PackedStyle.EMPTY) {
+            put(SPAN_END);
+        }
+        put("</pre>\n<style>\n");
+        StringBuilder rule = new StringBuilder(128);
+        for (int i = 0; i < classes.size(); i++) {
+            rule.setLength(0);
+            appendRule(rule, i, classes.style(i));
+            put(rule);
+        }
+        put("</style>\n</body>\n</html>\n");
+        flush();
+    }
+
+    /**
+     * Appends the CSS rule of one class.
+     */
+    private static void appendRule(StringBuilder out, int index, long style) {
+        int foreground = color(PackedStyle.foregroundKind(style), PackedStyle.foreground(style));
+        int background = color(PackedStyle.backgroundKind(style), PackedStyle.background(style));
+        int attributes = PackedStyle.attributes(style);
+        if ((attributes & PackedStyle.REVERSE) != 0) {
+            int swapped = foreground < 0 ? DEFAULT_FOREGROUND : foreground;
+            foreground = background < 0 ? DEFAULT_BACKGROUND : background;
+            background = swapped;
+        }
+
+        out.append(".janis .s").append(index).append(" {");
+        if (foreground >= 0) {
+            out.append(" color: ").append(hex(foreground)).append(';');
+        }
+        if (background >= 0) {
+            out.append(" background: ").append(hex(background)).append(';');
+        }
+        if ((attributes & PackedStyle.BOLD) != 0) {
+            out.append(" font-weight: bold;");
+        }
+        if ((attributes & PackedStyle.DIM) != 0) {
+            out.append(" opacity: 0.6;");
+        }
+        if ((attributes & PackedStyle.ITALIC) != 0) {
+            out.append(" font-style: italic;");
+        }
+        boolean underlined = (attributes & PackedStyle.UNDERLINED) != 0;
+        boolean blinking = (attributes & (PackedStyle.SLOW_BLINK | PackedStyle.RAPID_BLINK)) != 0;
+        if (underlined || blinking) {
+            out.append(" text-decoration:");
+            if (underlined) {
+                out.append(" underline");
+            }
+            if (blinking) {
+                out.append(" blink");
+            }
+            out.append(';');
+        }
+        if ((attributes & PackedStyle.HIDE) != 0) {
+            out.append(" visibility: hidden;");
+        }
+        out.append(" }\n");
+    }
+
+    /**
+     * Returns the color of a packed color, or -1 if no color is set. Basic and palette colors use the
+     * xterm default palette.
+     */
+    private static int color(int kind, int value) {
+        if (kind == PackedStyle.RGB) {
+            return value;
+        }
+        if (kind == PackedStyle.BASIC || kind == PackedStyle.INDEXED) {
+            return ColorPalette.xterm256Rgb(value);
+        }
+        return -1;
+    }
+
+    private static String hex(int rgb) {
+        String digits = Integer.toHexString(0x1000000 | rgb);
+        return "#" + digits.substring(1);
+    }
+
+    private static void appendEscaped(StringBuilder out, char c) {
+        switch (c) {
+            case '&':
+                out.append("&amp;");
+                break;
+            case '<':
+                out.append("&lt;");
+                break;
+            case '>':
+                out.append("&gt;");
+                break;
+            case '"':
+                out.append("&quot;");
+                break;
+            default:
+                out.append(c);
+                break;
+        }
+    }
+
+    /**
+     * Writes text that is not known in advance, such as the page title and the class rules. Only used
+     * once per page or class; text runs are written with prebuilt byte arrays.
+     */
+    private void put(CharSequence text) throws IOException {
+        byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+        put(bytes, 0, bytes.length);
+    }
+
+    private void put(byte[] bytes) throws IOException {
+        put(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Writes the decimal digits of a non-negative number straight into the output buffer.
+     */
+    private void putNumber(int number) throws IOException {
+        int digits = 1;
+        for (int rest = number / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        if (buffer.remaining() < digits) {
+            flush();
+        }
+        int position = buffer.position();
+        for (int i = position + digits - 1; i >= position; i--) {
+            buffer.put(i, (byte) ('0' + number % 10));
+            number /= 10;
+        }
+        buffer.position(position + digits);
+    }
+
+    private void put(ByteBuffer source, int offset, int length) throws IOException {
+        while (length > 0) {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            int chunk = Math.min(length, buffer.remaining());
+            buffer.put(buffer.position(), source, offset, chunk);
+            buffer.position(buffer.position() + chunk);
+            offset += chunk;
+            length -= chunk;
+        }
+    }
+
+    private void put(byte[] bytes, int offset, int length) throws IOException {
+        while (length > 0) {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            int chunk = Math.min(length, buffer.remaining());
+            buffer.put(bytes, offset, chunk);
+            offset += chunk;
+            length -= chunk;
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            output.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Receives the text runs from the parser, switching the enclosing span when the style changes and
+     * escaping the text. Runs in the mapped input are read in place and copied straight into the output
+     * buffer.
+     */
+    private final class Text implements SgrBufferHandler {
+        @Override
+        public void onText(byte[] bytes, int start, int end, long style) {
+            try {
+                switchStyle(style);
+                int run = start;
+                for (int i = start; i < end; i++) {
+                    byte[] entity = entity(bytes[i]);
+                    if (entity != null) {
+                        put(bytes, run, i - run);
+                        put(entity);
+                        run = i + 1;
+                    }
+                }
+                put(bytes, run, end - run);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void onText(ByteBuffer source, int start, int end, long style) {
+            try {
+                switchStyle(style);
+                int run = start;
+                for (int i = start; i < end; i++) {
+                    byte[] entity = entity(source.get(i));
+                    if (entity != null) {
+                        put(source, run, i - run);
+                        put(entity);
+                        run = i + 1;
+                    }
+                }
+                put(source, run, end - run);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,143 @@
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A color of the xterm 256-color palette: the 16 system colors (0-15), a 6x6x6 color cube (16-231)
+ * and a 24-step gray ramp (232-255). Palette colors use the {@code 38;5;n} form, which is far shorter
+ * than a 24-bit RGB color and is supported by nearly every terminal emulator.
+ *
+ * <p>There is one shared instance per palette index. The foreground and background escape sequences
+ * of all 256 colors are built once when the class is loaded, as strings and as bytes, so styling with
+ * a palette color never formats numbers at run time.</p>
+ */
+public final class IndexedColor {
+    private static final IndexedColor[] PALETTE = new IndexedColor[256];
+
+    static {
+        for (int i = 0; i < PALETTE.length; i++) {
+            PALETTE[i] = new IndexedColor(i);
+        }
+    }
+
+    private final int index;
+    private final String foregroundParameters;
+    private final String backgroundParameters;
+    private final String foregroundCode;
+    private final String backgroundCode;
+    private final byte[] foregroundCodeBytes;
+    private final byte[] backgroundCodeBytes;
+
+    /**
+     * Constructs the palette color with the given index and builds its escape sequences.
+     *
+     * @param index the palette index, 0-255
+     */
+    private IndexedColor(int index) {
+        this.index = index;
+        this.foregroundParameters = "38;5;" + index;
+        this.backgroundParameters = "48;5;" + index;
+        this.foregroundCode = SgrEncoder.CSI + foregroundParameters + "m";
+        this.backgroundCode = SgrEncoder.CSI + backgroundParameters + "m";
+        this.foregroundCodeBytes = foregroundCode.getBytes(StandardCharsets.US_ASCII);
+        this.backgroundCodeBytes = backgroundCode.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Returns the palette color with the given index.
+     *
+     * @param index the palette index, 0-255
+     * @return the shared instance for the index
+     * @throws IllegalArgumentException if the index is not in the range 0-255
+     */
+    public static IndexedColor of(int index) {
+        if (index < 0 || index > 255) {
+            throw new IllegalArgumentException("Palette index must be in the range 0-255. Got: " + index);
+        }
+        return PALETTE[index];
+    }
+
+    /**
+     * Returns the index of this color in the palette.
+     *
+     * @return the palette index, 0-255
+     */
+    public int index() {
+        return index;
+    }
+
+    /**
+     * Returns the ANSI escape code for this color.
+     *
+     * @param isBackground true if this color should be applied as background, false for foreground
+     * @return the complete ANSI escape sequence for this color
+     */
+    public String getAnsiCode(boolean isBackground) {
+        return isBackground ? backgroundCode : foregroundCode;
+    }
+
+    /**
+     * Returns the ANSI escape code for this color pre-encoded as bytes. The array is shared and must not be modified.
+     *
+     * @param isBackground true if this color should be applied as background, false for foreground
+     * @return the encoded ANSI escape sequence for this color
+     */
+    byte[] getAnsiCodeBytes(boolean isBackground) {
+        return isBackground ? backgroundCodeBytes : foregroundCodeBytes;
+    }
+
+    /**
+     * Returns the SGR parameters for this color, such as {@code 38;5;208}, as used inside a combined escape sequence.
+     *
+     * @param isBackground true if this color should be applied as background, false for foreground
+     * @return the SGR parameters
+     */
+    String getSgrParameters(boolean isBackground) {
+        return isBackground ? backgroundParameters : foregroundParameters;
+    }
+
+    /**
+     * Returns the prebuilt escape sequence of a packed style that sets nothing but a single palette color,
+     * so that such styles share it instead of generating their own.
+     *
+     * @param style the packed style, see {@link PackedStyle}
+     * @return the shared escape sequence, or null if the style sets anything else
+     */
+    static String soleColorCode(long style) {
+        int color = soleColor(style);
+        return color < 0 ? null : PALETTE[color & 0xFF].getAnsiCode(color > 0xFF);
+    }
+
+    /**
+     * Returns the bytes of {@link #soleColorCode(long)}. The array is shared and must not be modified.
+     *
+     * @param style the packed style, see {@link PackedStyle}
+     * @return the shared encoded escape sequence, or null if the style sets anything else
+     */
+    static byte[] soleColorCodeBytes(long style) {
+        int color = soleColor(style);
+        return color < 0 ? null : PALETTE[color & 0xFF].getAnsiCodeBytes(color > 0xFF);
+    }
+
+    /**
+     * Returns the palette index of the only color a style sets, plus 256 for a background color,
+     * or -1 if the style sets anything besides one palette color.
+     */
+    private static int soleColor(long style) {
+        if (style == PackedStyle.UNKNOWN || PackedStyle.attributes(style) != 0) {
+            return -1;
+        }
+        int foregroundKind = PackedStyle.foregroundKind(style);
+        int backgroundKind = PackedStyle.backgroundKind(style);
+        if (foregroundKind == PackedStyle.INDEXED && backgroundKind == PackedStyle.NONE) {
+            return PackedStyle.foreground(style);
+        }
+        if (backgroundKind == PackedStyle.INDEXED && foregroundKind == PackedStyle.NONE) {
+            return 0x100 | PackedStyle.background(style);
+        }
+        return -1;
+    }
+
+    @Override
+    public String toString() {
+        return "IndexedColor[" + index + "]";
+    }
+}
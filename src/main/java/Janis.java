@@ -7,6 +7,8 @@ import java.util.Objects;
  * reusable style creation with {@code style()}.
  */
 public final class Janis {
+    private static volatile StyleCache styleCache = new StyleCache(StyleCache.DEFAULT_MAXIMUM_SIZE, EvictionPolicy.LRU);
+
     /**
      * Private constructor to prevent instantiation.
      * This is a utility class that should only be accessed through its static methods.
@@ -37,4 +39,170 @@ public final class Janis {
     public static StyleBuilder style() {
         return new StyleBuilder();
     }
+
+    /**
+     * Compiles a line format into a reusable template. Each {@code {}} in the pattern is a slot that is
+     * filled at render time and shown in the corresponding style; the rest of the pattern is unstyled
+     * literal text; write {@code \{}} for a literal {@code {}}. Use this for lines rendered many times with
+     * the same shape, such as log lines.
+     *
+     * @param pattern    the pattern with {@code {}} marking each slot (must not be null)
+     * @param slotStyles the style of each slot in order, a null element leaves its slot unstyled
+     *                   (must not be null)
+     * @return the compiled template
+     * @throws NullPointerException     if pattern or slotStyles is null
+     * @throws IllegalArgumentException if the number of styles does not match the number of slots
+     */
+    public static Template template(String pattern, Style... slotStyles) {
+        Objects.requireNonNull(pattern, "pattern must not be null");
+        Objects.requireNonNull(slotStyles, "slotStyles must not be null");
+        return Template.compile(pattern, slotStyles, AnsiCodeGenerator.getSgrMode());
+    }
+
+    /**
+     * Compiles inline markup into a reusable template. Tags such as {@code [bold red]} or
+     * {@code [italic #888888 on blue]} style the text up to the matching {@code [/]}, tags can be nested,
+     * and each {@code %s} is a slot filled at render time. Write {@code [[} and {@code %%} for a literal
+     * {@code [} and {@code %}. Compiled markup is cached, so calling this repeatedly with the same markup
+     * does not parse it again.
+     *
+     * <pre>{@code
+     * Janis.markup("[bold red]ERROR[/] [#888888]%s[/]").render(message);
+     * }</pre>
+     *
+     * @param markup the markup (must not be null)
+     * @return the compiled template
+     * @throws NullPointerException     if markup is null
+     * @throws IllegalArgumentException if the markup is malformed or names an unknown style
+     */
+    public static Template markup(String markup) {
+        Objects.requireNonNull(markup, "markup must not be null");
+        return Markup.compile(markup);
+    }
+
+    /**
+     * Renders inline markup, filling its {@code %s} slots with the string values of the given arguments.
+     * See {@link #markup(String)} for the markup syntax.
+     *
+     * @param markup the markup (must not be null)
+     * @param args   one argument per slot, in order
+     * @return the rendered text with ANSI escape codes
+     * @throws NullPointerException     if markup is null
+     * @throws IllegalArgumentException if the markup is malformed, names an unknown style,
+     *                                  or the number of arguments does not match the number of slots
+     */
+    public static String format(String markup, Object... args) {
+        Objects.requireNonNull(markup, "markup must not be null");
+        Template template = Markup.compile(markup);
+        CharSequence[] values = new CharSequence[args.length];
+        for (int i = 0; i < args.length; i++) {
+            values[i] = String.valueOf(args[i]);
+        }
+        return template.render(values);
+    }
+
+    /**
+     * Sets how styles created from now on emit their SGR parameters.
+     * {@link SgrMode#COMBINED}, the default, joins all colors and attributes into one escape sequence;
+     * {@link SgrMode#SEPARATE} emits one escape sequence per color and attribute.
+     * Styles that were already built keep the sequences they were built with.
+     *
+     * @param mode the emission mode (must not be null)
+     * @throws NullPointerException if mode is null
+     */
+    public static void setSgrMode(SgrMode mode) {
+        Objects.requireNonNull(mode, "SgrMode cannot be null");
+        AnsiCodeGenerator.setSgrMode(mode);
+    }
+
+    /**
+     * Returns the emission mode used for styles created from now on.
+     *
+     * @return the current emission mode
+     */
+    public static SgrMode getSgrMode() {
+        return AnsiCodeGenerator.getSgrMode();
+    }
+
+    /**
+     * Sets the number of colors the terminal can show. With {@link ColorDepth#XTERM_256} or
+     * {@link ColorDepth#ANSI_16}, RGB colors are replaced with the nearest palette color, for terminals
+     * such as tmux without RGB support or older CI consoles. Mapping a color is a table lookup, and each
+     * style generates its reduced prefix only once. The default is {@link ColorDepth#TRUECOLOR}.
+     * Templates and styled texts that were already created keep the sequences they were created with.
+     *
+     * @param depth the color depth (must not be null)
+     * @throws NullPointerException if depth is null
+     */
+    public static void setColorDepth(ColorDepth depth) {
+        Objects.requireNonNull(depth, "ColorDepth cannot be null");
+        AnsiCodeGenerator.setColorDepth(depth);
+    }
+
+    /**
+     * Returns the number of colors the terminal is assumed to show.
+     *
+     * @return the current color depth
+     */
+    public static ColorDepth getColorDepth() {
+        return AnsiCodeGenerator.getColorDepth();
+    }
+
+    /**
+     * Sets whether styles emit ANSI escape sequences. With {@link ColorMode#AUTO}, the default,
+     * the environment is inspected once: color is disabled if {@code NO_COLOR} is set, {@code TERM} is
+     * {@code dumb} or no console is attached, and enabled if {@code FORCE_COLOR} or {@code CLICOLOR_FORCE}
+     * is set. While color is disabled, applying or rendering a style returns the text unchanged.
+     * The initial mode can also be chosen with the {@code janis.color} system property.
+     * Templates and styled texts that were already created keep the sequences they were created with.
+     *
+     * @param mode the color mode (must not be null)
+     * @throws NullPointerException if mode is null
+     * @see Style#withColorMode(ColorMode)
+     */
+    public static void setColorMode(ColorMode mode) {
+        Objects.requireNonNull(mode, "ColorMode cannot be null");
+        ColorSupport.setMode(mode);
+    }
+
+    /**
+     * Returns the global color mode.
+     *
+     * @return the current color mode
+     */
+    public static ColorMode getColorMode() {
+        return ColorSupport.getMode();
+    }
+
+    /**
+     * Returns whether styles following the global color mode currently emit ANSI escape sequences.
+     *
+     * @return true if color is enabled
+     */
+    public static boolean isColorEnabled() {
+        return ColorSupport.isEnabled();
+    }
+
+    /**
+     * Replaces the cache that maps style configurations to shared Style instances.
+     * Use this to change the maximum size or eviction policy, or pass a cache with a maximum size of 0
+     * to disable caching. The previous cache and its statistics are discarded.
+     *
+     * @param cache the new style cache (must not be null)
+     * @throws NullPointerException if cache is null
+     */
+    public static void setStyleCache(StyleCache cache) {
+        Objects.requireNonNull(cache, "StyleCache cannot be null");
+        styleCache = cache;
+    }
+
+    /**
+     * Returns the cache that maps style configurations to shared Style instances,
+     * for example to inspect its hit and miss statistics.
+     *
+     * @return the current style cache
+     */
+    public static StyleCache getStyleCache() {
+        return styleCache;
+    }
 }
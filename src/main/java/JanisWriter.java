@@ -0,0 +1,343 @@
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Buffered writer for styled console output that wraps an {@link OutputStream} or a
+ * {@link WritableByteChannel}. Styled segments are encoded as UTF-8 into one large reusable buffer,
+ * which is written out only when it is full, when the configured delay since the first pending byte
+ * has passed, at a line boundary if line flushing is enabled, or on an explicit {@link #flush()}.
+ *
+ * <p>The writer tracks the active style like {@link SgrRenderer}: adjacent segments with the same style
+ * are merged without any escape codes in between, only the minimal transition is emitted between
+ * different styles, and a reset is written only when a style is actually active.</p>
+ *
+ * <pre>{@code
+ * JanisWriter out = new JanisWriter(System.out);
+ * out.write(levelStyle, "[INFO]").write(" ").write(messageStyle, message).newLine();
+ * out.flush();
+ * }</pre>
+ *
+ * <p>Closing the writer also closes the stream or channel it wraps, so a writer around {@code System.out}
+ * should only be flushed; use try-with-resources for streams the caller owns, such as a log file.</p>
+ *
+ * <p>The time threshold is checked whenever a segment is written; call {@link #flush()} when output goes idle.
+ * A writer is not thread-safe.</p>
+ */
+public final class JanisWriter implements Flushable, Closeable {
+    /**
+     * The buffer size used unless configured otherwise, in bytes.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The maximum time pending output waits for more segments unless configured otherwise.
+     */
+    public static final Duration DEFAULT_MAX_FLUSH_DELAY = Duration.ofMillis(100);
+
+    private static final int MIN_BUFFER_SIZE = 16;
+
+    private final OutputStream stream;
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer;
+    private final long maxFlushDelayNanos;
+    private final boolean flushOnNewLine;
+    private final StringBuilder escapes = new StringBuilder(64);
+    private final SgrRenderer renderer = new SgrRenderer(escapes);
+    private long pendingSince;
+    private boolean closed;
+
+    /**
+     * Creates a writer with the default buffer size and flush delay, without line flushing.
+     *
+     * @param out the stream to write to (must not be null)
+     * @throws NullPointerException if out is null
+     */
+    public JanisWriter(OutputStream out) {
+        this(out, DEFAULT_BUFFER_SIZE, DEFAULT_MAX_FLUSH_DELAY, false);
+    }
+
+    /**
+     * Creates a writer with the default buffer size and flush delay, without line flushing.
+     *
+     * @param channel the channel to write to (must not be null)
+     * @throws NullPointerException if channel is null
+     */
+    public JanisWriter(WritableByteChannel channel) {
+        this(channel, DEFAULT_BUFFER_SIZE, DEFAULT_MAX_FLUSH_DELAY, false);
+    }
+
+    /**
+     * Creates a writer for an output stream.
+     *
+     * @param out            the stream to write to (must not be null)
+     * @param bufferSize     the size of the buffer in bytes, output is written when it is full
+     * @param maxFlushDelay  the maximum time pending output waits for more segments (must not be null)
+     * @param flushOnNewLine whether {@link #newLine()} writes out the buffer
+     * @throws NullPointerException     if out or maxFlushDelay is null
+     * @throws IllegalArgumentException if bufferSize is smaller than 16 or maxFlushDelay is negative
+     */
+    public JanisWriter(OutputStream out, int bufferSize, Duration maxFlushDelay, boolean flushOnNewLine) {
+        this(Objects.requireNonNull(out, "out must not be null"), null, bufferSize, maxFlushDelay, flushOnNewLine);
+    }
+
+    /**
+     * Creates a writer for a byte channel, such as a {@link java.nio.channels.FileChannel}
+     * or {@link java.nio.channels.SocketChannel}. The buffer is a direct buffer.
+     *
+     * @param channel        the channel to write to (must not be null)
+     * @param bufferSize     the size of the buffer in bytes, output is written when it is full
+     * @param maxFlushDelay  the maximum time pending output waits for more segments (must not be null)
+     * @param flushOnNewLine whether {@link #newLine()} writes out the buffer
+     * @throws NullPointerException     if channel or maxFlushDelay is null
+     * @throws IllegalArgumentException if bufferSize is smaller than 16 or maxFlushDelay is negative
+     */
+    public JanisWriter(WritableByteChannel channel, int bufferSize, Duration maxFlushDelay, boolean flushOnNewLine) {
+        this(null, Objects.requireNonNull(channel, "channel must not be null"), bufferSize, maxFlushDelay,
+                flushOnNewLine);
+    }
+
+    private JanisWriter(OutputStream stream, WritableByteChannel channel, int bufferSize, Duration maxFlushDelay,
+                        boolean flushOnNewLine) {
+        Objects.requireNonNull(maxFlushDelay, "maxFlushDelay must not be null");
+        if (bufferSize < MIN_BUFFER_SIZE) {
+            throw new IllegalArgumentException("Buffer size must be at least " + MIN_BUFFER_SIZE + " bytes. Got: "
+                    + bufferSize);
+        }
+        if (maxFlushDelay.isNegative()) {
+            throw new IllegalArgumentException("maxFlushDelay must not be negative. Got: " + maxFlushDelay);
+        }
+
+        this.stream = stream;
+        this.channel = channel;
+        this.buffer = channel != null ? ByteBuffer.allocateDirect(bufferSize) : ByteBuffer.allocate(bufferSize);
+        this.maxFlushDelayNanos = maxFlushDelay.toNanos();
+        this.flushOnNewLine = flushOnNewLine;
+    }
+
+    /**
+     * Writes a segment in the given style.
+     *
+     * @param style the style of the segment (must not be null)
+     * @param text  the text of the segment (must not be null)
+     * @return this writer for method chaining
+     * @throws NullPointerException if style or text is null
+     * @throws IOException          if the writer is closed or the underlying sink fails
+     */
+    public JanisWriter write(Style style, CharSequence text) throws IOException {
+        Objects.requireNonNull(text, "text must not be null");
+        return write(style, text, 0, text.length());
+    }
+
+    /**
+     * Writes a range of the given text as a segment in the given style.
+     *
+     * @param style the style of the segment (must not be null)
+     * @param text  the text containing the segment (must not be null)
+     * @param start the index of the first character of the segment
+     * @param end   the index after the last character of the segment
+     * @return this writer for method chaining
+     * @throws NullPointerException      if style or text is null
+     * @throws IndexOutOfBoundsException if the range is not within the text
+     * @throws IOException               if the writer is closed or the underlying sink fails
+     */
+    public JanisWriter write(Style style, CharSequence text, int start, int end) throws IOException {
+        Objects.requireNonNull(style, "style must not be null");
+        Objects.requireNonNull(text, "text must not be null");
+        Objects.checkFromToIndex(start, end, text.length());
+        ensureOpen();
+        if (start == end) {
+            return this;
+        }
+
+        renderer.transitionTo(style);
+        writeEscapes();
+        writeText(text, start, end);
+        flushIfOverdue();
+        return this;
+    }
+
+    /**
+     * Writes an unstyled segment, switching off any active style first.
+     *
+     * @param text the text of the segment (must not be null)
+     * @return this writer for method chaining
+     * @throws NullPointerException if text is null
+     * @throws IOException          if the writer is closed or the underlying sink fails
+     */
+    public JanisWriter write(CharSequence text) throws IOException {
+        Objects.requireNonNull(text, "text must not be null");
+        ensureOpen();
+        if (text.length() == 0) {
+            return this;
+        }
+
+        renderer.transitionTo(PackedStyle.EMPTY);
+        writeEscapes();
+        writeText(text, 0, text.length());
+        flushIfOverdue();
+        return this;
+    }
+
+    /**
+     * Ends the current line. Any active style is reset first so colors do not bleed into the next line.
+     * If line flushing is enabled, the buffer is written out.
+     *
+     * @return this writer for method chaining
+     * @throws IOException if the writer is closed or the underlying sink fails
+     */
+    public JanisWriter newLine() throws IOException {
+        ensureOpen();
+        renderer.transitionTo(PackedStyle.EMPTY);
+        writeEscapes();
+        ensureRoom(1);
+        buffer.put((byte) '\n');
+
+        if (flushOnNewLine) {
+            flush();
+        } else {
+            flushIfOverdue();
+        }
+        return this;
+    }
+
+    /**
+     * Writes a segment in the given style and ends the line.
+     *
+     * @param style the style of the segment (must not be null)
+     * @param text  the text of the segment (must not be null)
+     * @return this writer for method chaining
+     * @throws NullPointerException if style or text is null
+     * @throws IOException          if the writer is closed or the underlying sink fails
+     */
+    public JanisWriter println(Style style, CharSequence text) throws IOException {
+        return write(style, text).newLine();
+    }
+
+    /**
+     * Writes out everything buffered so far and flushes the underlying stream.
+     *
+     * @throws IOException if the writer is closed or the underlying sink fails
+     */
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        drain();
+        if (stream != null) {
+            stream.flush();
+        }
+    }
+
+    /**
+     * Resets any active style, writes out everything buffered and closes the underlying sink.
+     * Closing an already closed writer has no effect.
+     *
+     * @throws IOException if the underlying sink fails
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        try {
+            renderer.transitionTo(PackedStyle.EMPTY);
+            writeEscapes();
+            drain();
+        } finally {
+            closed = true;
+            if (stream != null) {
+                stream.close();
+            } else {
+                channel.close();
+            }
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("JanisWriter is closed");
+        }
+    }
+
+    /**
+     * Moves the escape sequences collected by the renderer into the buffer.
+     */
+    private void writeEscapes() throws IOException {
+        if (escapes.length() == 0) {
+            return;
+        }
+        writeText(escapes, 0, escapes.length());
+        escapes.setLength(0);
+    }
+
+    /**
+     * Encodes text into the buffer, writing the buffer out as often as needed for text larger than the buffer.
+     */
+    private void writeText(CharSequence text, int start, int end) throws IOException {
+        int length = Utf8.encodedLength(text, start, end);
+        if (length <= buffer.capacity()) {
+            ensureRoom(length);
+            Utf8.encode(text, start, end, buffer);
+            return;
+        }
+
+        // A char never needs more than three bytes, so chunks of capacity / 3 chars always fit.
+        int chunk = buffer.capacity() / 3;
+        while (start < end) {
+            int chunkEnd = Math.min(end, start + chunk);
+            if (chunkEnd < end && Character.isHighSurrogate(text.charAt(chunkEnd - 1))) {
+                chunkEnd--;
+            }
+            ensureRoom(Utf8.encodedLength(text, start, chunkEnd));
+            Utf8.encode(text, start, chunkEnd, buffer);
+            start = chunkEnd;
+        }
+    }
+
+    /**
+     * Makes sure the buffer has room for the given number of bytes, writing it out if necessary,
+     * and records when the buffer starts holding pending output.
+     */
+    private void ensureRoom(int length) throws IOException {
+        if (buffer.remaining() < length) {
+            drain();
+        }
+        if (buffer.position() == 0) {
+            pendingSince = System.nanoTime();
+        }
+    }
+
+    private void flushIfOverdue() throws IOException {
+        if (buffer.position() > 0 && System.nanoTime() - pendingSince >= maxFlushDelayNanos) {
+            flush();
+        }
+    }
+
+    /**
+     * Writes the buffered bytes to the underlying sink and empties the buffer. If a channel write fails,
+     * the bytes it has not accepted stay buffered, ahead of any output written afterwards.
+     */
+    private void drain() throws IOException {
+        if (buffer.position() == 0) {
+            return;
+        }
+        if (stream != null) {
+            stream.write(buffer.array(), buffer.arrayOffset(), buffer.position());
+            buffer.clear();
+            return;
+        }
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } finally {
+            buffer.compact();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiles inline markup such as {@code "[bold red]ERROR[/] [#888888]%s[/]"} into {@link Template}s.
+ *
+ * <p>Syntax:</p>
+ * <ul>
+ *   <li>{@code [description]} opens a tag, see {@link StyleSpec} for the description format.
+ *       Tags nest: the inner style is layered on top of the outer one.</li>
+ *   <li>{@code [/]} or {@code [/anything]} closes the innermost open tag.
+ *       Tags still open at the end of the markup are closed implicitly.</li>
+ *   <li>{@code %s} is a slot in the style of the enclosing tags.</li>
+ *   <li>{@code [[} and {@code %%} stand for a literal {@code [} and {@code %}.</li>
+ * </ul>
+ *
+ * <p>Compiled markup is kept in a bounded cache, so repeated markup is parsed only once while it is
+ * in use. The cache is split into segments by the hash of the markup, each an access-ordered map
+ * guarded by its own lock; when a segment is full, its least recently used markup is discarded.</p>
+ */
+final class Markup {
+    /**
+     * The maximum number of compiled markup strings kept.
+     */
+    static final int MAXIMUM_CACHE_SIZE = 512;
+
+    private static final int SEGMENT_COUNT = 8;
+    private static final int ENTRIES_PER_SEGMENT = MAXIMUM_CACHE_SIZE / SEGMENT_COUNT;
+
+    @SuppressWarnings("unchecked")
+    private static final Map<String, Template>[] SEGMENTS = new Map[SEGMENT_COUNT];
+
+    static {
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            SEGMENTS[i] = new LinkedHashMap<>(ENTRIES_PER_SEGMENT * 2, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Template> eldest) {
+                    return size() > ENTRIES_PER_SEGMENT;
+                }
+            };
+        }
+    }
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private Markup() {
+    }
+
+    /**
+     * Returns the compiled template for the given markup, compiling and caching it on first use.
+     * A cached template compiled under other global settings, such as a different color mode or
+     * color depth, is replaced.
+     *
+     * @param markup the markup
+     * @return the compiled template for the current settings
+     * @throws IllegalArgumentException if the markup is malformed or names an unknown style
+     */
+    static Template compile(String markup) {
+        Map<String, Template> segment = segment(markup);
+        Template template;
+        synchronized (segment) {
+            template = segment.get(markup);
+        }
+        if (template != null && template.isCurrent()) {
+            return template;
+        }
+
+        SgrMode mode = AnsiCodeGenerator.getSgrMode();
+        template = new Template(parse(markup, mode), mode);
+        synchronized (segment) {
+            // replacing the stale template of the same markup does not evict anything
+            segment.put(markup, template);
+        }
+        return template;
+    }
+
+    /**
+     * Returns the number of compiled markup strings currently cached.
+     *
+     * @return the cache size
+     */
+    static int cacheSize() {
+        int size = 0;
+        for (Map<String, Template> segment : SEGMENTS) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    private static Map<String, Template> segment(String markup) {
+        int hash = markup.hashCode() * 0x9E3779B9;
+        return SEGMENTS[(hash >>> 16) & (SEGMENT_COUNT - 1)];
+    }
+
+    /**
+     * Parses markup in a single pass into the literals and slots of a template program.
+     */
+    private static List<Template.Part> parse(String markup, SgrMode mode) {
+        List<Template.Part> program = new ArrayList<>();
+        Deque<Long> open = new ArrayDeque<>();
+        long current = PackedStyle.EMPTY;
+        StringBuilder literal = new StringBuilder();
+
+        int i = 0;
+        int length = markup.length();
+        while (i < length) {
+            char c = markup.charAt(i);
+            char next = i + 1 < length ? markup.charAt(i + 1) : 0;
+            if (c == '[' && next == '[') {
+                literal.append('[');
+                i += 2;
+            } else if (c == '[') {
+                int close = markup.indexOf(']', i + 1);
+                if (close < 0) {
+                    throw new IllegalArgumentException("Unclosed markup tag at index " + i + ". Got: " + markup);
+                }
+                program.add(new Template.Part(literal.toString(), style(current, mode)));
+                literal.setLength(0);
+
+                if (next == '/') {
+                    if (open.isEmpty()) {
+                        throw new IllegalArgumentException("Closing markup tag without an open tag at index " + i
+                                + ". Got: " + markup);
+                    }
+                    current = open.pop();
+                } else {
+                    open.push(current);
+                    current = PackedStyle.overlay(current, StyleSpec.parse(markup, i + 1, close));
+                }
+                i = close + 1;
+            } else if (c == '%' && next == 's') {
+                program.add(new Template.Part(literal.toString(), style(current, mode)));
+                literal.setLength(0);
+                program.add(new Template.Part(null, style(current, mode)));
+                i += 2;
+            } else if (c == '%' && next == '%') {
+                literal.append('%');
+                i += 2;
+            } else {
+                literal.append(c);
+                i++;
+            }
+        }
+        program.add(new Template.Part(literal.toString(), style(current, mode)));
+        return program;
+    }
+
+    private static Style style(long packed, SgrMode mode) {
+        return packed == PackedStyle.EMPTY ? null : Janis.getStyleCache().get(packed, mode);
+    }
+}
@@ -0,0 +1,113 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded, lock-free queue for many producer threads and a single consumer thread.
+ * Producers claim a slot by advancing the tail with a compare-and-set and publish the element
+ * through a per-slot sequence number, so they never block each other on a lock.
+ * The consumer reads slots in order without any atomic read-modify-write operation.
+ *
+ * @param <E> the type of the queued elements
+ */
+final class MpscRingBuffer<E> {
+    private final Object[] elements;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private long head;
+
+    /**
+     * Creates a ring buffer holding at least the given number of elements.
+     *
+     * @param capacity the minimum capacity, rounded up to a power of two
+     */
+    MpscRingBuffer(int capacity) {
+        int size = 2;
+        while (size < capacity) {
+            size <<= 1;
+        }
+        this.elements = new Object[size];
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Returns the number of slots in the buffer.
+     *
+     * @return the capacity
+     */
+    int capacity() {
+        return elements.length;
+    }
+
+    /**
+     * Adds an element if there is room. May be called from any thread.
+     *
+     * @param element the element to add
+     * @return true if the element was added, false if the buffer is full
+     */
+    boolean offer(E element) {
+        long position;
+        int index;
+        while (true) {
+            position = tail.get();
+            index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+            } else if (difference < 0) {
+                return false;
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+
+        elements[index] = element;
+        sequences.lazySet(index, position + 1);
+        return true;
+    }
+
+    /**
+     * Removes the oldest published element. Must only be called from the consumer thread.
+     *
+     * @return the element, or null if no element is available
+     */
+    @SuppressWarnings("unchecked")
+    E poll() {
+        int index = (int) head & mask;
+        if (sequences.get(index) != head + 1) {
+            return null;
+        }
+
+        E element = (E) elements[index];
+        elements[index] = null;
+        sequences.lazySet(index, head + elements.length);
+        head++;
+        return element;
+    }
+
+    /**
+     * Returns whether no producer has claimed a slot beyond those already consumed.
+     * Unlike a failed {@link #poll()}, this also sees elements that are claimed but not yet published.
+     * Must only be called from the consumer thread.
+     *
+     * @return true if the buffer is empty
+     */
+    boolean isEmpty() {
+        return tail.get() == head;
+    }
+
+    /**
+     * Returns the number of elements offered so far, including those not yet consumed.
+     *
+     * @return the total number of claimed slots
+     */
+    long offeredCount() {
+        return tail.get();
+    }
+}
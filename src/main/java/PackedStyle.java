@@ -0,0 +1,258 @@
+/**
+ * Bit-packed encoding of a complete style configuration in a single {@code long}.
+ * A packed style needs no allocation to build or modify, compares with {@code ==}
+ * and hashes like any primitive, which makes it a natural cache key.
+ *
+ * <p>Layout, from the least significant bit:</p>
+ * <ul>
+ *   <li>bits 0-7: attribute mask, where bit {@code n} stands for SGR code {@code n + 1}
+ *       (bold, dim, italic, underlined, slow blink, rapid blink, reverse, hide)</li>
+ *   <li>bits 8-9: foreground color kind ({@link #NONE}, {@link #BASIC}, {@link #RGB} or {@link #INDEXED})</li>
+ *   <li>bits 10-11: background color kind</li>
+ *   <li>bits 12-35: foreground color, a {@link BasicColor} ordinal, a {@code 0xRRGGBB} value
+ *       or a 256-color palette index</li>
+ *   <li>bits 36-59: background color, encoded like the foreground</li>
+ *   <li>bits 60-63: reserved, always zero for a valid style; caches use them to tag their keys</li>
+ * </ul>
+ */
+final class PackedStyle {
+    /**
+     * The packed form of a style without colors or attributes.
+     */
+    static final long EMPTY = 0L;
+
+    /**
+     * Marker for styles whose configuration is not known, such as a {@link Style}
+     * created directly from an ANSI prefix. Never a valid packed style.
+     */
+    static final long UNKNOWN = -1L;
+
+    /** Color kind: no color set. */
+    static final int NONE = 0;
+    /** Color kind: a {@link BasicColor}, stored by ordinal. */
+    static final int BASIC = 1;
+    /** Color kind: a 24-bit color, stored as {@code 0xRRGGBB}. */
+    static final int RGB = 2;
+    /** Color kind: an entry of the xterm 256-color palette, stored by index. */
+    static final int INDEXED = 3;
+
+    static final int BOLD = 1;
+    static final int DIM = 1 << 1;
+    static final int ITALIC = 1 << 2;
+    static final int UNDERLINED = 1 << 3;
+    static final int SLOW_BLINK = 1 << 4;
+    static final int RAPID_BLINK = 1 << 5;
+    static final int REVERSE = 1 << 6;
+    static final int HIDE = 1 << 7;
+
+    private static final int FOREGROUND_KIND_SHIFT = 8;
+    private static final int BACKGROUND_KIND_SHIFT = 10;
+    private static final int FOREGROUND_SHIFT = 12;
+    private static final int BACKGROUND_SHIFT = 36;
+    private static final long KIND_MASK = 0b11L;
+    private static final long COLOR_MASK = 0xFFFFFFL;
+    private static final BasicColor[] BASIC_COLORS = BasicColor.values();
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private PackedStyle() {
+    }
+
+    /**
+     * Packs a style configuration. Basic colors take precedence over RGB colors if both are set.
+     *
+     * @param config the style configuration
+     * @return the packed style
+     */
+    static long of(StyleConfig config) {
+        long style = EMPTY;
+
+        if (config.basicColor() != null) {
+            style = withForeground(style, BASIC, config.basicColor().ordinal());
+        } else if (config.rgbColor() != null) {
+            style = withForeground(style, RGB, config.rgbColor().packed());
+        }
+
+        if (config.bgBasicColor() != null) {
+            style = withBackground(style, BASIC, config.bgBasicColor().ordinal());
+        } else if (config.bgRgbColor() != null) {
+            style = withBackground(style, RGB, config.bgRgbColor().packed());
+        }
+
+        int attributes = 0;
+        if (config.isBold()) {
+            attributes |= BOLD;
+        }
+        if (config.isDim()) {
+            attributes |= DIM;
+        }
+        if (config.isItalic()) {
+            attributes |= ITALIC;
+        }
+        if (config.isUnderlined()) {
+            attributes |= UNDERLINED;
+        }
+        if (config.isSlowBlink()) {
+            attributes |= SLOW_BLINK;
+        }
+        if (config.isRapidBlink()) {
+            attributes |= RAPID_BLINK;
+        }
+        if (config.isReverse()) {
+            attributes |= REVERSE;
+        }
+        if (config.isHide()) {
+            attributes |= HIDE;
+        }
+        return withAttributes(style, attributes);
+    }
+
+    /**
+     * Unpacks a style into a configuration record. Palette entries, which the record cannot represent,
+     * become the RGB color of the entry.
+     *
+     * @param style the packed style
+     * @return the equivalent style configuration
+     */
+    static StyleConfig toConfig(long style) {
+        int attributes = attributes(style);
+        return new StyleConfig(
+                foregroundKind(style) == BASIC ? BASIC_COLORS[foreground(style)] : null,
+                rgbOf(foregroundKind(style), foreground(style)),
+                backgroundKind(style) == BASIC ? BASIC_COLORS[background(style)] : null,
+                rgbOf(backgroundKind(style), background(style)),
+                (attributes & BOLD) != 0,
+                (attributes & DIM) != 0,
+                (attributes & ITALIC) != 0,
+                (attributes & UNDERLINED) != 0,
+                (attributes & SLOW_BLINK) != 0,
+                (attributes & RAPID_BLINK) != 0,
+                (attributes & REVERSE) != 0,
+                (attributes & HIDE) != 0
+        );
+    }
+
+    private static Rgb rgbOf(int kind, int value) {
+        if (kind == RGB) {
+            return Rgb.fromPacked(value);
+        }
+        return kind == INDEXED ? Rgb.fromPacked(ColorPalette.xterm256Rgb(value)) : null;
+    }
+
+    /**
+     * Returns the attribute mask of a packed style.
+     *
+     * @param style the packed style
+     * @return the attribute mask, see the class documentation for the bit assignment
+     */
+    static int attributes(long style) {
+        return (int) (style & 0xFF);
+    }
+
+    /**
+     * Returns a copy of the packed style with the given attributes enabled in addition to the existing ones.
+     *
+     * @param style      the packed style
+     * @param attributes the attribute bits to enable
+     * @return the updated packed style
+     */
+    static long withAttributes(long style, int attributes) {
+        return style | (attributes & 0xFF);
+    }
+
+    /**
+     * Returns the kind of the foreground color.
+     *
+     * @param style the packed style
+     * @return {@link #NONE}, {@link #BASIC}, {@link #RGB} or {@link #INDEXED}
+     */
+    static int foregroundKind(long style) {
+        return (int) ((style >>> FOREGROUND_KIND_SHIFT) & KIND_MASK);
+    }
+
+    /**
+     * Returns the kind of the background color.
+     *
+     * @param style the packed style
+     * @return {@link #NONE}, {@link #BASIC}, {@link #RGB} or {@link #INDEXED}
+     */
+    static int backgroundKind(long style) {
+        return (int) ((style >>> BACKGROUND_KIND_SHIFT) & KIND_MASK);
+    }
+
+    /**
+     * Returns the foreground color value, interpreted according to {@link #foregroundKind(long)}.
+     *
+     * @param style the packed style
+     * @return a {@link BasicColor} ordinal, a {@code 0xRRGGBB} value or a palette index
+     */
+    static int foreground(long style) {
+        return (int) ((style >>> FOREGROUND_SHIFT) & COLOR_MASK);
+    }
+
+    /**
+     * Returns the background color value, interpreted according to {@link #backgroundKind(long)}.
+     *
+     * @param style the packed style
+     * @return a {@link BasicColor} ordinal, a {@code 0xRRGGBB} value or a palette index
+     */
+    static int background(long style) {
+        return (int) ((style >>> BACKGROUND_SHIFT) & COLOR_MASK);
+    }
+
+    /**
+     * Returns a copy of the packed style with the foreground color replaced.
+     *
+     * @param style the packed style
+     * @param kind  the color kind
+     * @param value the color value matching the kind
+     * @return the updated packed style
+     */
+    static long withForeground(long style, int kind, int value) {
+        style &= ~((KIND_MASK << FOREGROUND_KIND_SHIFT) | (COLOR_MASK << FOREGROUND_SHIFT));
+        return style | ((long) kind << FOREGROUND_KIND_SHIFT) | ((value & COLOR_MASK) << FOREGROUND_SHIFT);
+    }
+
+    /**
+     * Returns a copy of the packed style with the background color replaced.
+     *
+     * @param style the packed style
+     * @param kind  the color kind
+     * @param value the color value matching the kind
+     * @return the updated packed style
+     */
+    static long withBackground(long style, int kind, int value) {
+        style &= ~((KIND_MASK << BACKGROUND_KIND_SHIFT) | (COLOR_MASK << BACKGROUND_SHIFT));
+        return style | ((long) kind << BACKGROUND_KIND_SHIFT) | ((value & COLOR_MASK) << BACKGROUND_SHIFT);
+    }
+
+    /**
+     * Layers one style on top of another, as for nested markup: the attributes of both are combined,
+     * and each color of the inner style replaces the outer one if it is set.
+     *
+     * @param outer the packed style underneath
+     * @param inner the packed style on top
+     * @return the combined packed style
+     */
+    static long overlay(long outer, long inner) {
+        long style = withAttributes(outer, attributes(inner));
+        if (foregroundKind(inner) != NONE) {
+            style = withForeground(style, foregroundKind(inner), foreground(inner));
+        }
+        if (backgroundKind(inner) != NONE) {
+            style = withBackground(style, backgroundKind(inner), background(inner));
+        }
+        return style;
+    }
+
+    /**
+     * Returns the basic color with the given ordinal, as stored in a packed style.
+     *
+     * @param ordinal the {@link BasicColor} ordinal
+     * @return the basic color
+     */
+    static BasicColor basicColor(int ordinal) {
+        return BASIC_COLORS[ordinal];
+    }
+}
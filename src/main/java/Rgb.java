@@ -1,3 +1,5 @@
+import java.util.Arrays;
+
 /**
  * Represents an RGB color with red, green, and blue components.
  * Each component should be in the range 0-255.
@@ -8,45 +10,115 @@
  * @param b the blue component (0-255)
  */
 record Rgb(int r, int g, int b) {
+    private static final int INTERN_SIZE = 64;
+    private static final Interned[] INTERNED = new Interned[INTERN_SIZE];
+    private static final byte[] NIBBLES = new byte[128];
+
+    static {
+        Arrays.fill(NIBBLES, (byte) -1);
+        for (int i = 0; i < 10; i++) {
+            NIBBLES['0' + i] = (byte) i;
+        }
+        for (int i = 0; i < 6; i++) {
+            NIBBLES['a' + i] = (byte) (10 + i);
+            NIBBLES['A' + i] = (byte) (10 + i);
+        }
+    }
+
     /**
      * Creates an Rgb instance from a hexadecimal color string.
      * Supports both short format (#RGB) and full format (#RRGGBB).
      * In short format, each digit is duplicated (e.g., #F0A becomes #FF00AA).
+     * Recently parsed strings are remembered in a small cache, so repeated colors return the same instance.
      *
      * @param hex the hexadecimal color string (must start with # and be either 4 or 7 characters long)
      * @return an Rgb instance representing the color
      * @throws IllegalArgumentException if the hex string format is invalid or contains invalid hex values
      */
     public static Rgb fromHex(String hex) throws IllegalArgumentException {
-        if (!hex.startsWith("#") || (hex.length() != 4 && hex.length() != 7)) {
-            throw new IllegalArgumentException("Invalid hexadecimal color format, expected #RGB or #RRGGBB. Got: " + hex);
+        int hash = hex.hashCode();
+        int slot = (hash ^ (hash >>> 16)) & (INTERN_SIZE - 1);
+        Interned entry = INTERNED[slot];
+        if (entry != null && entry.hex.equals(hex)) {
+            return entry.rgb;
         }
 
-        try {
-            if (hex.length() == 4) {
-                char red = hex.charAt(1);
-                char green = hex.charAt(2);
-                char blue = hex.charAt(3);
+        Rgb rgb = fromPacked(parseHex(hex, 0, hex.length()));
+        INTERNED[slot] = new Interned(hex, rgb);
+        return rgb;
+    }
+
+    /**
+     * Parses a hexadecimal color without allocating. Supports the same {@code #RGB} and {@code #RRGGBB}
+     * formats as {@link #fromHex(String)}.
+     *
+     * @param hex the hexadecimal color string
+     * @return the color packed as {@code 0xRRGGBB}
+     * @throws IllegalArgumentException if the hex string format is invalid or contains invalid hex values
+     */
+    static int parseHex(CharSequence hex) throws IllegalArgumentException {
+        return parseHex(hex, 0, hex.length());
+    }
 
-                int r = Integer.parseInt("" + red + red, 16);
-                int g = Integer.parseInt("" + green + green, 16);
-                int b = Integer.parseInt("" + blue + blue, 16);
+    /**
+     * Parses a range of text as a hexadecimal color without allocating. Each digit is converted with
+     * a lookup table, and the components are combined directly into the packed result.
+     *
+     * @param hex   the text containing the color
+     * @param start the index of the {@code #}
+     * @param end   the index after the last digit
+     * @return the color packed as {@code 0xRRGGBB}
+     * @throws IllegalArgumentException if the hex string format is invalid or contains invalid hex values
+     */
+    static int parseHex(CharSequence hex, int start, int end) throws IllegalArgumentException {
+        int length = end - start;
+        if ((length != 4 && length != 7) || hex.charAt(start) != '#') {
+            throw new IllegalArgumentException("Invalid hexadecimal color format, expected #RGB or #RRGGBB. Got: "
+                    + hex.subSequence(start, end));
+        }
 
-                return new Rgb(r, g, b);
-            }
+        int rgb = 0;
+        int invalid = 0;
+        for (int i = start + 1; i < end; i++) {
+            int nibble = nibble(hex.charAt(i));
+            invalid |= nibble;
+            rgb = length == 4 ? (rgb << 8) | (nibble << 4) | nibble : (rgb << 4) | nibble;
+        }
+        if (invalid < 0) {
+            throw new IllegalArgumentException("Invalid hexadecimal color value: " + hex.subSequence(start, end));
+        }
+        return rgb;
+    }
 
-            String red = hex.substring(1, 3);
-            String green = hex.substring(3, 5);
-            String blue = hex.substring(5, 7);
+    /**
+     * Returns the value of a hexadecimal digit, or -1 if the character is not one.
+     */
+    private static int nibble(char c) {
+        return c < 128 ? NIBBLES[c] : -1;
+    }
 
-            int r = Integer.parseInt(red, 16);
-            int g = Integer.parseInt(green, 16);
-            int b = Integer.parseInt(blue, 16);
+    /**
+     * Returns this color packed into a single int as {@code 0xRRGGBB}.
+     *
+     * @return the packed color
+     */
+    int packed() {
+        return (r << 16) | (g << 8) | b;
+    }
 
-            return new Rgb(r, g, b);
+    /**
+     * Creates an Rgb instance from a color packed as {@code 0xRRGGBB}.
+     *
+     * @param rgb the packed color
+     * @return an Rgb instance representing the color
+     */
+    static Rgb fromPacked(int rgb) {
+        return new Rgb((rgb >>> 16) & 0xFF, (rgb >>> 8) & 0xFF, rgb & 0xFF);
+    }
 
-        } catch (NumberFormatException e) {
-            throw new IllegalArgumentException("Invalid hexadecimal color value: " + hex, e);
-        }
+    /**
+     * A parsed hexadecimal string remembered by {@link #fromHex(String)}.
+     */
+    private record Interned(String hex, Rgb rgb) {
     }
 }
@@ -0,0 +1,326 @@
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A double-buffered grid of terminal cells for full-screen output such as live dashboards. Draw each
+ * frame into the buffer, then {@link #render(StringBuilder)} it: only the cells that differ from the
+ * previous frame are written, so a frame in which a few numbers change costs a few dozen bytes instead
+ * of a redraw of the whole screen.
+ *
+ * <pre>{@code
+ * ScreenBuffer screen = new ScreenBuffer(200, 60);
+ * int label = screen.styleId(Janis.style().bold().build());
+ * while (running) {
+ *     screen.print(0, 0, "Requests/s", label);
+ *     screen.print(12, 0, Integer.toString(rate), Janis.style().color(BasicColor.GREEN).build());
+ *     System.out.print(screen.render());
+ *     System.out.flush();
+ * }
+ * }</pre>
+ *
+ * <p>Cells are stored in primitive arrays, one code point and one style id per cell; styles are interned
+ * once into small ids, so comparing two frames compares ints. Rendering walks the cells row by row,
+ * moves the cursor with the shortest sequence only where it skips unchanged cells, and switches between
+ * styles with the minimal transition, for example turning off bold without a reset. Each frame ends with
+ * a reset, so output written between frames is unstyled. The first frame clears the screen.</p>
+ *
+ * <p>Wide characters occupy two cells. Colors are reduced to the color depth current when a frame is
+ * rendered. A screen buffer is not thread-safe.</p>
+ */
+public final class ScreenBuffer {
+    private static final int BLANK = ' ';
+    private static final int WIDE_TAIL = -1;
+    private static final String CSI = SgrEncoder.CSI;
+    private static final String CLEAR = CSI + "H" + CSI + "2J";
+
+    private final int width;
+    private final int height;
+    private final int[] backCodePoints;
+    private final int[] backStyles;
+    private final int[] frontCodePoints;
+    private final int[] frontStyles;
+    private final StyleInterner styles = new StyleInterner();
+    private boolean redraw = true;
+
+    /**
+     * Creates a blank screen buffer.
+     *
+     * @param width  the number of columns, at least 1
+     * @param height the number of rows, at least 1
+     * @throws IllegalArgumentException if width or height is less than 1
+     */
+    public ScreenBuffer(int width, int height) {
+        if (width < 1 || height < 1) {
+            throw new IllegalArgumentException("Screen size must be at least 1x1. Got: " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+        this.backCodePoints = new int[width * height];
+        this.backStyles = new int[width * height];
+        this.frontCodePoints = new int[width * height];
+        this.frontStyles = new int[width * height];
+        styles.intern(PackedStyle.EMPTY);
+        Arrays.fill(backCodePoints, BLANK);
+    }
+
+    /**
+     * Returns the number of columns.
+     *
+     * @return the width
+     */
+    public int width() {
+        return width;
+    }
+
+    /**
+     * Returns the number of rows.
+     *
+     * @return the height
+     */
+    public int height() {
+        return height;
+    }
+
+    /**
+     * Returns the id of a style for use with {@link #print(int, int, CharSequence, int)}. Equal styles
+     * have equal ids; id 0 is the unstyled style. Looking up the id once and drawing with it avoids a
+     * lookup per call.
+     *
+     * @param style the style (must not be null)
+     * @return the style id
+     * @throws NullPointerException     if style is null
+     * @throws IllegalArgumentException if the style was created from a raw ANSI prefix
+     */
+    public int styleId(Style style) {
+        Objects.requireNonNull(style, "style must not be null");
+        long packed = style.packedStyle(ColorDepth.TRUECOLOR);
+        if (packed == PackedStyle.UNKNOWN) {
+            throw new IllegalArgumentException("Styles created from a raw ANSI prefix cannot be drawn. Got: "
+                    + style.ansiPrefix().replace("\u001B", "ESC"));
+        }
+        return styles.intern(packed);
+    }
+
+    /**
+     * Draws text in a style, clipped at the right edge of the screen.
+     *
+     * @param column the column of the first character
+     * @param row    the row
+     * @param text   a single line of text without escape sequences (must not be null)
+     * @param style  the style of the text (must not be null)
+     * @return the column after the last character drawn
+     * @throws NullPointerException      if text or style is null
+     * @throws IndexOutOfBoundsException if the position is outside the screen
+     * @throws IllegalArgumentException  if the style was created from a raw ANSI prefix
+     */
+    public int print(int column, int row, CharSequence text, Style style) {
+        return print(column, row, text, styleId(style));
+    }
+
+    /**
+     * Draws text in a style, clipped at the right edge of the screen. Zero-width characters such as
+     * combining marks are not stored, and a wide character that does not fit is left out.
+     *
+     * @param column  the column of the first character
+     * @param row     the row
+     * @param text    a single line of text without escape sequences (must not be null)
+     * @param styleId the id of the style, see {@link #styleId(Style)}
+     * @return the column after the last character drawn
+     * @throws NullPointerException      if text is null
+     * @throws IndexOutOfBoundsException if the position is outside the screen
+     * @throws IllegalArgumentException  if the style id is unknown
+     */
+    public int print(int column, int row, CharSequence text, int styleId) {
+        Objects.requireNonNull(text, "text must not be null");
+        checkPosition(column, row);
+        checkStyleId(styleId);
+        int i = 0;
+        while (i < text.length() && column < width) {
+            int codePoint = Character.codePointAt(text, i);
+            i += Character.charCount(codePoint);
+            int columns = CharWidth.of(codePoint);
+            if (columns == 0) {
+                continue;
+            }
+            if (column + columns > width) {
+                break;
+            }
+            put(row * width + column, codePoint, styleId, columns);
+            column += columns;
+        }
+        return column;
+    }
+
+    /**
+     * Fills a rectangle with one character, clipped at the edges of the screen.
+     *
+     * @param column    the left column
+     * @param row       the top row
+     * @param columns   the number of columns
+     * @param rows      the number of rows
+     * @param codePoint the character to fill with, which must occupy one column
+     * @param styleId   the id of the style, see {@link #styleId(Style)}
+     * @throws IndexOutOfBoundsException if the top left corner is outside the screen
+     * @throws IllegalArgumentException  if the character does not occupy one column or the style id is unknown
+     */
+    public void fill(int column, int row, int columns, int rows, int codePoint, int styleId) {
+        checkPosition(column, row);
+        checkStyleId(styleId);
+        if (CharWidth.of(codePoint) != 1) {
+            throw new IllegalArgumentException("Fill character must occupy one column. Got: U+"
+                    + Integer.toHexString(codePoint).toUpperCase());
+        }
+        int right = Math.min(width, column + Math.max(columns, 0));
+        int bottom = Math.min(height, row + Math.max(rows, 0));
+        for (int y = row; y < bottom; y++) {
+            for (int x = column; x < right; x++) {
+                put(y * width + x, codePoint, styleId, 1);
+            }
+        }
+    }
+
+    /**
+     * Blanks the whole screen, for drawing the next frame from scratch.
+     */
+    public void clear() {
+        Arrays.fill(backCodePoints, BLANK);
+        Arrays.fill(backStyles, 0);
+    }
+
+    /**
+     * Returns the character drawn at a position.
+     *
+     * @param column the column
+     * @param row    the row
+     * @return the code point, or -1 for the second cell of a wide character
+     * @throws IndexOutOfBoundsException if the position is outside the screen
+     */
+    public int codePointAt(int column, int row) {
+        checkPosition(column, row);
+        return backCodePoints[row * width + column];
+    }
+
+    /**
+     * Makes the next frame redraw the whole screen, for example after other output overwrote it.
+     */
+    public void invalidate() {
+        redraw = true;
+    }
+
+    /**
+     * Renders the changes since the previous frame.
+     *
+     * @return the escape sequences and text that update the terminal, empty if nothing changed
+     */
+    public String render() {
+        return render(new StringBuilder()).toString();
+    }
+
+    /**
+     * Appends the changes since the previous frame to a caller-owned builder. Afterwards the current
+     * contents count as shown, and drawing continues on top of them.
+     *
+     * @param out the builder to append to (must not be null)
+     * @return the given builder
+     * @throws NullPointerException if out is null
+     */
+    public StringBuilder render(StringBuilder out) {
+        Objects.requireNonNull(out, "out must not be null");
+        int cursor = -1;
+        if (redraw) {
+            out.append(CLEAR);
+            cursor = 0;
+            Arrays.fill(frontCodePoints, BLANK);
+            Arrays.fill(frontStyles, 0);
+            redraw = false;
+        }
+
+        boolean color = ColorSupport.isEnabled();
+        ColorDepth depth = AnsiCodeGenerator.getColorDepth();
+        SgrMode mode = AnsiCodeGenerator.getSgrMode();
+        long active = PackedStyle.EMPTY;
+        for (int y = 0; y < height; y++) {
+            int rowStart = y * width;
+            int x = 0;
+            while (x < width) {
+                int cell = rowStart + x;
+                if (backCodePoints[cell] == frontCodePoints[cell] && backStyles[cell] == frontStyles[cell]) {
+                    x++;
+                    continue;
+                }
+                if (backCodePoints[cell] == WIDE_TAIL) {
+                    // the head of a wide character is written together with its tail
+                    cell--;
+                    x--;
+                }
+
+                moveCursor(out, cursor, cell, x, y);
+                long style = color ? ColorPalette.downsample(styles.style(backStyles[cell]), depth) : PackedStyle.EMPTY;
+                AnsiCodeGenerator.appendTransition(active, style, mode, out);
+                active = style;
+                out.appendCodePoint(backCodePoints[cell]);
+                int columns = cell + 1 < rowStart + width && backCodePoints[cell + 1] == WIDE_TAIL ? 2 : 1;
+                x += columns;
+                // at the right edge the cursor waits for a wrap, so its position is not known
+                cursor = x < width ? cell + columns : -1;
+            }
+        }
+        if (active != PackedStyle.EMPTY) {
+            out.append(AnsiCodeGenerator.RESET);
+        }
+
+        System.arraycopy(backCodePoints, 0, frontCodePoints, 0, backCodePoints.length);
+        System.arraycopy(backStyles, 0, frontStyles, 0, backStyles.length);
+        return out;
+    }
+
+    /**
+     * Moves the cursor from the cell it is at to the given cell, unless it is already there. A move to
+     * the right within the row uses the shorter cursor-forward sequence.
+     */
+    private void moveCursor(StringBuilder out, int cursor, int cell, int x, int y) {
+        if (cursor == cell) {
+            return;
+        }
+        if (cursor >= 0 && cursor / width == y && cursor < cell) {
+            int distance = cell - cursor;
+            out.append(CSI);
+            if (distance > 1) {
+                out.append(distance);
+            }
+            out.append('C');
+            return;
+        }
+        out.append(CSI).append(y + 1).append(';').append(x + 1).append('H');
+    }
+
+    /**
+     * Stores a character, blanking the other half of any wide character it partly overwrites.
+     */
+    private void put(int cell, int codePoint, int styleId, int columns) {
+        if (backCodePoints[cell] == WIDE_TAIL) {
+            backCodePoints[cell - 1] = BLANK;
+        }
+        int next = cell + columns;
+        if (next % width != 0 && backCodePoints[next] == WIDE_TAIL) {
+            backCodePoints[next] = BLANK;
+        }
+        backCodePoints[cell] = codePoint;
+        backStyles[cell] = styleId;
+        if (columns == 2) {
+            backCodePoints[cell + 1] = WIDE_TAIL;
+            backStyles[cell + 1] = styleId;
+        }
+    }
+
+    private void checkPosition(int column, int row) {
+        Objects.checkIndex(column, width);
+        Objects.checkIndex(row, height);
+    }
+
+    private void checkStyleId(int styleId) {
+        if (styleId < 0 || styleId >= styles.size()) {
+            throw new IllegalArgumentException("Unknown style id. Got: " + styleId);
+        }
+    }
+}
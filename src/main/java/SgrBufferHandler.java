@@ -0,0 +1,20 @@
+import java.nio.ByteBuffer;
+
+/**
+ * An {@link SgrHandler} that can also receive text as a range of a {@link ByteBuffer}. When
+ * {@link SgrParser#feed(ByteBuffer)} is given a buffer without a backing array, such as a direct or
+ * memory-mapped buffer, the parser reads it in place and reports each run through
+ * {@link #onText(ByteBuffer, int, int, long)} instead of copying it into an array first.
+ */
+public interface SgrBufferHandler extends SgrHandler {
+    /**
+     * Called for each run of text between escape sequences in a buffer without a backing array.
+     * The range is given as absolute indexes; the position and limit of the buffer must not be changed.
+     *
+     * @param buffer the buffer containing the text, encoded as it was fed to the parser
+     * @param start  the index of the first byte of the text
+     * @param end    the index after the last byte of the text
+     * @param style  the style of the text, see {@link SgrHandler#onText(byte[], int, int, long)}
+     */
+    void onText(ByteBuffer buffer, int start, int end, long style);
+}
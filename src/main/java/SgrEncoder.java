@@ -0,0 +1,99 @@
+/**
+ * Table-driven encoder for SGR (Select Graphic Rendition) escape sequences.
+ * Decimal digits for every value in the range 0-255 are precomputed once, so sequences
+ * can be appended to a caller-supplied {@link StringBuilder} without formatting or
+ * allocating intermediate strings.
+ */
+final class SgrEncoder {
+    /**
+     * The Control Sequence Introducer that starts every SGR sequence.
+     */
+    static final String CSI = "\u001b[";
+
+    private static final char[] DIGITS = new char[256 * 3];
+    private static final byte[] DIGIT_COUNTS = new byte[256];
+
+    static {
+        for (int value = 0; value < 256; value++) {
+            String decimal = Integer.toString(value);
+            decimal.getChars(0, decimal.length(), DIGITS, value * 3);
+            DIGIT_COUNTS[value] = (byte) decimal.length();
+        }
+    }
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private SgrEncoder() {
+    }
+
+    /**
+     * Appends the decimal representation of a value in the range 0-255.
+     *
+     * @param out   the builder to append to
+     * @param value the value to append (0-255)
+     * @return the given builder
+     */
+    static StringBuilder appendDecimal(StringBuilder out, int value) {
+        return out.append(DIGITS, value * 3, DIGIT_COUNTS[value]);
+    }
+
+    /**
+     * Returns the number of decimal digits of a value in the range 0-255.
+     *
+     * @param value the value (0-255)
+     * @return the number of digits, between 1 and 3
+     */
+    static int decimalLength(int value) {
+        return DIGIT_COUNTS[value];
+    }
+
+    /**
+     * Appends a complete 24-bit color sequence such as {@code ESC[38;2;255;100;50m}.
+     *
+     * @param out        the builder to append to
+     * @param rgb        the color to encode, packed as {@code 0xRRGGBB}
+     * @param background true to select the background color, false for the foreground
+     * @return the given builder
+     */
+    static StringBuilder appendRgb(StringBuilder out, int rgb, boolean background) {
+        out.append(CSI);
+        return appendRgbParameters(out, rgb, background).append('m');
+    }
+
+    /**
+     * Returns the length of the sequence {@link #appendRgb(StringBuilder, int, boolean)} appends.
+     *
+     * @param rgb the color to encode, packed as {@code 0xRRGGBB}
+     * @return the length of the sequence in characters
+     */
+    static int rgbLength(int rgb) {
+        return CSI.length() + rgbParametersLength(rgb) + 1;
+    }
+
+    /**
+     * Appends the parameters of a 24-bit color, such as {@code 38;2;255;100;50},
+     * for use inside a combined sequence.
+     *
+     * @param out        the builder to append to
+     * @param rgb        the color to encode, packed as {@code 0xRRGGBB}
+     * @param background true to select the background color, false for the foreground
+     * @return the given builder
+     */
+    static StringBuilder appendRgbParameters(StringBuilder out, int rgb, boolean background) {
+        out.append(background ? "48;2;" : "38;2;");
+        appendDecimal(out, (rgb >>> 16) & 0xFF).append(';');
+        appendDecimal(out, (rgb >>> 8) & 0xFF).append(';');
+        return appendDecimal(out, rgb & 0xFF);
+    }
+
+    /**
+     * Returns the length of the parameters {@link #appendRgbParameters(StringBuilder, int, boolean)} appends.
+     *
+     * @param rgb the color to encode, packed as {@code 0xRRGGBB}
+     * @return the length of the parameters in characters
+     */
+    static int rgbParametersLength(int rgb) {
+        return 7 + decimalLength((rgb >>> 16) & 0xFF) + decimalLength((rgb >>> 8) & 0xFF) + decimalLength(rgb & 0xFF);
+    }
+}
@@ -0,0 +1,18 @@
+/**
+ * Receives the text found by an {@link SgrParser}, one range at a time, together with the style
+ * the escape sequences before it selected.
+ */
+@FunctionalInterface
+public interface SgrHandler {
+    /**
+     * Called for each run of text between escape sequences. The range is only valid during the call:
+     * the parser reuses its buffers, so copy the bytes if they are needed later.
+     *
+     * @param bytes the buffer containing the text, encoded as it was fed to the parser
+     * @param start the index of the first byte of the text
+     * @param end   the index after the last byte of the text
+     * @param style the style of the text as an opaque packed value: 0 for unstyled text, equal values for
+     *              equal styles, and {@link SgrParser#toStyle(long)} converts it into a {@link Style}
+     */
+    void onText(byte[] bytes, int start, int end, long style);
+}
@@ -0,0 +1,17 @@
+/**
+ * Controls how the SGR (Select Graphic Rendition) parameters of a style are emitted.
+ *
+ * @see Janis#setSgrMode(SgrMode)
+ */
+public enum SgrMode {
+    /**
+     * All colors and attributes are joined into a single escape sequence,
+     * for example {@code ESC[1;3;38;2;255;100;50m}. This is the default.
+     */
+    COMBINED,
+    /**
+     * Every color and attribute gets its own escape sequence,
+     * for example {@code ESC[38;2;255;100;50mESC[1mESC[3m}.
+     */
+    SEPARATE
+}
@@ -0,0 +1,387 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Objects;
+
+/**
+ * Incremental parser that turns ANSI-styled output, such as the output of a subprocess, back into runs of
+ * text and the style each run is shown in. Feed it the output in buffers of any size; escape sequences split
+ * across two buffers are completed with the next one. Each run of text is reported to an {@link SgrHandler}
+ * as a range of the fed buffer, so parsing does not allocate.
+ *
+ * <pre>{@code
+ * SgrParser parser = new SgrParser((bytes, start, end, style) -> {
+ *     if (style != 0) {
+ *         highlighted.write(bytes, start, end - start);
+ *     }
+ * });
+ * parser.readFrom(Channels.newChannel(process.getInputStream()));
+ * }</pre>
+ *
+ * <p>Select Graphic Rendition sequences are understood in every form this library and common programs emit:
+ * one sequence per attribute or several {@code ;}-separated parameters in one sequence, basic and bright colors,
+ * {@code 38;5;n} palette colors and {@code 38;2;r;g;b} RGB colors, including the {@code :}-separated variants.
+ * Other escape sequences, such as cursor movement or hyperlinks, are dropped from the text.</p>
+ *
+ * <p>The parser keeps state between calls and is not thread-safe.</p>
+ */
+public final class SgrParser {
+    private static final int TEXT = 0;
+    private static final int ESCAPE = 1;
+    private static final int CONTROL_SEQUENCE = 2;
+    private static final int STRING = 3;
+    private static final int STRING_ESCAPE = 4;
+    private static final int MAXIMUM_PARAMETERS = 32;
+    private static final int MAXIMUM_PARAMETER_VALUE = 0xFFFF;
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private final SgrHandler handler;
+    private final int[] parameters = new int[MAXIMUM_PARAMETERS];
+    private final boolean[] subParameters = new boolean[MAXIMUM_PARAMETERS];
+    private int parameterCount;
+    private int parameter;
+    private boolean subParameter;
+    private boolean graphicRendition;
+    private int extendedColorEnd;
+    private int state = TEXT;
+    private long style = PackedStyle.EMPTY;
+    private ByteBuffer readBuffer;
+
+    /**
+     * Creates a parser that reports text to the given handler.
+     *
+     * @param handler the handler receiving each run of text (must not be null)
+     * @throws NullPointerException if handler is null
+     */
+    public SgrParser(SgrHandler handler) {
+        this.handler = Objects.requireNonNull(handler, "handler must not be null");
+    }
+
+    /**
+     * Parses the next part of the output.
+     *
+     * @param bytes  the buffer containing the output (must not be null)
+     * @param offset the index of the first byte to parse
+     * @param length the number of bytes to parse
+     * @throws NullPointerException      if bytes is null
+     * @throws IndexOutOfBoundsException if the range does not fit the buffer
+     */
+    public void feed(byte[] bytes, int offset, int length) {
+        Objects.requireNonNull(bytes, "bytes must not be null");
+        Objects.checkFromIndexSize(offset, length, bytes.length);
+
+        int end = offset + length;
+        int i = offset;
+        while (i < end) {
+            if (state == TEXT) {
+                int escape = AnsiText.indexOfEscape(bytes, i, end);
+                if (escape > i) {
+                    handler.onText(bytes, i, escape, style);
+                }
+                if (escape == end) {
+                    return;
+                }
+                state = ESCAPE;
+                i = escape + 1;
+            } else {
+                advance(bytes[i++]);
+            }
+        }
+    }
+
+    /**
+     * Parses the remaining bytes of a buffer and advances its position to its limit. A buffer without a
+     * backing array, such as a direct or memory-mapped buffer, is read in place if the handler is an
+     * {@link SgrBufferHandler}; for other handlers it is copied into the parser's read buffer in chunks.
+     *
+     * @param buffer the buffer containing the output (must not be null)
+     * @throws NullPointerException if buffer is null
+     */
+    public void feed(ByteBuffer buffer) {
+        Objects.requireNonNull(buffer, "buffer must not be null");
+        if (buffer.hasArray()) {
+            feed(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+            buffer.position(buffer.limit());
+            return;
+        }
+        if (handler instanceof SgrBufferHandler) {
+            feedInPlace(buffer, (SgrBufferHandler) handler);
+            return;
+        }
+
+        ByteBuffer copy = readBuffer();
+        while (buffer.hasRemaining()) {
+            copy.clear();
+            int length = Math.min(copy.capacity(), buffer.remaining());
+            buffer.get(copy.array(), 0, length);
+            feed(copy.array(), 0, length);
+        }
+    }
+
+    /**
+     * Parses a buffer without a backing array in place, with absolute gets, reporting text as ranges of it.
+     */
+    private void feedInPlace(ByteBuffer buffer, SgrBufferHandler bufferHandler) {
+        int end = buffer.limit();
+        int i = buffer.position();
+        while (i < end) {
+            if (state == TEXT) {
+                int escape = AnsiText.indexOfEscape(buffer, i, end);
+                if (escape > i) {
+                    bufferHandler.onText(buffer, i, escape, style);
+                }
+                if (escape == end) {
+                    break;
+                }
+                state = ESCAPE;
+                i = escape + 1;
+            } else {
+                advance(buffer.get(i++));
+            }
+        }
+        buffer.position(end);
+    }
+
+    /**
+     * Reads a channel to its end and parses everything read. Memory use is constant regardless of the
+     * amount of output: one read buffer is allocated per parser and reused.
+     *
+     * @param channel the channel to read (must not be null)
+     * @return the number of bytes read
+     * @throws NullPointerException if channel is null
+     * @throws IOException          if the channel fails to read
+     */
+    public long readFrom(ReadableByteChannel channel) throws IOException {
+        Objects.requireNonNull(channel, "channel must not be null");
+        ByteBuffer buffer = readBuffer();
+        long total = 0;
+        while (true) {
+            buffer.clear();
+            int read = channel.read(buffer);
+            if (read < 0) {
+                return total;
+            }
+            total += read;
+            feed(buffer.array(), 0, read);
+        }
+    }
+
+    /**
+     * Returns the style selected by the output parsed so far, which applies to the text that follows.
+     *
+     * @return the current style as a packed value, see {@link SgrHandler#onText(byte[], int, int, long)}
+     */
+    public long style() {
+        return style;
+    }
+
+    /**
+     * Discards any partially parsed escape sequence and resets the current style to no style,
+     * for example before parsing unrelated output with the same parser.
+     */
+    public void reset() {
+        state = TEXT;
+        style = PackedStyle.EMPTY;
+    }
+
+    /**
+     * Converts a packed style reported by the parser into a reusable style.
+     * Styles are shared through the {@link StyleCache}, so converting the same value again is cheap.
+     *
+     * @param style the packed style
+     * @return the style
+     */
+    public static Style toStyle(long style) {
+        return Janis.getStyleCache().get(style, AnsiCodeGenerator.getSgrMode());
+    }
+
+    /**
+     * Converts a packed style reported by the parser into a style configuration.
+     * Palette colors are reported as their RGB values.
+     *
+     * @param style the packed style
+     * @return the style configuration
+     */
+    static StyleConfig toConfig(long style) {
+        return PackedStyle.toConfig(style);
+    }
+
+    private ByteBuffer readBuffer() {
+        if (readBuffer == null) {
+            readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        }
+        return readBuffer;
+    }
+
+    /**
+     * Advances the state machine by one byte of an escape sequence.
+     */
+    private void advance(byte b) {
+        switch (state) {
+            case ESCAPE:
+                if (b == '[') {
+                    state = CONTROL_SEQUENCE;
+                    parameterCount = 0;
+                    parameter = 0;
+                    subParameter = false;
+                    graphicRendition = true;
+                } else if (b == ']' || b == 'P' || b == 'X' || b == '^' || b == '_') {
+                    state = STRING;
+                } else if (b != 0x1B && (b < 0x20 || b > 0x2F)) {
+                    // a two-character escape ends here; intermediate bytes keep it open
+                    state = TEXT;
+                }
+                break;
+            case CONTROL_SEQUENCE:
+                if (b >= '0' && b <= '9') {
+                    parameter = Math.min(parameter * 10 + (b - '0'), MAXIMUM_PARAMETER_VALUE);
+                } else if (b == ';' || b == ':') {
+                    pushParameter();
+                    subParameter = b == ':';
+                } else if (b >= 0x40 && b <= 0x7E) {
+                    pushParameter();
+                    if (b == 'm' && graphicRendition) {
+                        applyGraphicRendition();
+                    }
+                    state = TEXT;
+                } else if (b >= 0x20 && b <= 0x3F) {
+                    // private markers and intermediate bytes mark sequences that are not plain SGR
+                    graphicRendition = false;
+                } else {
+                    // an escape aborts the sequence and starts a new one, anything else just aborts it
+                    state = b == 0x1B ? ESCAPE : TEXT;
+                }
+                break;
+            case STRING:
+                if (b == 0x07) {
+                    state = TEXT;
+                } else if (b == 0x1B) {
+                    state = STRING_ESCAPE;
+                }
+                break;
+            case STRING_ESCAPE:
+                state = b == '\\' ? TEXT : b == 0x1B ? STRING_ESCAPE : STRING;
+                break;
+            default:
+                state = TEXT;
+                break;
+        }
+    }
+
+    private void pushParameter() {
+        if (parameterCount < MAXIMUM_PARAMETERS) {
+            parameters[parameterCount] = parameter;
+            subParameters[parameterCount] = subParameter;
+            parameterCount++;
+        }
+        parameter = 0;
+    }
+
+    /**
+     * Applies the parameters of a complete SGR sequence to the current style.
+     * An empty sequence has a single parameter 0 and resets the style.
+     */
+    private void applyGraphicRendition() {
+        long current = style;
+        int i = 0;
+        while (i < parameterCount) {
+            int code = parameters[i];
+            if (code == 0) {
+                current = PackedStyle.EMPTY;
+            } else if (code <= 8) {
+                current = PackedStyle.withAttributes(current, 1 << (code - 1));
+            } else if (code >= 22 && code <= 28) {
+                current &= ~clearedAttributes(code);
+            } else if (code >= 30 && code <= 37) {
+                current = PackedStyle.withForeground(current, PackedStyle.BASIC, code - 30);
+            } else if (code >= 90 && code <= 97) {
+                current = PackedStyle.withForeground(current, PackedStyle.BASIC, code - 90 + 8);
+            } else if (code >= 40 && code <= 47) {
+                current = PackedStyle.withBackground(current, PackedStyle.BASIC, code - 40);
+            } else if (code >= 100 && code <= 107) {
+                current = PackedStyle.withBackground(current, PackedStyle.BASIC, code - 100 + 8);
+            } else if (code == 39) {
+                current = PackedStyle.withForeground(current, PackedStyle.NONE, 0);
+            } else if (code == 49) {
+                current = PackedStyle.withBackground(current, PackedStyle.NONE, 0);
+            } else if (code == 38 || code == 48) {
+                current = extendedColor(current, i, code == 48);
+                i = extendedColorEnd;
+                continue;
+            }
+            i++;
+        }
+        style = current;
+    }
+
+    /**
+     * Returns the attribute bits an SGR code from 22 to 28 turns off.
+     */
+    private static int clearedAttributes(int code) {
+        switch (code) {
+            case 22:
+                return PackedStyle.BOLD | PackedStyle.DIM;
+            case 23:
+                return PackedStyle.ITALIC;
+            case 24:
+                return PackedStyle.UNDERLINED;
+            case 25:
+                return PackedStyle.SLOW_BLINK | PackedStyle.RAPID_BLINK;
+            case 27:
+                return PackedStyle.REVERSE;
+            case 28:
+                return PackedStyle.HIDE;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Applies a {@code 38} or {@code 48} extended color starting at the given parameter and returns the
+     * updated style. The index of the next unread parameter is left in {@link #extendedColorEnd}.
+     */
+    private long extendedColor(long current, int index, boolean background) {
+        int next = index + 1;
+        boolean colon = next < parameterCount && subParameters[next];
+        int last = next;
+        if (colon) {
+            while (last + 1 < parameterCount && subParameters[last + 1]) {
+                last++;
+            }
+        }
+
+        int kind = PackedStyle.NONE;
+        int value = 0;
+        int resume;
+        int mode = next < parameterCount ? parameters[next] : -1;
+        if (mode == 5 && (colon ? last >= next + 1 : next + 1 < parameterCount)) {
+            int paletteIndex = parameters[next + 1];
+            if (paletteIndex <= 255) {
+                kind = PackedStyle.INDEXED;
+                value = paletteIndex;
+            }
+            resume = colon ? last + 1 : next + 2;
+        } else if (mode == 2 && (colon ? last >= next + 3 : next + 3 < parameterCount)) {
+            // the colon form may carry a color space id before the components: 38:2:<id>:r:g:b
+            int first = colon && last >= next + 4 ? last - 2 : next + 1;
+            int r = parameters[first];
+            int g = parameters[first + 1];
+            int b = parameters[first + 2];
+            if (r <= 255 && g <= 255 && b <= 255) {
+                kind = PackedStyle.RGB;
+                value = (r << 16) | (g << 8) | b;
+            }
+            resume = colon ? last + 1 : next + 4;
+        } else {
+            resume = colon ? last + 1 : parameterCount;
+        }
+
+        if (kind != PackedStyle.NONE) {
+            current = background
+                    ? PackedStyle.withBackground(current, kind, value)
+                    : PackedStyle.withForeground(current, kind, value);
+        }
+        extendedColorEnd = resume;
+        return current;
+    }
+}
@@ -0,0 +1,166 @@
+import java.util.Objects;
+
+/**
+ * Renders consecutive styled segments into a caller-owned builder while tracking the style
+ * the terminal is currently in. Between two segments only the minimal transition is emitted,
+ * such as {@code ESC[22m} to turn off bold or a new foreground color, instead of a reset followed
+ * by the full prefix of the next style. Adjacent segments with the same style emit nothing at all.
+ *
+ * <pre>{@code
+ * StringBuilder line = new StringBuilder();
+ * new SgrRenderer(line)
+ *         .append(keyStyle, "user")
+ *         .append("=")
+ *         .append(valueStyle, "alice")
+ *         .finish();
+ * }</pre>
+ *
+ * <p>Colors are reduced to the color depth that is current when the renderer is created.
+ * A renderer is not thread-safe and is meant to be reused for many segments.</p>
+ */
+public final class SgrRenderer {
+    private final StringBuilder out;
+    private final SgrMode mode;
+    private final ColorDepth depth;
+    private long current = PackedStyle.EMPTY;
+    private Style currentUnknown;
+
+    /**
+     * Creates a renderer appending to the given builder with the current default emission mode.
+     * The terminal is assumed to start without any active style.
+     *
+     * @param out the builder to append to (must not be null)
+     * @throws NullPointerException if out is null
+     */
+    public SgrRenderer(StringBuilder out) {
+        this(out, AnsiCodeGenerator.getSgrMode());
+    }
+
+    /**
+     * Creates a renderer appending to the given builder with the given emission mode.
+     *
+     * @param out  the builder to append to (must not be null)
+     * @param mode the emission mode (must not be null)
+     * @throws NullPointerException if out or mode is null
+     */
+    public SgrRenderer(StringBuilder out, SgrMode mode) {
+        this.out = Objects.requireNonNull(out, "out must not be null");
+        this.mode = Objects.requireNonNull(mode, "SgrMode cannot be null");
+        this.depth = AnsiCodeGenerator.getColorDepth();
+    }
+
+    /**
+     * Appends a segment in the given style.
+     *
+     * @param style the style of the segment (must not be null)
+     * @param text  the text of the segment (must not be null)
+     * @return this renderer for method chaining
+     * @throws NullPointerException if style or text is null
+     */
+    public SgrRenderer append(Style style, CharSequence text) {
+        Objects.requireNonNull(text, "text must not be null");
+        return append(style, text, 0, text.length());
+    }
+
+    /**
+     * Appends a range of the given text as a segment in the given style.
+     *
+     * @param style the style of the segment (must not be null)
+     * @param text  the text containing the segment (must not be null)
+     * @param start the index of the first character of the segment
+     * @param end   the index after the last character of the segment
+     * @return this renderer for method chaining
+     * @throws NullPointerException      if style or text is null
+     * @throws IndexOutOfBoundsException if the range is not within the text
+     */
+    public SgrRenderer append(Style style, CharSequence text, int start, int end) {
+        Objects.requireNonNull(style, "style must not be null");
+        Objects.requireNonNull(text, "text must not be null");
+        Objects.checkFromToIndex(start, end, text.length());
+        if (start == end) {
+            return this;
+        }
+
+        transitionTo(style);
+        out.append(text, start, end);
+        return this;
+    }
+
+    /**
+     * Appends an unstyled segment, switching off any active style first.
+     *
+     * @param text the text of the segment (must not be null)
+     * @return this renderer for method chaining
+     * @throws NullPointerException if text is null
+     */
+    public SgrRenderer append(CharSequence text) {
+        Objects.requireNonNull(text, "text must not be null");
+        if (text.length() == 0) {
+            return this;
+        }
+
+        transitionTo(PackedStyle.EMPTY);
+        out.append(text);
+        return this;
+    }
+
+    /**
+     * Resets the terminal if a style is still active, so that text written afterwards is unstyled.
+     * The renderer can keep being used after finishing.
+     *
+     * @return this renderer for method chaining
+     */
+    public SgrRenderer finish() {
+        transitionTo(PackedStyle.EMPTY);
+        return this;
+    }
+
+    /**
+     * Returns the builder this renderer appends to.
+     *
+     * @return the output builder
+     */
+    public StringBuilder out() {
+        return out;
+    }
+
+    /**
+     * Emits the transition from the active style to the given style.
+     * Styles created from a raw ANSI prefix have no known configuration, so switching to or away
+     * from them always goes through a reset. Styles with color disabled count as no style.
+     *
+     * @param style the style to switch to
+     */
+    void transitionTo(Style style) {
+        if (!style.isColorEnabled()) {
+            transitionTo(PackedStyle.EMPTY);
+            return;
+        }
+        long packed = style.packedStyle(depth);
+        if (packed != PackedStyle.UNKNOWN) {
+            transitionTo(packed);
+            return;
+        }
+
+        if (style == currentUnknown) {
+            return;
+        }
+        if (current != PackedStyle.EMPTY) {
+            out.append(AnsiCodeGenerator.RESET);
+        }
+        out.append(style.ansiPrefix());
+        current = PackedStyle.UNKNOWN;
+        currentUnknown = style;
+    }
+
+    /**
+     * Emits the transition from the active style to the given packed style.
+     *
+     * @param packed the packed style to switch to, must not be {@link PackedStyle#UNKNOWN}
+     */
+    void transitionTo(long packed) {
+        AnsiCodeGenerator.appendTransition(current, packed, mode, out);
+        current = packed;
+        currentUnknown = null;
+    }
+}
@@ -1,10 +1,24 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
 /**
  * Represents a reusable text style with ANSI escape codes.
  * A Style instance can be applied to multiple text strings, applying the same
  * formatting (colors, attributes) to each.
  */
 public final class Style {
+    private static final byte[] NO_BYTES = new byte[0];
+
+    private final long packedStyle;
     private final String ansiPrefix;
+    private final byte[] ansiPrefixBytes;
+    private final ColorMode colorMode;
+    private final SgrMode sgrMode;
+    private volatile Downsampled downsampled;
 
     /**
      * Constructs a Style with the specified ANSI prefix.
@@ -12,7 +26,57 @@ public final class Style {
      * @param ansiPrefix the ANSI escape sequence prefix containing style codes
      */
     public Style(String ansiPrefix) {
+        this(PackedStyle.UNKNOWN, ansiPrefix, ansiPrefix.getBytes(StandardCharsets.UTF_8), ColorMode.AUTO, null);
+    }
+
+    /**
+     * Constructs a Style from a packed style configuration, generating its ANSI prefix.
+     *
+     * @param packedStyle the packed style configuration, see {@link PackedStyle}
+     * @param mode        the emission mode the ANSI prefix is generated with
+     */
+    Style(long packedStyle, SgrMode mode) {
+        this(packedStyle, AnsiCodeGenerator.getAnsiPrefix(packedStyle, mode), mode);
+    }
+
+    private Style(long packedStyle, String ansiPrefix, SgrMode mode) {
+        this(packedStyle, ansiPrefix, encode(packedStyle, ansiPrefix), ColorMode.AUTO, mode);
+    }
+
+    private Style(long packedStyle, String ansiPrefix, byte[] ansiPrefixBytes, ColorMode colorMode,
+                  SgrMode sgrMode) {
+        this.packedStyle = packedStyle;
         this.ansiPrefix = ansiPrefix;
+        this.ansiPrefixBytes = ansiPrefixBytes;
+        this.colorMode = colorMode;
+        this.sgrMode = sgrMode;
+    }
+
+    /**
+     * Returns a copy of this style that overrides the global color mode set with
+     * {@link Janis#setColorMode(ColorMode)}. Use {@link ColorMode#ALWAYS} for output that must keep its
+     * escape sequences, for example when writing to a file that is later shown in a terminal.
+     *
+     * @param mode the color mode of the new style, {@link ColorMode#AUTO} to follow the global mode
+     *             (must not be null)
+     * @return a style with the given color mode
+     * @throws NullPointerException if mode is null
+     */
+    public Style withColorMode(ColorMode mode) {
+        Objects.requireNonNull(mode, "ColorMode cannot be null");
+        if (mode == colorMode) {
+            return this;
+        }
+        return new Style(packedStyle, ansiPrefix, ansiPrefixBytes, mode, sgrMode);
+    }
+
+    /**
+     * Returns the color mode of this style.
+     *
+     * @return {@link ColorMode#AUTO} if this style follows the global mode, otherwise its override
+     */
+    public ColorMode getColorMode() {
+        return colorMode;
     }
 
     /**
@@ -23,6 +87,236 @@ public final class Style {
      * @return the styled text with ANSI escape codes
      */
     public String apply(String text) {
-        return ansiPrefix + text + "\u001B[0m";
+        if (!isColorEnabled()) {
+            return text;
+        }
+        return ansiPrefix() + text + AnsiCodeGenerator.RESET;
+    }
+
+    /**
+     * Applies this style lazily: the returned view represents the styled text but copies nothing
+     * until it is converted to a string or written to a sink. Use this for text that may be discarded,
+     * such as log messages that are filtered out by level.
+     *
+     * @param text the text to style (must not be null), read when the view is consumed
+     * @return a lazy view of the styled text
+     * @throws NullPointerException if text is null
+     */
+    public StyledCharSequence applyLazy(CharSequence text) {
+        Objects.requireNonNull(text, "text must not be null");
+        if (!isColorEnabled()) {
+            return new StyledCharSequence("", text, 0, text.length(), "");
+        }
+        return new StyledCharSequence(ansiPrefix(), text, 0, text.length(), AnsiCodeGenerator.RESET);
+    }
+
+    /**
+     * Appends the styled text to a caller-owned builder instead of creating a new string.
+     * Several styled fragments can be assembled this way in one reused buffer.
+     *
+     * @param text the text to style (must not be null)
+     * @param out  the builder to append to (must not be null)
+     * @return the given builder
+     * @throws NullPointerException if text or out is null
+     */
+    public StringBuilder apply(CharSequence text, StringBuilder out) {
+        Objects.requireNonNull(text, "text must not be null");
+        return apply(text, 0, text.length(), out);
+    }
+
+    /**
+     * Appends a styled range of the given text to a caller-owned builder.
+     *
+     * @param text  the text containing the range to style (must not be null)
+     * @param start the index of the first character to style
+     * @param end   the index after the last character to style
+     * @param out   the builder to append to (must not be null)
+     * @return the given builder
+     * @throws NullPointerException      if text or out is null
+     * @throws IndexOutOfBoundsException if the range is not within the text
+     */
+    public StringBuilder apply(CharSequence text, int start, int end, StringBuilder out) {
+        Objects.requireNonNull(text, "text must not be null");
+        Objects.requireNonNull(out, "out must not be null");
+        Objects.checkFromToIndex(start, end, text.length());
+        if (!isColorEnabled()) {
+            return out.append(text, start, end);
+        }
+        return out.append(ansiPrefix()).append(text, start, end).append(AnsiCodeGenerator.RESET);
+    }
+
+    /**
+     * Appends the styled text to any character sink, such as a {@link java.io.Writer}.
+     *
+     * @param text the text to style (must not be null)
+     * @param out  the sink to append to (must not be null)
+     * @return the given sink
+     * @throws NullPointerException if text or out is null
+     * @throws IOException          if the sink fails to append
+     */
+    public Appendable apply(CharSequence text, Appendable out) throws IOException {
+        Objects.requireNonNull(text, "text must not be null");
+        return apply(text, 0, text.length(), out);
+    }
+
+    /**
+     * Appends a styled range of the given text to any character sink, such as a {@link java.io.Writer}.
+     *
+     * @param text  the text containing the range to style (must not be null)
+     * @param start the index of the first character to style
+     * @param end   the index after the last character to style
+     * @param out   the sink to append to (must not be null)
+     * @return the given sink
+     * @throws NullPointerException      if text or out is null
+     * @throws IndexOutOfBoundsException if the range is not within the text
+     * @throws IOException               if the sink fails to append
+     */
+    public Appendable apply(CharSequence text, int start, int end, Appendable out) throws IOException {
+        Objects.requireNonNull(text, "text must not be null");
+        Objects.requireNonNull(out, "out must not be null");
+        Objects.checkFromToIndex(start, end, text.length());
+        if (!isColorEnabled()) {
+            return out.append(text, start, end);
+        }
+        return out.append(ansiPrefix()).append(text, start, end).append(AnsiCodeGenerator.RESET);
+    }
+
+    /**
+     * Writes the styled text as UTF-8 into a byte buffer, such as a direct buffer destined for a
+     * {@link java.nio.channels.FileChannel} or {@link java.nio.channels.SocketChannel}.
+     * The ANSI sequences are pre-encoded, and the text is encoded straight into the buffer
+     * without an intermediate String.
+     *
+     * @param out  the buffer to write to, its position is advanced past the written bytes (must not be null)
+     * @param text the text to style (must not be null)
+     * @return the number of bytes written
+     * @throws NullPointerException    if out or text is null
+     * @throws BufferOverflowException if the buffer does not have enough room left, in which case nothing is written
+     */
+    public int writeTo(ByteBuffer out, CharSequence text) {
+        Objects.requireNonNull(out, "out must not be null");
+        Objects.requireNonNull(text, "text must not be null");
+
+        byte[] prefix = isColorEnabled() ? ansiPrefixBytes() : NO_BYTES;
+        byte[] reset = isColorEnabled() ? AnsiCodeGenerator.RESET_BYTES : NO_BYTES;
+        int textLength = Utf8.encodedLength(text, 0, text.length());
+        int length = prefix.length + textLength + reset.length;
+        if (out.remaining() < length) {
+            throw new BufferOverflowException();
+        }
+
+        out.put(prefix);
+        Utf8.encode(text, 0, text.length(), out);
+        out.put(reset);
+        return length;
+    }
+
+    /**
+     * Writes the styled text as UTF-8 to an output stream with a single {@code write} call.
+     *
+     * @param out  the stream to write to (must not be null)
+     * @param text the text to style (must not be null)
+     * @return the number of bytes written
+     * @throws NullPointerException if out or text is null
+     * @throws IOException          if the stream fails to write
+     */
+    public int writeTo(OutputStream out, CharSequence text) throws IOException {
+        Objects.requireNonNull(out, "out must not be null");
+        Objects.requireNonNull(text, "text must not be null");
+
+        byte[] prefix = isColorEnabled() ? ansiPrefixBytes() : NO_BYTES;
+        byte[] reset = isColorEnabled() ? AnsiCodeGenerator.RESET_BYTES : NO_BYTES;
+        int textLength = Utf8.encodedLength(text, 0, text.length());
+        byte[] bytes = new byte[prefix.length + textLength + reset.length];
+        System.arraycopy(prefix, 0, bytes, 0, prefix.length);
+        int offset = Utf8.encode(text, 0, text.length(), bytes, prefix.length);
+        System.arraycopy(reset, 0, bytes, offset, reset.length);
+
+        out.write(bytes);
+        return bytes.length;
+    }
+
+    /**
+     * Returns whether this style currently emits escape sequences, taking its own color mode and
+     * the global one into account.
+     *
+     * @return true if escape sequences are emitted
+     */
+    boolean isColorEnabled() {
+        return colorMode == ColorMode.AUTO ? ColorSupport.isEnabled() : colorMode == ColorMode.ALWAYS;
+    }
+
+    /**
+     * Returns the ANSI prefix of this style for the current color depth.
+     *
+     * @return the ANSI escape sequence prefix
+     */
+    String ansiPrefix() {
+        ColorDepth depth = AnsiCodeGenerator.getColorDepth();
+        return depth == ColorDepth.TRUECOLOR ? ansiPrefix : downsampled(depth).ansiPrefix;
+    }
+
+    /**
+     * Returns the ANSI prefix of this style for the current color depth pre-encoded as bytes.
+     * The array must not be modified.
+     *
+     * @return the encoded ANSI escape sequence prefix
+     */
+    byte[] ansiPrefixBytes() {
+        ColorDepth depth = AnsiCodeGenerator.getColorDepth();
+        return depth == ColorDepth.TRUECOLOR ? ansiPrefixBytes : downsampled(depth).ansiPrefixBytes;
+    }
+
+    /**
+     * Returns the packed configuration this style is shown with at the given color depth.
+     *
+     * @param depth the color depth of the terminal
+     * @return the packed style with its colors reduced to the depth,
+     * or {@link PackedStyle#UNKNOWN} if this style was created from a raw ANSI prefix
+     */
+    long packedStyle(ColorDepth depth) {
+        return depth == ColorDepth.TRUECOLOR ? packedStyle : downsampled(depth).packedStyle;
+    }
+
+    /**
+     * Returns this style reduced to a color depth, computing it on first use. The result for the
+     * most recently used depth is remembered, so the prefix is generated once per style.
+     */
+    private Downsampled downsampled(ColorDepth depth) {
+        Downsampled result = downsampled;
+        if (result == null || result.depth != depth) {
+            long reduced = ColorPalette.downsample(packedStyle, depth);
+            if (reduced == packedStyle) {
+                result = new Downsampled(depth, packedStyle, ansiPrefix, ansiPrefixBytes);
+            } else {
+                String prefix = AnsiCodeGenerator.getAnsiPrefix(reduced, sgrMode);
+                result = new Downsampled(depth, reduced, prefix, encode(reduced, prefix));
+            }
+            downsampled = result;
+        }
+        return result;
+    }
+
+    /**
+     * Encodes the ANSI prefix of a packed style, sharing the prebuilt bytes of a lone palette color.
+     */
+    private static byte[] encode(long packedStyle, String ansiPrefix) {
+        byte[] shared = IndexedColor.soleColorCodeBytes(packedStyle);
+        return shared != null ? shared : ansiPrefix.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the packed configuration this style was built from.
+     *
+     * @return the packed style, or {@link PackedStyle#UNKNOWN} if this style was created from a raw ANSI prefix
+     */
+    long packedStyle() {
+        return packedStyle;
+    }
+
+    /**
+     * A style reduced to a color depth, with its ANSI prefix for that depth.
+     */
+    private record Downsampled(ColorDepth depth, long packedStyle, String ansiPrefix, byte[] ansiPrefixBytes) {
     }
 }
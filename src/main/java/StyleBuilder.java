@@ -1,3 +1,4 @@
+import java.io.IOException;
 import java.util.Objects;
 
 /**
@@ -13,18 +14,7 @@ import java.util.Objects;
  */
 public final class StyleBuilder {
     private final String text;
-    private BasicColor basicColor;
-    private Rgb rgbColor;
-    private BasicColor bgBasicColor;
-    private Rgb bgRgbColor;
-    private boolean isBold;
-    private boolean isDim;
-    private boolean isItalic;
-    private boolean isUnderlined;
-    private boolean isSlowBlink;
-    private boolean isRapidBlink;
-    private boolean isReverse;
-    private boolean isHide;
+    private long style = PackedStyle.EMPTY;
 
     /**
      * Constructs a StyleBuilder with the given text for immediate styling.
@@ -51,7 +41,7 @@ public final class StyleBuilder {
      */
     public StyleBuilder color(BasicColor basicColor) {
         Objects.requireNonNull(basicColor, "BasicColor cannot be null");
-        this.basicColor = basicColor;
+        this.style = PackedStyle.withForeground(this.style, PackedStyle.BASIC, basicColor.ordinal());
         return this;
     }
 
@@ -68,8 +58,7 @@ public final class StyleBuilder {
         if (r < 0 || r > 255 || g < 0 || g > 255 || b < 0 || b > 255) {
             throw new IllegalArgumentException("RGB values must be in the range 0-255");
         }
-        this.rgbColor = new Rgb(r, g, b);
-        return this;
+        return foregroundRgb((r << 16) | (g << 8) | b);
     }
 
     /**
@@ -82,8 +71,33 @@ public final class StyleBuilder {
      */
     public StyleBuilder hex(String hex) throws IllegalArgumentException {
         Objects.requireNonNull(hex, "Hexadecimal string cannot be null");
-        this.rgbColor = Rgb.fromHex(hex);
-        return this;
+        return foregroundRgb(Rgb.parseHex(hex));
+    }
+
+    /**
+     * Sets the foreground text color using a CSS named color such as "orange" or "rebeccapurple".
+     * Names are matched case-insensitively, and the color is set as an RGB color.
+     *
+     * @param name the CSS color name
+     * @return this StyleBuilder for method chaining
+     * @throws IllegalArgumentException if the name is not a CSS color name
+     * @throws NullPointerException     if name is null
+     */
+    public StyleBuilder cssColor(String name) throws IllegalArgumentException {
+        Objects.requireNonNull(name, "Color name cannot be null");
+        return foregroundRgb(namedColor(name));
+    }
+
+    /**
+     * Sets the foreground text color using an entry of the xterm 256-color palette.
+     * A basic foreground color that is already set keeps precedence, as it does over RGB colors.
+     *
+     * @param index the palette index (0-255)
+     * @return this StyleBuilder for method chaining
+     * @throws IllegalArgumentException if the index is not in the range 0-255
+     */
+    public StyleBuilder color256(int index) {
+        return foreground(PackedStyle.INDEXED, IndexedColor.of(index).index());
     }
 
     /**
@@ -95,7 +109,7 @@ public final class StyleBuilder {
      */
     public StyleBuilder bgColor(BasicColor basicColor) {
         Objects.requireNonNull(basicColor, "Background BasicColor cannot be null");
-        this.bgBasicColor = basicColor;
+        this.style = PackedStyle.withBackground(this.style, PackedStyle.BASIC, basicColor.ordinal());
         return this;
     }
 
@@ -112,8 +126,7 @@ public final class StyleBuilder {
         if (r < 0 || r > 255 || g < 0 || g > 255 || b < 0 || b > 255) {
             throw new IllegalArgumentException("RGB values must be in the range 0-255");
         }
-        this.bgRgbColor = new Rgb(r, g, b);
-        return this;
+        return backgroundRgb((r << 16) | (g << 8) | b);
     }
 
     /**
@@ -126,8 +139,33 @@ public final class StyleBuilder {
      */
     public StyleBuilder bgHex(String hex) throws IllegalArgumentException {
         Objects.requireNonNull(hex, "Background hexadecimal string cannot be null");
-        this.bgRgbColor = Rgb.fromHex(hex);
-        return this;
+        return backgroundRgb(Rgb.parseHex(hex));
+    }
+
+    /**
+     * Sets the background color using a CSS named color such as "orange" or "rebeccapurple".
+     * Names are matched case-insensitively, and the color is set as an RGB color.
+     *
+     * @param name the CSS color name
+     * @return this StyleBuilder for method chaining
+     * @throws IllegalArgumentException if the name is not a CSS color name
+     * @throws NullPointerException     if name is null
+     */
+    public StyleBuilder bgCssColor(String name) throws IllegalArgumentException {
+        Objects.requireNonNull(name, "Background color name cannot be null");
+        return backgroundRgb(namedColor(name));
+    }
+
+    /**
+     * Sets the background color using an entry of the xterm 256-color palette.
+     * A basic background color that is already set keeps precedence, as it does over RGB colors.
+     *
+     * @param index the palette index (0-255)
+     * @return this StyleBuilder for method chaining
+     * @throws IllegalArgumentException if the index is not in the range 0-255
+     */
+    public StyleBuilder bgColor256(int index) {
+        return background(PackedStyle.INDEXED, IndexedColor.of(index).index());
     }
 
     /**
@@ -136,8 +174,7 @@ public final class StyleBuilder {
      * @return this StyleBuilder for method chaining
      */
     public StyleBuilder bold() {
-        this.isBold = true;
-        return this;
+        return attribute(PackedStyle.BOLD);
     }
 
     /**
@@ -146,8 +183,7 @@ public final class StyleBuilder {
      * @return this StyleBuilder for method chaining
      */
     public StyleBuilder dim() {
-        this.isDim = true;
-        return this;
+        return attribute(PackedStyle.DIM);
     }
 
     /**
@@ -156,8 +192,7 @@ public final class StyleBuilder {
      * @return this StyleBuilder for method chaining
      */
     public StyleBuilder italic() {
-        this.isItalic = true;
-        return this;
+        return attribute(PackedStyle.ITALIC);
     }
 
     /**
@@ -166,8 +201,7 @@ public final class StyleBuilder {
      * @return this StyleBuilder for method chaining
      */
     public StyleBuilder underlined() {
-        this.isUnderlined = true;
-        return this;
+        return attribute(PackedStyle.UNDERLINED);
     }
 
     /**
@@ -176,8 +210,7 @@ public final class StyleBuilder {
      * @return this StyleBuilder for method chaining
      */
     public StyleBuilder slowBlink() {
-        this.isSlowBlink = true;
-        return this;
+        return attribute(PackedStyle.SLOW_BLINK);
     }
 
     /**
@@ -186,8 +219,7 @@ public final class StyleBuilder {
      * @return this StyleBuilder for method chaining
      */
     public StyleBuilder rapidBlink() {
-        this.isRapidBlink = true;
-        return this;
+        return attribute(PackedStyle.RAPID_BLINK);
     }
 
     /**
@@ -196,8 +228,7 @@ public final class StyleBuilder {
      * @return this StyleBuilder for method chaining
      */
     public StyleBuilder reverse() {
-        this.isReverse = true;
-        return this;
+        return attribute(PackedStyle.REVERSE);
     }
 
     /**
@@ -206,8 +237,7 @@ public final class StyleBuilder {
      * @return this StyleBuilder for method chaining
      */
     public StyleBuilder hide() {
-        this.isHide = true;
-        return this;
+        return attribute(PackedStyle.HIDE);
     }
 
     /**
@@ -222,28 +252,67 @@ public final class StyleBuilder {
             throw new IllegalStateException("render() cannot be called when style method is used, use build() instead.");
         }
 
-        StyleConfig config = new StyleConfig(
-                this.basicColor,
-                this.rgbColor,
-                this.bgBasicColor,
-                this.bgRgbColor,
-                this.isBold,
-                this.isDim,
-                this.isItalic,
-                this.isUnderlined,
-                this.isSlowBlink,
-                this.isRapidBlink,
-                this.isReverse,
-                this.isHide
-        );
-        String ansiPrefix = AnsiCodeGenerator.getAnsiPrefix(config);
-
-        return ansiPrefix + text + "\u001B[0m";
+        if (!ColorSupport.isEnabled()) {
+            return text;
+        }
+        return Janis.getStyleCache().get(style, AnsiCodeGenerator.getSgrMode()).apply(text);
+    }
+
+    /**
+     * Renders the styled text lazily: the returned view copies nothing until it is converted to a string
+     * or written to a sink. This method can only be called when the StyleBuilder was created with
+     * {@link Janis#of(String)}.
+     *
+     * @return a lazy view of the styled text
+     * @throws IllegalStateException if called on a StyleBuilder created with {@link Janis#style()}
+     */
+    public StyledCharSequence renderLazy() throws IllegalStateException {
+        if (text == null) {
+            throw new IllegalStateException("render() cannot be called when style method is used, use build() instead.");
+        }
+
+        return Janis.getStyleCache().get(style, AnsiCodeGenerator.getSgrMode()).applyLazy(text);
+    }
+
+    /**
+     * Renders the styled text into a caller-owned builder instead of creating a new string.
+     * This method can only be called when the StyleBuilder was created with {@link Janis#of(String)}.
+     *
+     * @param out the builder to append to (must not be null)
+     * @return the given builder
+     * @throws IllegalStateException if called on a StyleBuilder created with {@link Janis#style()}
+     * @throws NullPointerException  if out is null
+     */
+    public StringBuilder render(StringBuilder out) throws IllegalStateException {
+        if (text == null) {
+            throw new IllegalStateException("render() cannot be called when style method is used, use build() instead.");
+        }
+
+        return Janis.getStyleCache().get(style, AnsiCodeGenerator.getSgrMode()).apply(text, out);
+    }
+
+    /**
+     * Renders the styled text into any character sink, such as a {@link java.io.Writer}.
+     * This method can only be called when the StyleBuilder was created with {@link Janis#of(String)}.
+     *
+     * @param out the sink to append to (must not be null)
+     * @return the given sink
+     * @throws IllegalStateException if called on a StyleBuilder created with {@link Janis#style()}
+     * @throws NullPointerException  if out is null
+     * @throws IOException           if the sink fails to append
+     */
+    public Appendable render(Appendable out) throws IllegalStateException, IOException {
+        if (text == null) {
+            throw new IllegalStateException("render() cannot be called when style method is used, use build() instead.");
+        }
+
+        return Janis.getStyleCache().get(style, AnsiCodeGenerator.getSgrMode()).apply(text, out);
     }
 
     /**
      * Builds a reusable Style object.
      * This method can only be called when the StyleBuilder was created with {@link Janis#style()}.
+     * Builders with the same configuration return the same shared instance from the {@link StyleCache}.
      *
      * @return a Style object that can be applied to multiple texts
      * @throws IllegalStateException if called on a StyleBuilder created with {@link Janis#of(String)}
@@ -253,22 +322,82 @@ public final class StyleBuilder {
             throw new IllegalStateException("build() cannot be called when of method is used, use render() instead.");
         }
 
-        StyleConfig config = new StyleConfig(
-                this.basicColor,
-                this.rgbColor,
-                this.bgBasicColor,
-                this.bgRgbColor,
-                this.isBold,
-                this.isDim,
-                this.isItalic,
-                this.isUnderlined,
-                this.isSlowBlink,
-                this.isRapidBlink,
-                this.isReverse,
-                this.isHide
-        );
-        String ansiPrefix = AnsiCodeGenerator.getAnsiPrefix(config);
-
-        return new Style(ansiPrefix);
+        return Janis.getStyleCache().get(style, AnsiCodeGenerator.getSgrMode());
+    }
+
+    /**
+     * Sets the foreground RGB color. A basic foreground color that is already set keeps precedence,
+     * matching the precedence {@link AnsiCodeGenerator} applies to a {@link StyleConfig}.
+     *
+     * @param rgb the color packed as {@code 0xRRGGBB}
+     * @return this StyleBuilder for method chaining
+     */
+    private StyleBuilder foregroundRgb(int rgb) {
+        return foreground(PackedStyle.RGB, rgb);
+    }
+
+    /**
+     * Sets the background RGB color. A basic background color that is already set keeps precedence,
+     * matching the precedence {@link AnsiCodeGenerator} applies to a {@link StyleConfig}.
+     *
+     * @param rgb the color packed as {@code 0xRRGGBB}
+     * @return this StyleBuilder for method chaining
+     */
+    private StyleBuilder backgroundRgb(int rgb) {
+        return background(PackedStyle.RGB, rgb);
+    }
+
+    /**
+     * Looks up a CSS named color.
+     *
+     * @param name the color name
+     * @return the color packed as {@code 0xRRGGBB}
+     * @throws IllegalArgumentException if the name is unknown
+     */
+    private static int namedColor(String name) {
+        int rgb = NamedColors.lookup(name);
+        if (rgb < 0) {
+            throw new IllegalArgumentException("Unknown color name. Got: " + name);
+        }
+        return rgb;
+    }
+
+    /**
+     * Sets a non-basic foreground color unless a basic foreground color is already set.
+     *
+     * @param kind  the color kind, {@link PackedStyle#RGB} or {@link PackedStyle#INDEXED}
+     * @param value the color value matching the kind
+     * @return this StyleBuilder for method chaining
+     */
+    private StyleBuilder foreground(int kind, int value) {
+        if (PackedStyle.foregroundKind(this.style) != PackedStyle.BASIC) {
+            this.style = PackedStyle.withForeground(this.style, kind, value);
+        }
+        return this;
+    }
+
+    /**
+     * Sets a non-basic background color unless a basic background color is already set.
+     *
+     * @param kind  the color kind, {@link PackedStyle#RGB} or {@link PackedStyle#INDEXED}
+     * @param value the color value matching the kind
+     * @return this StyleBuilder for method chaining
+     */
+    private StyleBuilder background(int kind, int value) {
+        if (PackedStyle.backgroundKind(this.style) != PackedStyle.BASIC) {
+            this.style = PackedStyle.withBackground(this.style, kind, value);
+        }
+        return this;
+    }
+
+    /**
+     * Enables the given attribute bits.
+     *
+     * @param attribute the attribute bits, see {@link PackedStyle}
+     * @return this StyleBuilder for method chaining
+     */
+    private StyleBuilder attribute(int attribute) {
+        this.style = PackedStyle.withAttributes(this.style, attribute);
+        return this;
     }
 }
@@ -0,0 +1,269 @@
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded, concurrent cache that maps a style configuration to one canonical {@link Style} instance.
+ * Styles built or rendered with the same configuration share the same instance and ANSI prefix,
+ * so the prefix is generated only once per distinct style.
+ *
+ * <p>The cache is split into segments keyed by the packed style. Lookups that hit never lock;
+ * only creating a new entry locks the segment it belongs to. With {@link EvictionPolicy#LRU},
+ * recency is tracked per insertion: entries used since the most recent insertion into their segment
+ * count as equally recent, which keeps hits free of shared counters.</p>
+ *
+ * @see Janis#setStyleCache(StyleCache)
+ */
+public final class StyleCache {
+    /**
+     * The maximum size of the cache Janis uses unless configured otherwise.
+     */
+    public static final int DEFAULT_MAXIMUM_SIZE = 1024;
+
+    private static final int ENTRIES_PER_SEGMENT = 64;
+    private static final int MODE_SHIFT = 60;
+
+    private final int maximumSize;
+    private final EvictionPolicy policy;
+    private final Segment[] segments;
+    private final int segmentMask;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Creates a cache holding at most the given number of styles.
+     *
+     * @param maximumSize the maximum number of cached styles, 0 disables caching
+     * @param policy      the policy choosing which style to discard when the cache is full (must not be null)
+     * @throws IllegalArgumentException if maximumSize is negative
+     * @throws NullPointerException     if policy is null
+     */
+    public StyleCache(int maximumSize, EvictionPolicy policy) {
+        if (maximumSize < 0) {
+            throw new IllegalArgumentException("Maximum size must not be negative. Got: " + maximumSize);
+        }
+        Objects.requireNonNull(policy, "EvictionPolicy cannot be null");
+
+        this.maximumSize = maximumSize;
+        this.policy = policy;
+
+        int segmentCount = 1;
+        while (segmentCount * ENTRIES_PER_SEGMENT < maximumSize) {
+            segmentCount <<= 1;
+        }
+        this.segments = new Segment[segmentCount];
+        this.segmentMask = segmentCount - 1;
+        for (int i = 0; i < segmentCount; i++) {
+            int capacity = maximumSize / segmentCount + (i < maximumSize % segmentCount ? 1 : 0);
+            this.segments[i] = new Segment(capacity);
+        }
+    }
+
+    /**
+     * Returns the maximum number of styles this cache holds.
+     *
+     * @return the maximum size
+     */
+    public int maximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * Returns the policy choosing which style to discard when the cache is full.
+     *
+     * @return the eviction policy
+     */
+    public EvictionPolicy policy() {
+        return policy;
+    }
+
+    /**
+     * Returns the number of styles currently cached.
+     *
+     * @return the current size
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Returns a snapshot of the hit, miss and eviction counters.
+     *
+     * @return the cache statistics
+     */
+    public CacheStats stats() {
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum());
+    }
+
+    /**
+     * Discards every cached style. Statistics are kept.
+     */
+    public void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                Arrays.fill(segment.table, null);
+                segment.size = 0;
+            }
+        }
+    }
+
+    /**
+     * Returns the canonical style for a packed configuration, creating and caching it on first use.
+     *
+     * @param packedStyle the packed style configuration, see {@link PackedStyle}
+     * @param mode        the emission mode the ANSI prefix is generated with
+     * @return the shared Style instance
+     */
+    Style get(long packedStyle, SgrMode mode) {
+        if (maximumSize == 0) {
+            misses.increment();
+            return new Style(packedStyle, mode);
+        }
+
+        // The reserved top bits of a packed style tag the key with the emission mode.
+        long key = packedStyle | ((long) mode.ordinal() << MODE_SHIFT);
+        long hash = key * 0x9E3779B97F4A7C15L;
+        Segment segment = segments[(int) (hash >>> 32) & segmentMask];
+        int slot = (int) hash;
+
+        Entry entry = segment.find(key, slot);
+        if (entry == null) {
+            synchronized (segment) {
+                entry = segment.find(key, slot);
+                if (entry == null) {
+                    misses.increment();
+                    Style style = new Style(packedStyle, mode);
+                    if (segment.size == segment.capacity) {
+                        segment.evict(policy);
+                        evictions.increment();
+                    }
+                    segment.insert(new Entry(key, slot, style, ++segment.ticks));
+                    return style;
+                }
+            }
+        }
+
+        hits.increment();
+        if (policy == EvictionPolicy.LRU) {
+            long stamp = segment.ticks + 1;
+            if (entry.lastUsed != stamp) {
+                entry.lastUsed = stamp;
+            }
+        }
+        return entry.style;
+    }
+
+    /**
+     * A cached style with the bookkeeping used for eviction.
+     */
+    private static final class Entry {
+        final long key;
+        final int slot;
+        final Style style;
+        final long inserted;
+        long lastUsed;
+
+        Entry(long key, int slot, Style style, long inserted) {
+            this.key = key;
+            this.slot = slot;
+            this.style = style;
+            this.inserted = inserted;
+            this.lastUsed = inserted;
+        }
+    }
+
+    /**
+     * Open-addressing hash table holding a fixed share of the cache.
+     * Mutations happen while holding the segment's monitor; lookups read the table without locking
+     * and may miss an entry that is being moved, in which case the caller retries under the lock.
+     */
+    private static final class Segment {
+        final int capacity;
+        final Entry[] table;
+        final int mask;
+        int size;
+        long ticks;
+
+        Segment(int capacity) {
+            this.capacity = capacity;
+            int tableSize = 2;
+            while (tableSize < capacity * 2) {
+                tableSize <<= 1;
+            }
+            this.table = new Entry[tableSize];
+            this.mask = tableSize - 1;
+        }
+
+        Entry find(long key, int slot) {
+            Entry[] table = this.table;
+            for (int probes = 0, i = slot & mask; probes < table.length; probes++, i = (i + 1) & mask) {
+                Entry entry = table[i];
+                if (entry == null) {
+                    return null;
+                }
+                if (entry.key == key) {
+                    return entry;
+                }
+            }
+            return null;
+        }
+
+        void insert(Entry entry) {
+            int i = entry.slot & mask;
+            while (table[i] != null) {
+                i = (i + 1) & mask;
+            }
+            table[i] = entry;
+            size++;
+        }
+
+        void evict(EvictionPolicy policy) {
+            int victim = -1;
+            for (int i = 0; i < table.length; i++) {
+                Entry entry = table[i];
+                if (entry != null && (victim < 0 || isOlder(entry, table[victim], policy))) {
+                    victim = i;
+                }
+            }
+            removeAt(victim);
+        }
+
+        private static boolean isOlder(Entry entry, Entry other, EvictionPolicy policy) {
+            if (policy == EvictionPolicy.LRU && entry.lastUsed != other.lastUsed) {
+                return entry.lastUsed < other.lastUsed;
+            }
+            return entry.inserted < other.inserted;
+        }
+
+        /**
+         * Removes the entry at the given index, shifting later entries of the same probe run back
+         * so that lookups never stop early at the freed slot.
+         */
+        private void removeAt(int hole) {
+            int i = hole;
+            int j = hole;
+            while (true) {
+                j = (j + 1) & mask;
+                Entry entry = table[j];
+                if (entry == null) {
+                    break;
+                }
+                int home = entry.slot & mask;
+                boolean stays = i <= j ? (i < home && home <= j) : (i < home || home <= j);
+                if (!stays) {
+                    table[i] = entry;
+                    i = j;
+                }
+            }
+            table[i] = null;
+            size--;
+        }
+    }
+}
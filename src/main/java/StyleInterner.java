@@ -0,0 +1,91 @@
+import java.util.Arrays;
+
+/**
+ * Assigns small consecutive ids to packed styles in order of first appearance, so that grids of styled
+ * cells can store one int per cell and exporters can number one class per distinct style.
+ *
+ * <p>Ids are found through an open-addressing table keyed by the packed style, so interning does not
+ * box and a repeated style costs one multiplication and usually one probe. Not thread-safe.</p>
+ */
+final class StyleInterner {
+    private long[] keys = new long[64];
+    private int[] slots = new int[64];
+    private long[] styles = new long[16];
+    private int size;
+
+    StyleInterner() {
+        Arrays.fill(slots, -1);
+    }
+
+    /**
+     * Returns the id of a packed style, assigning the next id on first appearance.
+     *
+     * @param style the packed style
+     * @return the id, from 0 in order of first appearance
+     */
+    int intern(long style) {
+        int mask = keys.length - 1;
+        int slot = slot(style, mask);
+        while (slots[slot] >= 0) {
+            if (keys[slot] == style) {
+                return slots[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        int id = size++;
+        keys[slot] = style;
+        slots[slot] = id;
+        if (id == styles.length) {
+            styles = Arrays.copyOf(styles, id * 2);
+        }
+        styles[id] = style;
+        if (size * 2 > keys.length) {
+            rehash();
+        }
+        return id;
+    }
+
+    /**
+     * Returns the packed style with the given id.
+     *
+     * @param id an id returned by {@link #intern(long)}
+     * @return the packed style
+     */
+    long style(int id) {
+        return styles[id];
+    }
+
+    /**
+     * Returns the number of distinct styles interned so far.
+     *
+     * @return the number of ids assigned
+     */
+    int size() {
+        return size;
+    }
+
+    private void rehash() {
+        long[] oldKeys = keys;
+        int[] oldSlots = slots;
+        keys = new long[oldKeys.length * 2];
+        slots = new int[oldKeys.length * 2];
+        Arrays.fill(slots, -1);
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldSlots[i] >= 0) {
+                int slot = slot(oldKeys[i], mask);
+                while (slots[slot] >= 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                slots[slot] = oldSlots[i];
+            }
+        }
+    }
+
+    private static int slot(long style, int mask) {
+        long h = style * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,123 @@
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Parses textual style descriptions such as {@code "bold bright_red on #202020"} into packed styles.
+ * A description is a whitespace-separated list of attribute names, {@link BasicColor} names
+ * (case-insensitive, with {@code -} or {@code _} between words), {@code #RGB}/{@code #RRGGBB} colors
+ * and {@code color(n)} entries of the xterm 256-color palette. A color preceded by {@code on} sets
+ * the background. As with {@link StyleBuilder}, a basic color takes precedence over an RGB or palette
+ * color set for the same ground.
+ */
+final class StyleSpec {
+    private static final Map<String, Integer> ATTRIBUTES = Map.ofEntries(
+            Map.entry("bold", PackedStyle.BOLD),
+            Map.entry("dim", PackedStyle.DIM),
+            Map.entry("italic", PackedStyle.ITALIC),
+            Map.entry("underline", PackedStyle.UNDERLINED),
+            Map.entry("underlined", PackedStyle.UNDERLINED),
+            Map.entry("blink", PackedStyle.SLOW_BLINK),
+            Map.entry("slow_blink", PackedStyle.SLOW_BLINK),
+            Map.entry("rapid_blink", PackedStyle.RAPID_BLINK),
+            Map.entry("reverse", PackedStyle.REVERSE),
+            Map.entry("hide", PackedStyle.HIDE)
+    );
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private StyleSpec() {
+    }
+
+    /**
+     * Parses a range of text as a style description.
+     *
+     * @param spec  the text containing the description
+     * @param start the index of the first character of the description
+     * @param end   the index after the last character of the description
+     * @return the packed style
+     * @throws IllegalArgumentException if a name is unknown or {@code on} is not followed by a color
+     */
+    static long parse(CharSequence spec, int start, int end) {
+        long style = PackedStyle.EMPTY;
+        boolean background = false;
+        int i = start;
+        while (true) {
+            while (i < end && Character.isWhitespace(spec.charAt(i))) {
+                i++;
+            }
+            if (i == end) {
+                break;
+            }
+            int tokenStart = i;
+            while (i < end && !Character.isWhitespace(spec.charAt(i))) {
+                i++;
+            }
+            String token = spec.subSequence(tokenStart, i).toString();
+
+            if (token.equalsIgnoreCase("on")) {
+                if (background) {
+                    throw new IllegalArgumentException("Expected a color after 'on'. Got: " + spec.subSequence(start, end));
+                }
+                background = true;
+                continue;
+            }
+            if (!background) {
+                Integer attribute = ATTRIBUTES.get(token.toLowerCase(Locale.ROOT).replace('-', '_'));
+                if (attribute != null) {
+                    style = PackedStyle.withAttributes(style, attribute);
+                    continue;
+                }
+            }
+            style = withColor(style, token, background);
+            background = false;
+        }
+
+        if (background) {
+            throw new IllegalArgumentException("Expected a color after 'on'. Got: " + spec.subSequence(start, end));
+        }
+        return style;
+    }
+
+    private static long withColor(long style, String token, boolean background) {
+        int kind = background ? PackedStyle.backgroundKind(style) : PackedStyle.foregroundKind(style);
+        if (token.startsWith("#")) {
+            if (kind == PackedStyle.BASIC) {
+                return style;
+            }
+            int rgb = Rgb.parseHex(token);
+            return background
+                    ? PackedStyle.withBackground(style, PackedStyle.RGB, rgb)
+                    : PackedStyle.withForeground(style, PackedStyle.RGB, rgb);
+        }
+        if (token.regionMatches(true, 0, "color(", 0, 6) && token.endsWith(")")) {
+            int index = paletteIndex(token);
+            if (kind == PackedStyle.BASIC) {
+                return style;
+            }
+            return background
+                    ? PackedStyle.withBackground(style, PackedStyle.INDEXED, index)
+                    : PackedStyle.withForeground(style, PackedStyle.INDEXED, index);
+        }
+
+        BasicColor color;
+        try {
+            color = BasicColor.valueOf(token.toUpperCase(Locale.ROOT).replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown style name. Got: " + token, e);
+        }
+        return background
+                ? PackedStyle.withBackground(style, PackedStyle.BASIC, color.ordinal())
+                : PackedStyle.withForeground(style, PackedStyle.BASIC, color.ordinal());
+    }
+
+    private static int paletteIndex(String token) {
+        int index;
+        try {
+            index = Integer.parseInt(token.substring(6, token.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Unknown style name. Got: " + token, e);
+        }
+        return IndexedColor.of(index).index();
+    }
+}
@@ -0,0 +1,138 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Objects;
+
+/**
+ * Lazy view of a styled text as the concatenation of an ANSI prefix, the text and the reset sequence,
+ * returned by {@link Style#applyLazy(CharSequence)} and {@link StyleBuilder#renderLazy()}.
+ * Creating the view copies nothing; {@link #length()}, {@link #charAt(int)} and {@link #subSequence(int, int)}
+ * read through to the three parts. A string is built only when {@link #toString()} is called, and is then
+ * remembered, or the parts are copied straight into a sink with {@link #appendTo(StringBuilder)} or
+ * {@link #writeTo(OutputStream)}.
+ *
+ * <p>This suits output that is often discarded, such as log messages below the enabled level: the
+ * logger only calls {@code toString()} for messages it actually writes.</p>
+ *
+ * <p>The view reads the text when it is consumed, so a mutable text such as a {@link StringBuilder}
+ * must not change until then.</p>
+ */
+public final class StyledCharSequence implements CharSequence {
+    private final String prefix;
+    private final CharSequence text;
+    private final int start;
+    private final int end;
+    private final String suffix;
+    private String string;
+
+    /**
+     * Creates a view of a range of text between a prefix and a suffix.
+     *
+     * @param prefix the characters before the text
+     * @param text   the text containing the range
+     * @param start  the index of the first character of the range
+     * @param end    the index after the last character of the range
+     * @param suffix the characters after the text
+     */
+    StyledCharSequence(String prefix, CharSequence text, int start, int end, String suffix) {
+        this.prefix = prefix;
+        this.text = text;
+        this.start = start;
+        this.end = end;
+        this.suffix = suffix;
+    }
+
+    @Override
+    public int length() {
+        return prefix.length() + (end - start) + suffix.length();
+    }
+
+    @Override
+    public char charAt(int index) {
+        Objects.checkIndex(index, length());
+        if (index < prefix.length()) {
+            return prefix.charAt(index);
+        }
+        index -= prefix.length();
+        if (index < end - start) {
+            return text.charAt(start + index);
+        }
+        return suffix.charAt(index - (end - start));
+    }
+
+    /**
+     * Returns a view of a range of this sequence. The result is again a lazy view that shares the text.
+     *
+     * @param from the index of the first character, inclusive
+     * @param to   the index after the last character, exclusive
+     * @return the view of the range
+     * @throws IndexOutOfBoundsException if the range is not within this sequence
+     */
+    @Override
+    public CharSequence subSequence(int from, int to) {
+        Objects.checkFromToIndex(from, to, length());
+        int textFrom = prefix.length();
+        int textTo = textFrom + (end - start);
+        return new StyledCharSequence(
+                prefix.substring(Math.min(from, textFrom), Math.min(to, textFrom)),
+                text,
+                start + clamp(from - textFrom, end - start),
+                start + clamp(to - textFrom, end - start),
+                suffix.substring(clamp(from - textTo, suffix.length()), clamp(to - textTo, suffix.length())));
+    }
+
+    private static int clamp(int value, int max) {
+        return Math.max(0, Math.min(value, max));
+    }
+
+    /**
+     * Appends the styled text to a caller-owned builder without building an intermediate string.
+     *
+     * @param out the builder to append to (must not be null)
+     * @return the given builder
+     * @throws NullPointerException if out is null
+     */
+    public StringBuilder appendTo(StringBuilder out) {
+        Objects.requireNonNull(out, "out must not be null");
+        if (string != null) {
+            return out.append(string);
+        }
+        out.ensureCapacity(out.length() + length());
+        return out.append(prefix).append(text, start, end).append(suffix);
+    }
+
+    /**
+     * Writes the styled text as UTF-8 to an output stream with a single {@code write} call,
+     * without building an intermediate string.
+     *
+     * @param out the stream to write to (must not be null)
+     * @return the number of bytes written
+     * @throws NullPointerException if out is null
+     * @throws IOException          if the stream fails to write
+     */
+    public int writeTo(OutputStream out) throws IOException {
+        Objects.requireNonNull(out, "out must not be null");
+        byte[] bytes = new byte[Utf8.encodedLength(prefix, 0, prefix.length()) + Utf8.encodedLength(text, start, end)
+                + Utf8.encodedLength(suffix, 0, suffix.length())];
+        int offset = Utf8.encode(prefix, 0, prefix.length(), bytes, 0);
+        offset = Utf8.encode(text, start, end, bytes, offset);
+        Utf8.encode(suffix, 0, suffix.length(), bytes, offset);
+
+        out.write(bytes);
+        return bytes.length;
+    }
+
+    /**
+     * Returns the styled text as a string, building it on the first call only.
+     *
+     * @return the styled text with ANSI escape codes
+     */
+    @Override
+    public String toString() {
+        String result = string;
+        if (result == null) {
+            result = appendTo(new StringBuilder(length())).toString();
+            string = result;
+        }
+        return result;
+    }
+}
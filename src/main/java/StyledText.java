@@ -0,0 +1,363 @@
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Immutable rich text made of segments, each a range of text shown in one style.
+ * Styled texts can be concatenated, nested inside an outer style and cut into substrings
+ * without copying the underlying text, and keep their styles intact across all of these:
+ * unlike nesting the results of {@link Style#apply(String)}, an inner segment does not end the outer style.
+ *
+ * <pre>{@code
+ * StyledText line = StyledText.of(bold, StyledText.of("Build ").concat(StyledText.of(green, "passed")));
+ * System.out.println(line.render());
+ * }</pre>
+ *
+ * <p>When nesting, the inner style is layered on top of the outer one: the attributes of both are combined,
+ * and each color of the inner style replaces the outer one if it is set. A style created from a raw
+ * ANSI prefix cannot be combined and replaces the outer style entirely.</p>
+ *
+ * <p>The escape sequences between segments are computed once when a styled text is created, with the
+ * emission mode current at that time. Rendering then copies sequences and text in a single pass
+ * into an exactly sized output.</p>
+ */
+public final class StyledText {
+    private static final StyledText EMPTY = new StyledText(new String[0], new int[0], new int[0], new Style[0]);
+
+    private final String[] texts;
+    private final int[] starts;
+    private final int[] ends;
+    private final Style[] styles;
+    private final String[] transitions;
+    private final int length;
+    private final int renderedLength;
+    private final int escapeByteLength;
+
+    /**
+     * Creates a styled text from segments and computes the escape sequences between them.
+     * The arrays are owned by the new instance.
+     *
+     * @param texts  the text of each segment
+     * @param starts the index of the first character of each segment in its text
+     * @param ends   the index after the last character of each segment in its text
+     * @param styles the style of each segment, null for unstyled segments
+     */
+    private StyledText(String[] texts, int[] starts, int[] ends, Style[] styles) {
+        this.texts = texts;
+        this.starts = starts;
+        this.ends = ends;
+        this.styles = styles;
+        this.transitions = new String[texts.length + 1];
+
+        StringBuilder escapes = new StringBuilder();
+        SgrRenderer renderer = new SgrRenderer(escapes);
+        int textLength = 0;
+        int escapeLength = 0;
+        int escapeBytes = 0;
+        for (int i = 0; i < texts.length; i++) {
+            if (styles[i] != null) {
+                renderer.transitionTo(styles[i]);
+            } else {
+                renderer.transitionTo(PackedStyle.EMPTY);
+            }
+            transitions[i] = escapes.length() == 0 ? "" : escapes.toString();
+            escapeLength += escapes.length();
+            escapeBytes += Utf8.encodedLength(escapes, 0, escapes.length());
+            escapes.setLength(0);
+            textLength += ends[i] - starts[i];
+        }
+        renderer.finish();
+        transitions[texts.length] = escapes.toString();
+        escapeLength += escapes.length();
+        escapeBytes += Utf8.encodedLength(escapes, 0, escapes.length());
+
+        this.length = textLength;
+        this.renderedLength = textLength + escapeLength;
+        this.escapeByteLength = escapeBytes;
+    }
+
+    /**
+     * Returns a styled text without any segments.
+     *
+     * @return the empty styled text
+     */
+    public static StyledText empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Creates an unstyled text.
+     *
+     * @param text the text (must not be null), copied if it is not a String
+     * @return the styled text with one unstyled segment
+     * @throws NullPointerException if text is null
+     */
+    public static StyledText of(CharSequence text) {
+        Objects.requireNonNull(text, "text must not be null");
+        return segment(null, text.toString());
+    }
+
+    /**
+     * Creates a text shown in one style.
+     *
+     * @param style the style of the text (must not be null)
+     * @param text  the text (must not be null), copied if it is not a String
+     * @return the styled text with one segment
+     * @throws NullPointerException if style or text is null
+     */
+    public static StyledText of(Style style, CharSequence text) {
+        Objects.requireNonNull(style, "style must not be null");
+        Objects.requireNonNull(text, "text must not be null");
+        return segment(style, text.toString());
+    }
+
+    /**
+     * Nests a styled text inside an outer style. Every segment keeps its own style layered on top of
+     * the outer one, and unstyled segments take the outer style.
+     *
+     * @param style   the outer style (must not be null)
+     * @param content the styled text to nest (must not be null)
+     * @return the nested styled text
+     * @throws NullPointerException if style or content is null
+     */
+    public static StyledText of(Style style, StyledText content) {
+        Objects.requireNonNull(style, "style must not be null");
+        Objects.requireNonNull(content, "content must not be null");
+
+        SgrMode mode = AnsiCodeGenerator.getSgrMode();
+        Style[] nested = new Style[content.styles.length];
+        for (int i = 0; i < nested.length; i++) {
+            nested[i] = overlay(style, content.styles[i], mode);
+        }
+        return new StyledText(content.texts, content.starts, content.ends, nested);
+    }
+
+    private static StyledText segment(Style style, String text) {
+        if (text.isEmpty()) {
+            return EMPTY;
+        }
+        return new StyledText(new String[]{text}, new int[]{0}, new int[]{text.length()}, new Style[]{style});
+    }
+
+    private static Style overlay(Style outer, Style inner, SgrMode mode) {
+        if (inner == null) {
+            return outer;
+        }
+        long outerStyle = outer.packedStyle();
+        long innerStyle = inner.packedStyle();
+        if (outerStyle == PackedStyle.UNKNOWN || innerStyle == PackedStyle.UNKNOWN) {
+            return inner;
+        }
+        return Janis.getStyleCache().get(PackedStyle.overlay(outerStyle, innerStyle), mode);
+    }
+
+    /**
+     * Returns a styled text with the segments of the given text appended after the segments of this one.
+     *
+     * @param other the styled text to append (must not be null)
+     * @return the concatenated styled text
+     * @throws NullPointerException if other is null
+     */
+    public StyledText concat(StyledText other) {
+        Objects.requireNonNull(other, "other must not be null");
+        if (other.texts.length == 0) {
+            return this;
+        }
+        if (texts.length == 0) {
+            return other;
+        }
+
+        int count = texts.length + other.texts.length;
+        String[] newTexts = Arrays.copyOf(texts, count);
+        int[] newStarts = Arrays.copyOf(starts, count);
+        int[] newEnds = Arrays.copyOf(ends, count);
+        Style[] newStyles = Arrays.copyOf(styles, count);
+        System.arraycopy(other.texts, 0, newTexts, texts.length, other.texts.length);
+        System.arraycopy(other.starts, 0, newStarts, texts.length, other.texts.length);
+        System.arraycopy(other.ends, 0, newEnds, texts.length, other.texts.length);
+        System.arraycopy(other.styles, 0, newStyles, texts.length, other.texts.length);
+        return new StyledText(newTexts, newStarts, newEnds, newStyles);
+    }
+
+    /**
+     * Returns the styled text between two indices of the visible text, keeping the style of every
+     * character. The underlying text is shared, not copied.
+     *
+     * @param start the index of the first character, inclusive
+     * @param end   the index after the last character, exclusive
+     * @return the styled substring
+     * @throws IndexOutOfBoundsException if the range is not within the visible text
+     */
+    public StyledText substring(int start, int end) {
+        Objects.checkFromToIndex(start, end, length);
+        if (start == 0 && end == length) {
+            return this;
+        }
+        if (start == end) {
+            return EMPTY;
+        }
+
+        int first = 0;
+        int offset = 0;
+        while (offset + segmentLength(first) <= start) {
+            offset += segmentLength(first++);
+        }
+        int firstOffset = offset;
+        int last = first;
+        while (offset + segmentLength(last) < end) {
+            offset += segmentLength(last++);
+        }
+
+        int count = last - first + 1;
+        String[] newTexts = Arrays.copyOfRange(texts, first, last + 1);
+        int[] newStarts = Arrays.copyOfRange(starts, first, last + 1);
+        int[] newEnds = Arrays.copyOfRange(ends, first, last + 1);
+        Style[] newStyles = Arrays.copyOfRange(styles, first, last + 1);
+        newStarts[0] += start - firstOffset;
+        newEnds[count - 1] = starts[last] + (end - offset);
+        return new StyledText(newTexts, newStarts, newEnds, newStyles);
+    }
+
+    private int segmentLength(int segment) {
+        return ends[segment] - starts[segment];
+    }
+
+    /**
+     * Returns the length of the visible text, without escape sequences.
+     *
+     * @return the number of visible characters
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Returns the visible text without any escape sequences.
+     *
+     * @return the plain text
+     */
+    public String plainText() {
+        StringBuilder out = new StringBuilder(length);
+        for (int i = 0; i < texts.length; i++) {
+            out.append(texts[i], starts[i], ends[i]);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Returns the length of the rendered text, including escape sequences.
+     *
+     * @return the number of characters {@link #render()} returns
+     */
+    public int renderedLength() {
+        return renderedLength;
+    }
+
+    /**
+     * Renders the styled text with the minimal escape sequences between segments and a final reset
+     * if a style is active at the end.
+     *
+     * @return the rendered text with ANSI escape codes
+     */
+    public String render() {
+        return render(new StringBuilder(renderedLength)).toString();
+    }
+
+    /**
+     * Renders the styled text into a caller-owned builder, growing it at most once.
+     *
+     * @param out the builder to append to (must not be null)
+     * @return the given builder for method chaining
+     * @throws NullPointerException if out is null
+     */
+    public StringBuilder render(StringBuilder out) {
+        Objects.requireNonNull(out, "out must not be null");
+        out.ensureCapacity(out.length() + renderedLength);
+        for (int i = 0; i < texts.length; i++) {
+            out.append(transitions[i]).append(texts[i], starts[i], ends[i]);
+        }
+        return out.append(transitions[texts.length]);
+    }
+
+    /**
+     * Renders the styled text into a new array of exactly {@link #renderedLength()} characters.
+     *
+     * @return the rendered characters
+     */
+    public char[] toCharArray() {
+        char[] chars = new char[renderedLength];
+        int position = 0;
+        for (int i = 0; i < texts.length; i++) {
+            transitions[i].getChars(0, transitions[i].length(), chars, position);
+            position += transitions[i].length();
+            texts[i].getChars(starts[i], ends[i], chars, position);
+            position += ends[i] - starts[i];
+        }
+        String reset = transitions[texts.length];
+        reset.getChars(0, reset.length(), chars, position);
+        return chars;
+    }
+
+    /**
+     * Renders the styled text as UTF-8 into a new array of exactly the encoded length.
+     *
+     * @return the rendered bytes
+     */
+    public byte[] toBytes() {
+        byte[] bytes = new byte[encodedLength()];
+        int offset = 0;
+        for (int i = 0; i < texts.length; i++) {
+            offset = Utf8.encode(transitions[i], 0, transitions[i].length(), bytes, offset);
+            offset = Utf8.encode(texts[i], starts[i], ends[i], bytes, offset);
+        }
+        String reset = transitions[texts.length];
+        Utf8.encode(reset, 0, reset.length(), bytes, offset);
+        return bytes;
+    }
+
+    /**
+     * Writes the rendered styled text as UTF-8 into a byte buffer.
+     *
+     * @param out the buffer to write to, its position is advanced past the written bytes (must not be null)
+     * @return the number of bytes written
+     * @throws NullPointerException    if out is null
+     * @throws BufferOverflowException if the buffer does not have enough room left, in which case nothing is written
+     */
+    public int writeTo(ByteBuffer out) {
+        Objects.requireNonNull(out, "out must not be null");
+        int encodedLength = encodedLength();
+        if (out.remaining() < encodedLength) {
+            throw new BufferOverflowException();
+        }
+
+        for (int i = 0; i < texts.length; i++) {
+            Utf8.encode(transitions[i], 0, transitions[i].length(), out);
+            Utf8.encode(texts[i], starts[i], ends[i], out);
+        }
+        String reset = transitions[texts.length];
+        Utf8.encode(reset, 0, reset.length(), out);
+        return encodedLength;
+    }
+
+    /**
+     * Returns the UTF-8 length of the rendered text. The escape sequences are measured once on creation.
+     */
+    private int encodedLength() {
+        int encodedLength = escapeByteLength;
+        for (int i = 0; i < texts.length; i++) {
+            encodedLength += Utf8.encodedLength(texts[i], starts[i], ends[i]);
+        }
+        return encodedLength;
+    }
+
+    /**
+     * Returns the rendered text, see {@link #render()}.
+     *
+     * @return the rendered text with ANSI escape codes
+     */
+    @Override
+    public String toString() {
+        return render();
+    }
+}
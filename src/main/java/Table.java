@@ -0,0 +1,435 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Objects;
+
+/**
+ * Lays out rows of styled cells in aligned columns and streams them to any {@link Appendable},
+ * such as a {@link StringBuilder}, a {@link java.io.Writer} or {@link System#out}.
+ *
+ * <pre>{@code
+ * Table table = Table.of("Module", "Status", "Time").align(2, Table.Align.RIGHT).maxWidth(0, 30);
+ * table.render(results, System.out);
+ * }</pre>
+ *
+ * <p>Each {@link Cell} holds raw text and a style and measures its display width once, when it is
+ * created, so laying out a table never strips escape sequences from styled strings. Column widths are
+ * found in a single pass over the rows, and rows are then written one line at a time through one
+ * reused line buffer. The rows are only iterated, never collected: an {@link Iterable} that produces its
+ * rows on demand, for example from a database cursor, is rendered in constant memory however many rows
+ * it has. Columns given a fixed {@link #width(int, int)} are not measured at all, and a table whose
+ * columns all have fixed widths is rendered in one pass over an {@link Iterator}.</p>
+ *
+ * <p>Cells wider than their column are truncated with an ellipsis, shorter cells are padded with
+ * spaces outside their style. Configure a table once, then render it any number of times; configuring
+ * is not thread-safe.</p>
+ */
+public final class Table {
+    private static final String ELLIPSIS = "\u2026";
+    private static final int UNLIMITED = Integer.MAX_VALUE;
+
+    private final Cell[] headers;
+    private final int[] maxWidths;
+    private final boolean[] fixed;
+    private final Align[] aligns;
+    private Style headerStyle;
+    private String separator = "  ";
+    private boolean showHeader = true;
+
+    /**
+     * Horizontal alignment of the text within a column.
+     */
+    public enum Align {
+        /**
+         * Text starts at the left edge of the column.
+         */
+        LEFT,
+        /**
+         * Text ends at the right edge of the column, for numbers.
+         */
+        RIGHT
+    }
+
+    private Table(String[] headers) {
+        this.headers = new Cell[headers.length];
+        for (int i = 0; i < headers.length; i++) {
+            this.headers[i] = Cell.of(Objects.requireNonNull(headers[i], "header must not be null"));
+        }
+        this.maxWidths = new int[headers.length];
+        this.fixed = new boolean[headers.length];
+        this.aligns = new Align[headers.length];
+        Arrays.fill(maxWidths, UNLIMITED);
+        Arrays.fill(aligns, Align.LEFT);
+    }
+
+    /**
+     * Creates a table with one column per header.
+     *
+     * @param headers the column headers, at least one (must not be null)
+     * @return the table
+     * @throws NullPointerException     if headers or one of the headers is null
+     * @throws IllegalArgumentException if there are no headers
+     */
+    public static Table of(String... headers) {
+        Objects.requireNonNull(headers, "headers must not be null");
+        if (headers.length == 0) {
+            throw new IllegalArgumentException("A table needs at least one column. Got: 0");
+        }
+        return new Table(headers);
+    }
+
+    /**
+     * Limits the width of a column. Wider cells are truncated with an ellipsis.
+     *
+     * @param column the index of the column
+     * @param width  the maximum width in terminal columns, at least 1
+     * @return this table for method chaining
+     * @throws IndexOutOfBoundsException if the column does not exist
+     * @throws IllegalArgumentException  if the width is less than 1
+     */
+    public Table maxWidth(int column, int width) {
+        Objects.checkIndex(column, headers.length);
+        maxWidths[column] = checkWidth(width);
+        fixed[column] = false;
+        return this;
+    }
+
+    /**
+     * Gives a column a fixed width. The column is not measured: shorter cells are padded and wider
+     * cells are truncated with an ellipsis.
+     *
+     * @param column the index of the column
+     * @param width  the width in terminal columns, at least 1
+     * @return this table for method chaining
+     * @throws IndexOutOfBoundsException if the column does not exist
+     * @throws IllegalArgumentException  if the width is less than 1
+     */
+    public Table width(int column, int width) {
+        Objects.checkIndex(column, headers.length);
+        maxWidths[column] = checkWidth(width);
+        fixed[column] = true;
+        return this;
+    }
+
+    private static int checkWidth(int width) {
+        if (width < 1) {
+            throw new IllegalArgumentException("Column width must be at least 1. Got: " + width);
+        }
+        return width;
+    }
+
+    /**
+     * Sets the alignment of a column. Columns are left-aligned by default.
+     *
+     * @param column the index of the column
+     * @param align  the alignment (must not be null)
+     * @return this table for method chaining
+     * @throws IndexOutOfBoundsException if the column does not exist
+     * @throws NullPointerException      if align is null
+     */
+    public Table align(int column, Align align) {
+        Objects.checkIndex(column, headers.length);
+        aligns[column] = Objects.requireNonNull(align, "align must not be null");
+        return this;
+    }
+
+    /**
+     * Sets the style of the header line.
+     *
+     * @param style the style of the headers, or null for unstyled headers
+     * @return this table for method chaining
+     */
+    public Table headerStyle(Style style) {
+        this.headerStyle = style;
+        return this;
+    }
+
+    /**
+     * Sets whether the header line is written. Headers still count towards the column widths.
+     *
+     * @param show true to write the header line, which is the default
+     * @return this table for method chaining
+     */
+    public Table showHeader(boolean show) {
+        this.showHeader = show;
+        return this;
+    }
+
+    /**
+     * Sets the text written between columns, two spaces by default.
+     *
+     * @param separator the column separator (must not be null)
+     * @return this table for method chaining
+     * @throws NullPointerException if separator is null
+     */
+    public Table separator(String separator) {
+        this.separator = Objects.requireNonNull(separator, "separator must not be null");
+        return this;
+    }
+
+    /**
+     * Returns the number of columns.
+     *
+     * @return the number of columns
+     */
+    public int columnCount() {
+        return headers.length;
+    }
+
+    /**
+     * Computes the width of every column in one pass over the rows: the widest cell or header, limited
+     * to the maximum width of the column. Columns with a fixed width are not measured.
+     *
+     * @param rows the rows, each with at most one cell per column (must not be null)
+     * @return the width of each column
+     * @throws NullPointerException     if rows is null
+     * @throws IllegalArgumentException if a row has more cells than the table has columns
+     */
+    public int[] columnWidths(Iterable<Cell[]> rows) {
+        Objects.requireNonNull(rows, "rows must not be null");
+        int[] widths = new int[headers.length];
+        boolean measure = false;
+        for (int i = 0; i < widths.length; i++) {
+            widths[i] = fixed[i] ? maxWidths[i] : headers[i].width;
+            measure |= !fixed[i];
+        }
+        if (measure) {
+            for (Cell[] row : rows) {
+                checkRow(row);
+                for (int i = 0; i < row.length; i++) {
+                    Cell cell = row[i];
+                    if (cell != null && !fixed[i] && cell.width > widths[i]) {
+                        widths[i] = cell.width;
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < widths.length; i++) {
+            widths[i] = Math.min(widths[i], maxWidths[i]);
+        }
+        return widths;
+    }
+
+    /**
+     * Renders the table to a string.
+     *
+     * @param rows the rows, each with at most one cell per column (must not be null)
+     * @return the rendered table, one line per row, each ending with a line feed
+     * @throws NullPointerException     if rows is null
+     * @throws IllegalArgumentException if a row has more cells than the table has columns
+     */
+    public String render(Iterable<Cell[]> rows) {
+        StringBuilder out = new StringBuilder();
+        try {
+            render(rows, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Renders the table to a sink. The rows are iterated twice, once to compute the column widths
+     * and once to write them, unless every column has a fixed width.
+     *
+     * @param rows the rows, each with at most one cell per column (must not be null)
+     * @param out  the sink to write to (must not be null)
+     * @throws NullPointerException     if rows or out is null
+     * @throws IllegalArgumentException if a row has more cells than the table has columns
+     * @throws IOException              if the sink fails
+     */
+    public void render(Iterable<Cell[]> rows, Appendable out) throws IOException {
+        Objects.requireNonNull(rows, "rows must not be null");
+        Objects.requireNonNull(out, "out must not be null");
+        render(rows.iterator(), columnWidths(rows), out);
+    }
+
+    /**
+     * Renders rows with known column widths in a single pass, for example rows read from a stream
+     * with widths from {@link #columnWidths(Iterable)} of an earlier export, or rows of a table whose
+     * columns all have fixed widths.
+     *
+     * @param rows   the rows, each with at most one cell per column (must not be null)
+     * @param widths the width of each column (must not be null)
+     * @param out    the sink to write to (must not be null)
+     * @throws NullPointerException     if rows, widths or out is null
+     * @throws IllegalArgumentException if the number of widths does not match the number of columns,
+     *                                  or a row has more cells than the table has columns
+     * @throws IOException              if the sink fails
+     */
+    public void render(Iterator<Cell[]> rows, int[] widths, Appendable out) throws IOException {
+        Objects.requireNonNull(rows, "rows must not be null");
+        Objects.requireNonNull(widths, "widths must not be null");
+        Objects.requireNonNull(out, "out must not be null");
+        if (widths.length != headers.length) {
+            throw new IllegalArgumentException("Expected one width per column (" + headers.length
+                    + " columns). Got: " + widths.length);
+        }
+
+        StringBuilder line = new StringBuilder(128);
+        if (showHeader) {
+            appendRow(line, headers, headerStyle, widths);
+            out.append(line);
+        }
+        while (rows.hasNext()) {
+            Cell[] row = rows.next();
+            checkRow(row);
+            line.setLength(0);
+            appendRow(line, row, null, widths);
+            out.append(line);
+        }
+    }
+
+    private void checkRow(Cell[] row) {
+        Objects.requireNonNull(row, "row must not be null");
+        if (row.length > headers.length) {
+            throw new IllegalArgumentException("Row has more cells than the table has columns ("
+                    + headers.length + "). Got: " + row.length);
+        }
+    }
+
+    /**
+     * Appends one line. Trailing spaces are left out, so empty and left-aligned last columns are not padded.
+     */
+    private void appendRow(StringBuilder line, Cell[] row, Style rowStyle, int[] widths) {
+        int lineStart = line.length();
+        for (int i = 0; i < widths.length; i++) {
+            if (i > 0) {
+                line.append(separator);
+            }
+            Cell cell = i < row.length && row[i] != null ? row[i] : Cell.EMPTY;
+            Style style = cell.style != null ? cell.style : rowStyle;
+            int padding = widths[i] - Math.min(cell.width, widths[i]);
+            if (aligns[i] == Align.RIGHT) {
+                appendSpaces(line, padding);
+            }
+            boolean styled = style != null && style.isColorEnabled() && !cell.text.isEmpty();
+            if (styled) {
+                line.append(style.ansiPrefix());
+            }
+            if (cell.width <= widths[i]) {
+                line.append(cell.text);
+            } else {
+                appendTruncated(line, cell.text, widths[i]);
+            }
+            if (styled) {
+                line.append(AnsiCodeGenerator.RESET);
+            }
+            if (aligns[i] == Align.LEFT) {
+                appendSpaces(line, padding);
+            }
+        }
+
+        int end = line.length();
+        while (end > lineStart && line.charAt(end - 1) == ' ') {
+            end--;
+        }
+        line.setLength(end);
+        line.append('\n');
+    }
+
+    /**
+     * Appends as much of the text as fits in the given width, minus one column for the ellipsis.
+     * A wide character that would only half fit is replaced with a space.
+     */
+    private static void appendTruncated(StringBuilder line, String text, int width) {
+        int budget = width - 1;
+        int used = 0;
+        int i = 0;
+        while (i < text.length()) {
+            int codePoint = text.codePointAt(i);
+            int columns = CharWidth.of(codePoint);
+            if (used + columns > budget) {
+                break;
+            }
+            used += columns;
+            i += Character.charCount(codePoint);
+        }
+        // keep combining marks with the character they belong to
+        while (i < text.length() && CharWidth.of(text.codePointAt(i)) == 0) {
+            i += Character.charCount(text.codePointAt(i));
+        }
+        line.append(text, 0, i);
+        appendSpaces(line, budget - used);
+        line.append(ELLIPSIS);
+    }
+
+    private static void appendSpaces(StringBuilder line, int count) {
+        for (int i = 0; i < count; i++) {
+            line.append(' ');
+        }
+    }
+
+    /**
+     * One cell of a table: raw text, the style it is shown in, and its display width,
+     * measured once when the cell is created.
+     */
+    public static final class Cell {
+        private static final Cell EMPTY = new Cell("", null, 0);
+
+        private final String text;
+        private final Style style;
+        private final int width;
+
+        private Cell(String text, Style style, int width) {
+            this.text = text;
+            this.style = style;
+            this.width = width;
+        }
+
+        /**
+         * Creates an unstyled cell.
+         *
+         * @param text the text of the cell, a single line without escape sequences (must not be null)
+         * @return the cell
+         * @throws NullPointerException if text is null
+         */
+        public static Cell of(String text) {
+            return of(null, text);
+        }
+
+        /**
+         * Creates a styled cell.
+         *
+         * @param style the style of the text, or null for unstyled text
+         * @param text  the text of the cell, a single line without escape sequences (must not be null)
+         * @return the cell
+         * @throws NullPointerException if text is null
+         */
+        public static Cell of(Style style, String text) {
+            Objects.requireNonNull(text, "text must not be null");
+            if (text.isEmpty() && style == null) {
+                return EMPTY;
+            }
+            return new Cell(text, style, AnsiText.visibleWidth(text));
+        }
+
+        /**
+         * Returns the text of this cell.
+         *
+         * @return the raw text
+         */
+        public String text() {
+            return text;
+        }
+
+        /**
+         * Returns the style of this cell.
+         *
+         * @return the style, or null if the cell is unstyled
+         */
+        public Style style() {
+            return style;
+        }
+
+        /**
+         * Returns the number of terminal columns the text of this cell occupies.
+         *
+         * @return the display width
+         */
+        public int width() {
+            return width;
+        }
+    }
+}
@@ -0,0 +1,267 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Compiled line format made of literal text and styled slots, created with
+ * {@link Janis#template(String, Style...)} or from inline markup with {@link Janis#markup(String)}.
+ * Everything except the slot values is known when the template is compiled, so the literal text and all
+ * escape sequences between slots are joined into static parts, stored both as strings and as pre-encoded
+ * UTF-8. Rendering only measures the slot values, sizes the output exactly once and copies parts and
+ * values into it.
+ *
+ * <pre>{@code
+ * Template line = Janis.template("[{}] {} - {}", levelStyle, threadStyle, null);
+ * String text = line.render("INFO", threadName, message);
+ * }</pre>
+ *
+ * <p>As in SLF4J patterns, {@code \{}} stands for a literal {@code {}} and {@code \\{}} for a literal
+ * backslash followed by a slot. Other backslashes are kept as they are.</p>
+ *
+ * <p>Templates are immutable and can be shared between threads.</p>
+ */
+public final class Template {
+    private static final String SLOT = "{}";
+    private static final char ESCAPE = '\\';
+
+    private final SgrMode mode;
+    private final ColorDepth depth;
+    private final boolean colorEnabled;
+    private final String[] parts;
+    private final byte[][] partBytes;
+    private final int staticLength;
+    private final int staticByteLength;
+
+    /**
+     * Compiles a pattern into a template.
+     *
+     * @param pattern    the pattern, with {@code {}} marking each slot and {@code \{}} a literal {@code {}}
+     * @param slotStyles the style of each slot in order, null for an unstyled slot
+     * @param mode       the emission mode used for the escape sequences
+     * @return the compiled template
+     * @throws IllegalArgumentException if the number of styles does not match the number of slots
+     */
+    static Template compile(String pattern, Style[] slotStyles, SgrMode mode) {
+        List<Part> parts = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int from = 0;
+        int slots = 0;
+        for (int slot = pattern.indexOf(SLOT); slot >= 0; slot = pattern.indexOf(SLOT, from)) {
+            boolean escaped = slot > 0 && pattern.charAt(slot - 1) == ESCAPE;
+            if (escaped && (slot == 1 || pattern.charAt(slot - 2) != ESCAPE)) {
+                // \{} is a literal {}
+                literal.append(pattern, from, slot - 1).append(SLOT);
+            } else {
+                // \\{} is a literal backslash followed by a slot
+                literal.append(pattern, from, escaped ? slot - 1 : slot);
+                parts.add(new Part(literal.toString(), null));
+                literal.setLength(0);
+                parts.add(new Part(null, slots < slotStyles.length ? slotStyles[slots] : null));
+                slots++;
+            }
+            from = slot + SLOT.length();
+        }
+        parts.add(new Part(literal.append(pattern, from, pattern.length()).toString(), null));
+
+        if (slots != slotStyles.length) {
+            throw new IllegalArgumentException("Expected one style per slot (" + slots + " slots). Got: "
+                    + slotStyles.length);
+        }
+        return new Template(parts, mode);
+    }
+
+    /**
+     * Compiles a sequence of styled literals and slots into a template.
+     *
+     * @param program the literals and slots in order
+     * @param mode    the emission mode used for the escape sequences
+     */
+    Template(List<Part> program, SgrMode mode) {
+        List<String> statics = new ArrayList<>();
+        StringBuilder part = new StringBuilder();
+        SgrRenderer renderer = new SgrRenderer(part, mode);
+        for (Part step : program) {
+            if (step.literal() != null && step.literal().isEmpty()) {
+                continue;
+            }
+            if (step.style() != null) {
+                renderer.transitionTo(step.style());
+            } else {
+                renderer.transitionTo(PackedStyle.EMPTY);
+            }
+            if (step.literal() != null) {
+                part.append(step.literal());
+            } else {
+                statics.add(part.toString());
+                part.setLength(0);
+            }
+        }
+        renderer.finish();
+        statics.add(part.toString());
+
+        this.mode = mode;
+        this.depth = AnsiCodeGenerator.getColorDepth();
+        this.colorEnabled = ColorSupport.isEnabled();
+        this.parts = statics.toArray(new String[0]);
+        this.partBytes = new byte[parts.length][];
+        int length = 0;
+        int byteLength = 0;
+        for (int i = 0; i < parts.length; i++) {
+            partBytes[i] = parts[i].getBytes(StandardCharsets.UTF_8);
+            length += parts[i].length();
+            byteLength += partBytes[i].length;
+        }
+        this.staticLength = length;
+        this.staticByteLength = byteLength;
+    }
+
+    /**
+     * Returns the number of slots, which is the number of values every render call takes.
+     *
+     * @return the slot count
+     */
+    public int slotCount() {
+        return parts.length - 1;
+    }
+
+    /**
+     * Renders the template with the given slot values into a new string.
+     *
+     * @param values one value per slot, in order (must not be null)
+     * @return the rendered text with ANSI escape codes
+     * @throws NullPointerException     if values or any value is null
+     * @throws IllegalArgumentException if the number of values does not match the number of slots
+     */
+    public String render(CharSequence... values) {
+        int length = checkValues(values);
+        return appendTo(new StringBuilder(length), values).toString();
+    }
+
+    /**
+     * Renders the template with the given slot values into a caller-owned builder,
+     * growing it at most once.
+     *
+     * @param out    the builder to append to (must not be null)
+     * @param values one value per slot, in order (must not be null)
+     * @return the given builder for method chaining
+     * @throws NullPointerException     if out, values or any value is null
+     * @throws IllegalArgumentException if the number of values does not match the number of slots
+     */
+    public StringBuilder render(StringBuilder out, CharSequence... values) {
+        Objects.requireNonNull(out, "out must not be null");
+        int length = checkValues(values);
+        out.ensureCapacity(out.length() + length);
+        return appendTo(out, values);
+    }
+
+    /**
+     * Writes the template rendered with the given slot values as UTF-8 into a byte buffer.
+     * The static parts are copied pre-encoded, and the values are encoded straight into the buffer.
+     *
+     * @param out    the buffer to write to, its position is advanced past the written bytes (must not be null)
+     * @param values one value per slot, in order (must not be null)
+     * @return the number of bytes written
+     * @throws NullPointerException     if out, values or any value is null
+     * @throws IllegalArgumentException if the number of values does not match the number of slots
+     * @throws BufferOverflowException  if the buffer does not have enough room left, in which case nothing is written
+     */
+    public int writeTo(ByteBuffer out, CharSequence... values) {
+        Objects.requireNonNull(out, "out must not be null");
+        checkValues(values);
+
+        int length = encodedLength(values);
+        if (out.remaining() < length) {
+            throw new BufferOverflowException();
+        }
+
+        for (int i = 0; i < values.length; i++) {
+            out.put(partBytes[i]);
+            Utf8.encode(values[i], 0, values[i].length(), out);
+        }
+        out.put(partBytes[values.length]);
+        return length;
+    }
+
+    /**
+     * Writes the template rendered with the given slot values as UTF-8 to an output stream
+     * with a single {@code write} call.
+     *
+     * @param out    the stream to write to (must not be null)
+     * @param values one value per slot, in order (must not be null)
+     * @return the number of bytes written
+     * @throws NullPointerException     if out, values or any value is null
+     * @throws IllegalArgumentException if the number of values does not match the number of slots
+     * @throws IOException              if the stream fails to write
+     */
+    public int writeTo(OutputStream out, CharSequence... values) throws IOException {
+        Objects.requireNonNull(out, "out must not be null");
+        checkValues(values);
+
+        byte[] bytes = new byte[encodedLength(values)];
+        int offset = 0;
+        for (int i = 0; i < values.length; i++) {
+            System.arraycopy(partBytes[i], 0, bytes, offset, partBytes[i].length);
+            offset = Utf8.encode(values[i], 0, values[i].length(), bytes, offset + partBytes[i].length);
+        }
+        System.arraycopy(partBytes[values.length], 0, bytes, offset, partBytes[values.length].length);
+
+        out.write(bytes);
+        return bytes.length;
+    }
+
+    /**
+     * Returns whether the escape sequences of this template match the current global settings: the
+     * emission mode and color depth it was compiled with are the current ones, and color was enabled
+     * at compile time exactly when it is enabled now.
+     *
+     * @return true if rendering this template gives the same output as compiling it again
+     */
+    boolean isCurrent() {
+        return mode == AnsiCodeGenerator.getSgrMode() && depth == AnsiCodeGenerator.getColorDepth()
+                && colorEnabled == ColorSupport.isEnabled();
+    }
+
+    /**
+     * Validates the slot values and returns the rendered length in chars.
+     */
+    private int checkValues(CharSequence[] values) {
+        Objects.requireNonNull(values, "values must not be null");
+        if (values.length != slotCount()) {
+            throw new IllegalArgumentException("Expected " + slotCount() + " values. Got: " + values.length);
+        }
+
+        int length = staticLength;
+        for (CharSequence value : values) {
+            Objects.requireNonNull(value, "value must not be null");
+            length += value.length();
+        }
+        return length;
+    }
+
+    private int encodedLength(CharSequence[] values) {
+        int length = staticByteLength;
+        for (CharSequence value : values) {
+            length += Utf8.encodedLength(value, 0, value.length());
+        }
+        return length;
+    }
+
+    private StringBuilder appendTo(StringBuilder out, CharSequence[] values) {
+        for (int i = 0; i < values.length; i++) {
+            out.append(parts[i]).append(values[i]);
+        }
+        return out.append(parts[values.length]);
+    }
+
+    /**
+     * One step of a template program: a literal shown in a style, or a slot when the literal is null.
+     * A null style stands for unstyled output.
+     */
+    record Part(String literal, Style style) {
+    }
+}
@@ -0,0 +1,245 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A set of named styles loaded from a theme file and compiled once into a table of prebuilt
+ * {@link Style} objects. Each name is given an integer id, so the hot path can look a style up
+ * with a single array access instead of building it again:
+ *
+ * <pre>{@code
+ * Theme theme = Theme.load(Path.of("janis.theme"));
+ * int error = theme.id("level.error");
+ * System.out.println(theme.style(error).apply("failed"));
+ * }</pre>
+ *
+ * <p>A theme file has one {@code name = style} entry per line, where the style is a description such as
+ * {@code bold bright_red on #202020}, see {@link Janis#markup(String)}. {@code :} may be used instead of
+ * {@code =}, the style may be written in double quotes, and lines starting with {@code #}, {@code !} or
+ * {@code ;} are comments. A {@code [section]} line prefixes the names that follow it with
+ * {@code section.}, as in a TOML table:</p>
+ *
+ * <pre>
+ * [level]
+ * error = bold bright_red
+ * warn  = "yellow"
+ * </pre>
+ *
+ * <p>{@link #reload()} reads the file again and replaces the whole table in one step, so concurrent
+ * lookups never lock and always see either the old or the new table. Ids stay valid across reloads:
+ * a name keeps its id, new names get new ids, and a name removed from the file resolves to an unstyled style.</p>
+ */
+public final class Theme {
+    private final Path file;
+    private volatile Table table;
+
+    private Theme(Path file, Table table) {
+        this.file = file;
+        this.table = table;
+    }
+
+    /**
+     * Loads and compiles a theme file. The file is read as UTF-8.
+     *
+     * @param file the theme file (must not be null)
+     * @return the compiled theme, which can be reloaded from the file
+     * @throws NullPointerException     if file is null
+     * @throws IOException              if the file cannot be read
+     * @throws IllegalArgumentException if a line is malformed or describes an invalid style
+     */
+    public static Theme load(Path file) throws IOException {
+        Objects.requireNonNull(file, "file must not be null");
+        return new Theme(file, compile(Files.readString(file, StandardCharsets.UTF_8), Map.of()));
+    }
+
+    /**
+     * Compiles a theme from text in the theme file format.
+     *
+     * @param text the theme definition (must not be null)
+     * @return the compiled theme, which cannot be reloaded
+     * @throws NullPointerException     if text is null
+     * @throws IllegalArgumentException if a line is malformed or describes an invalid style
+     */
+    public static Theme parse(String text) {
+        Objects.requireNonNull(text, "text must not be null");
+        return new Theme(null, compile(text, Map.of()));
+    }
+
+    /**
+     * Reads the theme file again and atomically replaces the compiled table. If the file cannot be read
+     * or is invalid, the current table is kept.
+     *
+     * @throws IllegalStateException    if the theme was not loaded from a file
+     * @throws IOException              if the file cannot be read
+     * @throws IllegalArgumentException if a line is malformed or describes an invalid style
+     */
+    public synchronized void reload() throws IOException {
+        if (file == null) {
+            throw new IllegalStateException("reload() can only be called on a theme loaded from a file.");
+        }
+        table = compile(Files.readString(file, StandardCharsets.UTF_8), table.ids);
+    }
+
+    /**
+     * Returns the id of a named style, for use with {@link #style(int)}. Resolve ids once, for example
+     * into static fields, and keep them: they remain valid after {@link #reload()}.
+     *
+     * @param name the style name, including its section prefix (must not be null)
+     * @return the id of the style
+     * @throws NullPointerException     if name is null
+     * @throws IllegalArgumentException if the theme has never defined the name
+     */
+    public int id(String name) {
+        Objects.requireNonNull(name, "name must not be null");
+        Integer id = table.ids.get(name);
+        if (id == null) {
+            throw new IllegalArgumentException("Unknown theme style. Got: " + name);
+        }
+        return id;
+    }
+
+    /**
+     * Returns whether the theme currently defines a named style.
+     *
+     * @param name the style name, including its section prefix (must not be null)
+     * @return true if the current table defines the name
+     * @throws NullPointerException if name is null
+     */
+    public boolean contains(String name) {
+        Objects.requireNonNull(name, "name must not be null");
+        Table current = table;
+        Integer id = current.ids.get(name);
+        return id != null && current.defined[id];
+    }
+
+    /**
+     * Returns the style with the given id with a single array access.
+     *
+     * @param id the id returned by {@link #id(String)}
+     * @return the prebuilt style
+     * @throws IndexOutOfBoundsException if the id was not returned by this theme
+     */
+    public Style style(int id) {
+        return table.styles[id];
+    }
+
+    /**
+     * Returns a named style. The name's hash code is cached by the string, so looking up a constant
+     * name costs one hash table probe.
+     *
+     * @param name the style name, including its section prefix (must not be null)
+     * @return the prebuilt style
+     * @throws NullPointerException     if name is null
+     * @throws IllegalArgumentException if the theme has never defined the name
+     */
+    public Style style(String name) {
+        Objects.requireNonNull(name, "name must not be null");
+        Table current = table;
+        Integer id = current.ids.get(name);
+        if (id == null) {
+            throw new IllegalArgumentException("Unknown theme style. Got: " + name);
+        }
+        return current.styles[id];
+    }
+
+    /**
+     * Returns the number of ids this theme has handed out, including those of names that were removed
+     * by a reload.
+     *
+     * @return the size of the style table
+     */
+    public int size() {
+        return table.styles.length;
+    }
+
+    /**
+     * Parses a theme definition and builds its style table. Names already present in the previous ids
+     * keep their id; names missing from the definition keep their id with an unstyled style.
+     */
+    private static Table compile(String text, Map<String, Integer> previousIds) {
+        Map<String, Integer> ids = new HashMap<>(previousIds);
+        Map<Integer, Long> packed = new HashMap<>();
+        String section = "";
+
+        String[] lines = text.split("\r?\n|\r", -1);
+        for (int number = 1; number <= lines.length; number++) {
+            String line = lines[number - 1].strip();
+            if (line.isEmpty() || line.startsWith("#") || line.startsWith("!") || line.startsWith(";")) {
+                continue;
+            }
+            if (line.startsWith("[")) {
+                if (!line.endsWith("]")) {
+                    throw new IllegalArgumentException("Invalid theme section at line " + number + ". Got: " + line);
+                }
+                String name = line.substring(1, line.length() - 1).strip();
+                section = name.isEmpty() ? "" : name + ".";
+                continue;
+            }
+
+            int separator = separatorIndex(line);
+            String key = separator < 0 ? "" : line.substring(0, separator).strip();
+            if (key.isEmpty() || key.chars().anyMatch(Character::isWhitespace)) {
+                throw new IllegalArgumentException("Invalid theme entry at line " + number + ". Got: " + line);
+            }
+            String name = section + key;
+            String spec = unquote(line.substring(separator + 1).strip());
+
+            long style;
+            try {
+                style = StyleSpec.parse(spec, 0, spec.length());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid style for '" + name + "' at line " + number
+                        + ". Got: " + spec, e);
+            }
+
+            Integer id = ids.computeIfAbsent(name, ignored -> ids.size());
+            if (packed.putIfAbsent(id, style) != null) {
+                throw new IllegalArgumentException("Duplicate theme style at line " + number + ". Got: " + name);
+            }
+        }
+
+        SgrMode mode = AnsiCodeGenerator.getSgrMode();
+        StyleCache cache = Janis.getStyleCache();
+        Style[] styles = new Style[ids.size()];
+        boolean[] defined = new boolean[styles.length];
+        Style unstyled = cache.get(PackedStyle.EMPTY, mode);
+        Arrays.fill(styles, unstyled);
+        for (Map.Entry<Integer, Long> entry : packed.entrySet()) {
+            styles[entry.getKey()] = cache.get(entry.getValue(), mode);
+            defined[entry.getKey()] = true;
+        }
+        return new Table(styles, defined, Map.copyOf(ids));
+    }
+
+    private static int separatorIndex(String line) {
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '=' || c == ':') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String unquote(String value) {
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            return value.substring(1, value.length() - 1);
+        }
+        return value;
+    }
+
+    /**
+     * One compiled generation of the theme. Replaced as a whole on reload.
+     *
+     * @param styles  the prebuilt style of each id
+     * @param defined whether each id is defined by this generation
+     * @param ids     the id of each name ever defined
+     */
+    private record Table(Style[] styles, boolean[] defined, Map<String, Integer> ids) {
+    }
+}
@@ -0,0 +1,141 @@
+import java.nio.ByteBuffer;
+
+/**
+ * Encodes character sequences as UTF-8 directly into byte arrays and buffers,
+ * without an intermediate {@link String} or a {@link java.nio.charset.CharsetEncoder}.
+ * ASCII text, the common case for terminal output, is copied with a single comparison per character.
+ * Unpaired surrogates are replaced with {@code '?'}, as {@link String#getBytes(java.nio.charset.Charset)} does.
+ */
+final class Utf8 {
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private Utf8() {
+    }
+
+    /**
+     * Returns the number of bytes needed to encode a range of characters.
+     *
+     * @param text  the text containing the range
+     * @param start the index of the first character
+     * @param end   the index after the last character
+     * @return the UTF-8 length of the range in bytes
+     */
+    static int encodedLength(CharSequence text, int start, int end) {
+        int length = end - start;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                continue;
+            }
+            if (c < 0x800) {
+                length += 1;
+            } else if (!Character.isSurrogate(c)) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(text.charAt(i + 1))) {
+                // two chars become four bytes
+                length += 2;
+                i++;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Encodes a range of characters into a byte array.
+     * The array must have room for {@link #encodedLength(CharSequence, int, int)} bytes.
+     *
+     * @param text   the text containing the range
+     * @param start  the index of the first character
+     * @param end    the index after the last character
+     * @param dst    the array to write to
+     * @param offset the index in the array to start writing at
+     * @return the index in the array after the last byte written
+     */
+    static int encode(CharSequence text, int start, int end, byte[] dst, int offset) {
+        int i = start;
+        while (i < end) {
+            char c = text.charAt(i);
+            if (c >= 0x80) {
+                break;
+            }
+            dst[offset++] = (byte) c;
+            i++;
+        }
+
+        while (i < end) {
+            char c = text.charAt(i++);
+            if (c < 0x80) {
+                dst[offset++] = (byte) c;
+            } else if (c < 0x800) {
+                dst[offset++] = (byte) (0xC0 | (c >> 6));
+                dst[offset++] = (byte) (0x80 | (c & 0x3F));
+            } else if (!Character.isSurrogate(c)) {
+                dst[offset++] = (byte) (0xE0 | (c >> 12));
+                dst[offset++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                dst[offset++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i < end && Character.isLowSurrogate(text.charAt(i))) {
+                int codePoint = Character.toCodePoint(c, text.charAt(i++));
+                dst[offset++] = (byte) (0xF0 | (codePoint >> 18));
+                dst[offset++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                dst[offset++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                dst[offset++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else {
+                dst[offset++] = '?';
+            }
+        }
+        return offset;
+    }
+
+    /**
+     * Encodes a range of characters into a buffer, advancing its position.
+     * The buffer must have {@link #encodedLength(CharSequence, int, int)} bytes remaining.
+     *
+     * @param text  the text containing the range
+     * @param start the index of the first character
+     * @param end   the index after the last character
+     * @param out   the buffer to write to
+     */
+    static void encode(CharSequence text, int start, int end, ByteBuffer out) {
+        if (out.hasArray()) {
+            int offset = out.arrayOffset() + out.position();
+            int written = encode(text, start, end, out.array(), offset) - offset;
+            out.position(out.position() + written);
+            return;
+        }
+
+        int position = out.position();
+        int i = start;
+        while (i < end) {
+            char c = text.charAt(i);
+            if (c >= 0x80) {
+                break;
+            }
+            out.put(position++, (byte) c);
+            i++;
+        }
+        out.position(position);
+
+        while (i < end) {
+            char c = text.charAt(i++);
+            if (c < 0x80) {
+                out.put((byte) c);
+            } else if (c < 0x800) {
+                out.put((byte) (0xC0 | (c >> 6)));
+                out.put((byte) (0x80 | (c & 0x3F)));
+            } else if (!Character.isSurrogate(c)) {
+                out.put((byte) (0xE0 | (c >> 12)));
+                out.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                out.put((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i < end && Character.isLowSurrogate(text.charAt(i))) {
+                int codePoint = Character.toCodePoint(c, text.charAt(i++));
+                out.put((byte) (0xF0 | (codePoint >> 18)));
+                out.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                out.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                out.put((byte) (0x80 | (codePoint & 0x3F)));
+            } else {
+                out.put((byte) '?');
+            }
+        }
+    }
+}
@@ -1,6 +1,11 @@
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 class AnsiCodeGeneratorTest {
@@ -231,8 +236,8 @@ class AnsiCodeGeneratorTest {
     }
 
     @Test
-    @DisplayName("Test with multiple attributes")
-    void multipleAttributes() {
+    @DisplayName("Test with multiple attributes in separate mode")
+    void multipleAttributesSeparate() {
         StyleConfig config = new StyleConfig(
                 BasicColor.CYAN, null,
                 null, new Rgb(0, 150, 200),
@@ -241,7 +246,88 @@ class AnsiCodeGeneratorTest {
                 false, false,
                 true, false
         );
-        String ansiCode = AnsiCodeGenerator.getAnsiPrefix(config);
+        String ansiCode = AnsiCodeGenerator.getAnsiPrefix(config, SgrMode.SEPARATE);
         assertEquals("\u001b[36m\u001b[48;2;0;150;200m\u001b[1m\u001b[3m\u001b[7m", ansiCode);
     }
+
+    @Test
+    @DisplayName("Test with multiple attributes in combined mode")
+    void multipleAttributesCombined() {
+        StyleConfig config = new StyleConfig(
+                BasicColor.CYAN, null,
+                null, new Rgb(0, 150, 200),
+                true, false,
+                true, false,
+                false, false,
+                true, false
+        );
+        String ansiCode = AnsiCodeGenerator.getAnsiPrefix(config, SgrMode.COMBINED);
+        assertEquals("\u001b[1;3;7;36;48;2;0;150;200m", ansiCode);
+    }
+
+    @Test
+    @DisplayName("Test with RGB colors on both layers and attributes in combined mode")
+    void rgbOnRgbCombined() {
+        StyleConfig config = new StyleConfig(
+                null, new Rgb(255, 100, 50),
+                null, new Rgb(0, 0, 9),
+                true, false,
+                true, true,
+                false, false,
+                false, false
+        );
+        String ansiCode = AnsiCodeGenerator.getAnsiPrefix(config, SgrMode.COMBINED);
+        assertEquals("\u001b[1;3;4;38;2;255;100;50;48;2;0;0;9m", ansiCode);
+    }
+
+    @Test
+    @DisplayName("Test combined mode carries the same parameters as separate mode")
+    void combinedEquivalentToSeparate() {
+        BasicColor[] basicColors = {null, BasicColor.RED, BasicColor.BRIGHT_WHITE};
+        Rgb[] rgbColors = {null, new Rgb(0, 0, 0), new Rgb(255, 128, 7)};
+
+        for (int attributes = 0; attributes < 256; attributes++) {
+            for (BasicColor basic : basicColors) {
+                for (Rgb rgb : rgbColors) {
+                    StyleConfig config = new StyleConfig(
+                            basic, rgb,
+                            basicColors[attributes % 3], rgbColors[(attributes / 3) % 3],
+                            (attributes & 1) != 0, (attributes & 2) != 0,
+                            (attributes & 4) != 0, (attributes & 8) != 0,
+                            (attributes & 16) != 0, (attributes & 32) != 0,
+                            (attributes & 64) != 0, (attributes & 128) != 0
+                    );
+                    String separate = AnsiCodeGenerator.getAnsiPrefix(config, SgrMode.SEPARATE);
+                    String combined = AnsiCodeGenerator.getAnsiPrefix(config, SgrMode.COMBINED);
+
+                    assertEquals(sortedParameters(separate), sortedParameters(combined));
+                    assertEquals(combined.length(), AnsiCodeGenerator.getAnsiPrefixLength(config, SgrMode.COMBINED));
+                    assertEquals(separate.length(), AnsiCodeGenerator.getAnsiPrefixLength(config, SgrMode.SEPARATE));
+                }
+            }
+        }
+    }
+
+    /**
+     * Splits escape sequences into their parameters, keeping multi-part color parameters together.
+     */
+    private static List<String> sortedParameters(String sequences) {
+        List<String> parameters = new ArrayList<>();
+        for (String sequence : sequences.split("\u001b\\[")) {
+            if (sequence.isEmpty()) {
+                continue;
+            }
+            String[] parts = sequence.substring(0, sequence.length() - 1).split(";");
+            for (int i = 0; i < parts.length; i++) {
+                if (parts[i].equals("38") || parts[i].equals("48")) {
+                    parameters.add(String.join(";", Arrays.copyOfRange(parts, i, i + 5)));
+                    i += 4;
+                } else {
+                    parameters.add(parts[i]);
+                }
+            }
+        }
+        Collections.sort(parameters);
+        return parameters;
+    }
 }
\ No newline at end of file
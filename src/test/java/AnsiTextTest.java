@@ -0,0 +1,82 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnsiTextTest {
+
+    @Test
+    @DisplayName("Test SGR, other CSI, OSC hyperlink and two-character sequences are stripped")
+    void strip() {
+        String styled = Janis.style().bold().color(BasicColor.RED).build().apply("error") + ": "
+                + "\u001b]8;;https://example.com\u001b\\link\u001b]8;;\u0007 \u001b[2Kdone\u001b7";
+        assertEquals("error: link done", AnsiText.strip(styled));
+        assertEquals("error: link done", AnsiText.strip(new StringBuilder(styled)));
+        assertEquals("> error: link done", AnsiText.strip(styled, new StringBuilder("> ")).toString());
+    }
+
+    @Test
+    @DisplayName("Test text without escape sequences is returned as is")
+    void stripPlain() {
+        String plain = "nothing to strip";
+        assertSame(plain, AnsiText.strip(plain));
+        assertEquals("", AnsiText.strip(""));
+        assertEquals("cut", AnsiText.strip("cut\u001b[38;2;1"));
+        assertEquals("cut", AnsiText.strip("cut\u001b"));
+    }
+
+    @Test
+    @DisplayName("Test UTF-8 buffers are stripped across word boundaries and in place")
+    void stripBytes() {
+        StringBuilder text = new StringBuilder();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            text.append("\u001b[3").append(i % 8).append("mline \u00e9 ").append(i).append("\u001b[0m\n");
+            expected.append("line \u00e9 ").append(i).append('\n');
+        }
+        byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+        assertEquals(expected.toString(), new String(AnsiText.strip(bytes), StandardCharsets.UTF_8));
+
+        int length = AnsiText.strip(bytes, 0, bytes.length, bytes, 0);
+        assertEquals(expected.toString(), new String(bytes, 0, length, StandardCharsets.UTF_8));
+        assertThrows(IndexOutOfBoundsException.class, () -> AnsiText.strip(bytes, 1, bytes.length, bytes, 0));
+    }
+
+    @Test
+    @DisplayName("Test the visible width ignores escapes and counts wide and zero-width characters")
+    void visibleWidth() {
+        assertEquals(5, AnsiText.visibleWidth(Janis.of("hello").bold().render()));
+        assertEquals(4, AnsiText.visibleWidth("\u001b[31m\u65e5\u672c\u001b[0m"));
+        assertEquals(1, AnsiText.visibleWidth("e\u0301"));
+        assertEquals(2, AnsiText.visibleWidth("\ud83d\ude00"));
+        assertEquals(4, AnsiText.visibleWidth("\ud83d\udc69\u200d\ud83d\udcbb"));
+        assertEquals(2, AnsiText.visibleWidth("\uff21"));
+        assertEquals(0, AnsiText.visibleWidth("\t\n"));
+        assertEquals(3, AnsiText.visibleWidth("[\u001b[1mab\u001b[0m]", 1, 12));
+    }
+
+    @Test
+    @DisplayName("Test code point widths from the lookup table")
+    void width() {
+        assertEquals(1, AnsiText.width('a'));
+        assertEquals(1, AnsiText.width(0x00E9));
+        assertEquals(0, AnsiText.width(0x0300));
+        assertEquals(0, AnsiText.width(0x200B));
+        assertEquals(2, AnsiText.width(0x1100));
+        assertEquals(0, AnsiText.width(0x1160));
+        assertEquals(2, AnsiText.width(0x3000));
+        assertEquals(1, AnsiText.width(0x303F));
+        assertEquals(2, AnsiText.width(0xAC00));
+        assertEquals(1, AnsiText.width(0xD7A4));
+        assertEquals(0, AnsiText.width(0xD7B0));
+        assertEquals(0, AnsiText.width(0xD7C6));
+        assertEquals(1, AnsiText.width(0xD7C7));
+        assertEquals(0, AnsiText.width(0xD7CB));
+        assertEquals(0, AnsiText.width(0xD7FB));
+        assertEquals(2, AnsiText.visibleWidth("\u1100\uD7B0\uD7CB"));
+        assertEquals(2, AnsiText.width(0x20000));
+        assertEquals(1, AnsiText.width(0x0410));
+    }
+}
@@ -0,0 +1,176 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncJanisWriterTest {
+
+    private static final Style RED = Janis.style().color(BasicColor.RED).build();
+
+    /**
+     * Collects output and can hold the writer thread inside a write until released.
+     */
+    private static final class GatedStream extends OutputStream {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch gate;
+
+        GatedStream(boolean open) {
+            this.gate = new CountDownLatch(open ? 0 : 1);
+        }
+
+        @Override
+        public void write(int b) {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) {
+            entered.countDown();
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            bytes.write(b, off, len);
+        }
+
+        synchronized String text() {
+            return bytes.toString(StandardCharsets.UTF_8);
+        }
+    }
+
+    private static JanisWriter target(OutputStream stream) {
+        return new JanisWriter(stream, 1024, Duration.ofHours(1), false);
+    }
+
+    @Test
+    @DisplayName("Test segments are written in order with minimal transitions")
+    void writesInOrder() throws IOException {
+        GatedStream stream = new GatedStream(true);
+        AsyncJanisWriter writer = new AsyncJanisWriter(target(stream), 16, BackpressurePolicy.BLOCK);
+
+        writer.print(RED, "a").print(RED, "b").println(" plain");
+        writer.println(RED, "c");
+        writer.flush();
+        assertEquals("\u001b[31mab\u001b[0m plain\n\u001b[31mc\u001b[0m\n", stream.text());
+        writer.close();
+    }
+
+    @Test
+    @DisplayName("Test many producers lose no lines when blocking")
+    void blockingProducers() throws Exception {
+        GatedStream stream = new GatedStream(true);
+        AsyncJanisWriter writer = new AsyncJanisWriter(target(stream), 8, BackpressurePolicy.BLOCK);
+        int producers = 4;
+        int lines = 2_000;
+
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            String name = "p" + p;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < lines; i++) {
+                    writer.println(RED, name + ":" + i);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        writer.close();
+
+        String[] written = stream.text().split("\n");
+        assertEquals(producers * lines, written.length);
+        int[] next = new int[producers];
+        for (String line : written) {
+            String body = line.substring("\u001b[31m".length(), line.length() - "\u001b[0m".length());
+            int producer = body.charAt(1) - '0';
+            assertEquals("p" + producer + ":" + next[producer]++, body);
+        }
+        assertEquals(0, writer.droppedCount());
+    }
+
+    @Test
+    @DisplayName("Test a full queue drops segments with the DROP policy")
+    void dropsWhenFull() throws Exception {
+        GatedStream stream = new GatedStream(false);
+        AsyncJanisWriter writer = new AsyncJanisWriter(target(stream), 4, BackpressurePolicy.DROP);
+
+        writer.println("first");
+        stream.entered.await();
+        for (int i = 0; i < 10; i++) {
+            writer.println("line " + i);
+        }
+        assertEquals(6, writer.droppedCount());
+
+        stream.gate.countDown();
+        writer.close();
+        assertEquals("first\nline 0\nline 1\nline 2\nline 3\n", stream.text());
+    }
+
+    @Test
+    @DisplayName("Test a full queue spills segments to a file with the SPILL policy")
+    void spillsWhenFull(@TempDir Path directory) throws Exception {
+        Path spillFile = directory.resolve("spill.log");
+        GatedStream stream = new GatedStream(false);
+        AsyncJanisWriter writer = new AsyncJanisWriter(target(stream), 2, spillFile);
+        assertEquals(BackpressurePolicy.SPILL, writer.policy());
+
+        writer.println("first");
+        stream.entered.await();
+        for (int i = 0; i < 4; i++) {
+            writer.println(RED, "line " + i);
+        }
+        assertEquals(2, writer.spilledCount());
+
+        stream.gate.countDown();
+        writer.close();
+        assertEquals("first\n\u001b[31mline 0\u001b[0m\n\u001b[31mline 1\u001b[0m\n", stream.text());
+        assertEquals("\u001b[31mline 2\u001b[0m\n\u001b[31mline 3\u001b[0m\n",
+                Files.readString(spillFile, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Test invalid configurations and use after close are rejected")
+    void rejectsInvalidUse() throws IOException {
+        JanisWriter target = target(new ByteArrayOutputStream());
+        assertThrows(IllegalArgumentException.class, () -> new AsyncJanisWriter(target, 0, BackpressurePolicy.BLOCK));
+        assertThrows(IllegalArgumentException.class, () -> new AsyncJanisWriter(target, 4, BackpressurePolicy.SPILL));
+        assertThrows(NullPointerException.class, () -> new AsyncJanisWriter(target, 4, (BackpressurePolicy) null));
+
+        AsyncJanisWriter writer = new AsyncJanisWriter(target, 4, BackpressurePolicy.BLOCK);
+        writer.close();
+        writer.close();
+        assertThrows(IllegalStateException.class, () -> writer.println("late"));
+        assertThrows(IOException.class, writer::flush);
+    }
+
+    @Test
+    @DisplayName("Test write failures are reported on close")
+    void reportsFailures() {
+        OutputStream failing = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("disk full");
+            }
+        };
+        AsyncJanisWriter writer = new AsyncJanisWriter(target(failing), 4, BackpressurePolicy.BLOCK);
+        writer.println("lost");
+        IOException e = assertThrows(IOException.class, writer::close);
+        assertEquals("disk full", e.getCause().getMessage());
+    }
+}
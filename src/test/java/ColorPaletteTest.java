@@ -0,0 +1,86 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColorPaletteTest {
+
+    @AfterEach
+    void restore() {
+        Janis.setColorDepth(ColorDepth.TRUECOLOR);
+    }
+
+    @Test
+    @DisplayName("Test palette entries have the xterm colors")
+    void paletteColors() {
+        assertEquals(0xCD0000, ColorPalette.xterm256Rgb(1));
+        assertEquals(0x000000, ColorPalette.xterm256Rgb(16));
+        assertEquals(0xFF8700, ColorPalette.xterm256Rgb(208));
+        assertEquals(0xFFFFFF, ColorPalette.xterm256Rgb(231));
+        assertEquals(0x080808, ColorPalette.xterm256Rgb(232));
+        assertEquals(0xEEEEEE, ColorPalette.xterm256Rgb(255));
+    }
+
+    @Test
+    @DisplayName("Test palette colors map to an entry within one RGB555 cell of them")
+    void exactMatches() {
+        for (int index = 16; index < 256; index++) {
+            int rgb = ColorPalette.xterm256Rgb(index);
+            int mapped = ColorPalette.toXterm256(rgb);
+            // a cell spans 8 levels per channel, so the match may be off by that much
+            assertTrue(ColorPalette.distance(rgb, ColorPalette.xterm256Rgb(mapped)) <= 8 * 8 * 9,
+                    "index " + index + " mapped to " + mapped);
+        }
+        assertEquals(208, ColorPalette.toXterm256(0xFF8700));
+        assertEquals(196, ColorPalette.toXterm256(0xFF0000));
+    }
+
+    @Test
+    @DisplayName("Test colors map to the nearest basic color")
+    void basicColors() {
+        assertEquals(BasicColor.BRIGHT_RED.ordinal(), ColorPalette.toBasic(0xFF0000));
+        assertEquals(BasicColor.BLACK.ordinal(), ColorPalette.toBasic(0x101010));
+        assertEquals(BasicColor.BRIGHT_WHITE.ordinal(), ColorPalette.toBasic(0xFAFAFA));
+        assertEquals(BasicColor.BLUE.ordinal(), ColorPalette.toBasic(0x0000E0));
+    }
+
+    @Test
+    @DisplayName("Test downsampling keeps attributes and colors the depth can show")
+    void downsample() {
+        long style = PackedStyle.withAttributes(
+                PackedStyle.withBackground(PackedStyle.withForeground(PackedStyle.EMPTY, PackedStyle.RGB, 0xFF8700),
+                        PackedStyle.BASIC, BasicColor.BLUE.ordinal()), PackedStyle.BOLD);
+
+        assertEquals(style, ColorPalette.downsample(style, ColorDepth.TRUECOLOR));
+        long xterm = ColorPalette.downsample(style, ColorDepth.XTERM_256);
+        assertEquals(PackedStyle.INDEXED, PackedStyle.foregroundKind(xterm));
+        assertEquals(208, PackedStyle.foreground(xterm));
+        assertEquals(PackedStyle.BASIC, PackedStyle.backgroundKind(xterm));
+        assertEquals(PackedStyle.BOLD, PackedStyle.attributes(xterm));
+
+        long basic = ColorPalette.downsample(xterm, ColorDepth.ANSI_16);
+        assertEquals(PackedStyle.BASIC, PackedStyle.foregroundKind(basic));
+        assertEquals(PackedStyle.UNKNOWN, ColorPalette.downsample(PackedStyle.UNKNOWN, ColorDepth.ANSI_16));
+    }
+
+    @Test
+    @DisplayName("Test styles emit the reduced colors at the configured depth")
+    void styles() {
+        Style orange = Janis.style().rgb(255, 135, 0).bgRgb(255, 0, 0).build();
+        assertEquals("\u001b[38;2;255;135;0;48;2;255;0;0mx\u001b[0m", orange.apply("x"));
+
+        Janis.setColorDepth(ColorDepth.XTERM_256);
+        assertEquals(ColorDepth.XTERM_256, Janis.getColorDepth());
+        assertEquals("\u001b[38;5;208;48;5;196mx\u001b[0m", orange.apply("x"));
+        assertEquals("\u001b[38;5;208m", AnsiCodeGenerator.getAnsiPrefix(
+                new StyleConfig(null, new Rgb(255, 135, 0), null, null, false, false, false, false, false, false,
+                        false, false)));
+
+        Janis.setColorDepth(ColorDepth.ANSI_16);
+        assertEquals("\u001b[1;91mx\u001b[0m", Janis.of("x").rgb(255, 0, 0).bold().render());
+        assertEquals("\u001b[91ma\u001b[92mb\u001b[0m", new SgrRenderer(new StringBuilder())
+                .append(Janis.style().rgb(255, 0, 0).build(), "a")
+                .append(Janis.style().rgb(0, 255, 0).build(), "b").finish().out().toString());
+    }
+}
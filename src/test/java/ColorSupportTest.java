@@ -0,0 +1,80 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColorSupportTest {
+
+    private static final Style RED = Janis.style().color(BasicColor.RED).build();
+
+    @AfterEach
+    void restore() {
+        Janis.setColorMode(ColorMode.ALWAYS);
+    }
+
+    @Test
+    @DisplayName("Test the environment conventions decide whether color is enabled")
+    void detect() {
+        assertTrue(ColorSupport.detect(Map.of(), true));
+        assertFalse(ColorSupport.detect(Map.of(), false));
+        assertFalse(ColorSupport.detect(Map.of("NO_COLOR", "1"), true));
+        assertTrue(ColorSupport.detect(Map.of("NO_COLOR", ""), true));
+        assertFalse(ColorSupport.detect(Map.of("TERM", "dumb"), true));
+        assertTrue(ColorSupport.detect(Map.of("TERM", "xterm-256color"), true));
+        assertTrue(ColorSupport.detect(Map.of("FORCE_COLOR", "1"), false));
+        assertTrue(ColorSupport.detect(Map.of("CLICOLOR_FORCE", "1", "TERM", "dumb"), false));
+        assertFalse(ColorSupport.detect(Map.of("FORCE_COLOR", "0"), false));
+        assertFalse(ColorSupport.detect(Map.of("NO_COLOR", "1", "FORCE_COLOR", "1"), true));
+    }
+
+    @Test
+    @DisplayName("Test the system property value selects the initial mode")
+    void initialMode() {
+        assertEquals(ColorMode.ALWAYS, ColorSupport.initialMode("always"));
+        assertEquals(ColorMode.NEVER, ColorSupport.initialMode(" Never "));
+        assertEquals(ColorMode.AUTO, ColorSupport.initialMode("sometimes"));
+        assertEquals(ColorMode.AUTO, ColorSupport.initialMode(null));
+    }
+
+    @Test
+    @DisplayName("Test disabled color returns the text unchanged")
+    void disabled() throws IOException {
+        Janis.setColorMode(ColorMode.NEVER);
+        assertEquals(ColorMode.NEVER, Janis.getColorMode());
+        assertFalse(Janis.isColorEnabled());
+
+        String text = "plain";
+        assertSame(text, RED.apply(text));
+        assertSame(text, Janis.of(text).color(BasicColor.RED).render());
+        assertEquals("plain", RED.apply(text, new StringBuilder()).toString());
+        assertEquals("plain", RED.applyLazy(text).toString());
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        assertEquals(5, RED.writeTo(stream, text));
+        assertEquals("plain", stream.toString());
+
+        assertEquals("a b", new SgrRenderer(new StringBuilder()).append(RED, "a").append(" b").finish().out().toString());
+    }
+
+    @Test
+    @DisplayName("Test a style can override the global color mode")
+    void perStyleOverride() {
+        Style forced = RED.withColorMode(ColorMode.ALWAYS);
+        Style plain = RED.withColorMode(ColorMode.NEVER);
+        assertSame(RED, RED.withColorMode(ColorMode.AUTO));
+        assertEquals(ColorMode.ALWAYS, forced.getColorMode());
+
+        Janis.setColorMode(ColorMode.NEVER);
+        assertEquals("\u001b[31mx\u001b[0m", forced.apply("x"));
+        assertEquals("x", RED.apply("x"));
+
+        Janis.setColorMode(ColorMode.ALWAYS);
+        assertEquals("x", plain.apply("x"));
+        assertEquals("\u001b[31mx\u001b[0m", RED.apply("x"));
+    }
+}
@@ -0,0 +1,120 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GradientTest {
+
+    @AfterEach
+    void restoreDepth() {
+        Janis.setColorDepth(ColorDepth.TRUECOLOR);
+    }
+
+    private static int count(String text, String part) {
+        int count = 0;
+        for (int i = text.indexOf(part); i >= 0; i = text.indexOf(part, i + 1)) {
+            count++;
+        }
+        return count;
+    }
+
+    @Test
+    @DisplayName("Test colors are interpolated linearly between evenly spaced stops")
+    void colorAt() {
+        Gradient gradient = Gradient.of("#000000", "#FF0000", "#FFFFFF");
+        assertEquals(0x000000, gradient.colorAt(0));
+        assertEquals(0x800000, gradient.colorAt(0.25));
+        assertEquals(0xFF0000, gradient.colorAt(0.5));
+        assertEquals(0xFF8080, gradient.colorAt(0.75));
+        assertEquals(0xFFFFFF, gradient.colorAt(1));
+        assertEquals(0xFFFFFF, gradient.colorAt(2));
+        assertEquals(0x000000, gradient.colorAt(-1));
+    }
+
+    @Test
+    @DisplayName("Test perceptual interpolation passes through linear light")
+    void perceptual() {
+        Gradient gradient = Gradient.ofRgb(0x000000, 0xFFFFFF).perceptual();
+        // half of the linear light is sRGB 188, not 128
+        assertEquals(0xBCBCBC, gradient.colorAt(0.5));
+        assertEquals(0x000000, gradient.colorAt(0));
+        assertEquals(0xFFFFFF, gradient.colorAt(1));
+        Gradient red = Gradient.ofRgb(0xFF0000, 0x00FF00).perceptual();
+        assertEquals(0xBCBC00, red.colorAt(0.5));
+    }
+
+    @Test
+    @DisplayName("Test each changed color is emitted without a reset between glyphs")
+    void apply() {
+        String result = Gradient.of("#FF0000", "#0000FF").apply("abc");
+        assertEquals("\u001B[38;2;255;0;0ma\u001B[38;2;128;0;128mb\u001B[38;2;0;0;255mc\u001B[0m", result);
+    }
+
+    @Test
+    @DisplayName("Test glyphs with equal colors share one escape sequence")
+    void mergesEqualColors() {
+        String text = "x".repeat(200);
+        String result = Gradient.of("#000000", "#000010").apply(text);
+        assertEquals(17, count(result, "\u001B[38;2;"));
+        assertEquals(1, count(result, "\u001B[0m"));
+        assertEquals(text, AnsiText.strip(result));
+    }
+
+    @Test
+    @DisplayName("Test colors are merged after reduction to the color depth")
+    void mergesQuantizedColors() {
+        Janis.setColorDepth(ColorDepth.ANSI_16);
+        String result = Gradient.of("#FF0000", "#EE0000").apply("y".repeat(50));
+        assertEquals("\u001B[91m" + "y".repeat(50) + "\u001B[0m", result);
+
+        Janis.setColorDepth(ColorDepth.XTERM_256);
+        String wide = Gradient.of("#000000", "#FFFFFF").apply("z".repeat(1000));
+        assertTrue(count(wide, "\u001B[38;5;") <= 30);
+    }
+
+    @Test
+    @DisplayName("Test whitespace keeps the current color of a foreground gradient")
+    void skipsWhitespace() {
+        String result = Gradient.of("#FF0000", "#0000FF").apply("a  c");
+        assertEquals("\u001B[38;2;255;0;0ma  \u001B[38;2;0;0;255mc\u001B[0m", result);
+    }
+
+    @Test
+    @DisplayName("Test background gradients color every character")
+    void background() {
+        String result = Gradient.of("#FF0000", "#0000FF").background().apply("   ");
+        assertEquals("\u001B[48;2;255;0;0m \u001B[48;2;128;0;128m \u001B[48;2;0;0;255m \u001B[0m", result);
+    }
+
+    @Test
+    @DisplayName("Test surrogate pairs count as one glyph")
+    void surrogatePairs() {
+        String result = Gradient.of("#FF0000", "#0000FF").apply("\ud83d\ude00\ud83d\ude00");
+        assertEquals("\u001B[38;2;255;0;0m\ud83d\ude00\u001B[38;2;0;0;255m\ud83d\ude00\u001B[0m", result);
+    }
+
+    @Test
+    @DisplayName("Test empty text and a single glyph")
+    void shortText() {
+        Gradient gradient = Gradient.of("#FF0000", "#0000FF");
+        assertEquals("", gradient.apply(""));
+        assertEquals("\u001B[38;2;255;0;0mx\u001B[0m", gradient.apply("x"));
+        StringBuilder out = new StringBuilder("> ");
+        assertSame(out, gradient.apply("x", out));
+        assertEquals("> \u001B[38;2;255;0;0mx\u001B[0m", out.toString());
+    }
+
+    @Test
+    @DisplayName("Test invalid stops are rejected")
+    void invalidStops() {
+        IllegalArgumentException one = assertThrows(IllegalArgumentException.class, () -> Gradient.of("#FFF"));
+        assertEquals("A gradient needs at least two colors. Got: 1", one.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> Gradient.of("#FFF", "red"));
+        IllegalArgumentException range = assertThrows(IllegalArgumentException.class,
+                () -> Gradient.ofRgb(0, 0x1000000));
+        assertEquals("RGB color must be in the range 0x000000-0xFFFFFF. Got: 0x1000000", range.getMessage());
+        assertThrows(NullPointerException.class, () -> Gradient.of("#FFF", null));
+        assertThrows(NullPointerException.class, () -> Gradient.of("#FFF", "#000").apply(null));
+    }
+}
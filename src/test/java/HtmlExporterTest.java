@@ -0,0 +1,132 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HtmlExporterTest {
+
+    @TempDir
+    Path directory;
+
+    private String export(String log) throws IOException {
+        Path input = directory.resolve("build.log");
+        Path output = directory.resolve("build.html");
+        Files.writeString(input, log, StandardCharsets.UTF_8);
+        HtmlExporter.export(input, output);
+        return Files.readString(output, StandardCharsets.UTF_8);
+    }
+
+    private static String body(String html) {
+        int start = html.indexOf("<pre class=\"janis\">") + "<pre class=\"janis\">".length();
+        return html.substring(start, html.indexOf("</pre>"));
+    }
+
+    @Test
+    @DisplayName("Test plain text is written inside the page with HTML special characters escaped")
+    void escapesText() throws IOException {
+        String html = export("if (a < b && c > d) say(\"hi\")\n");
+        assertTrue(html.startsWith("<!DOCTYPE html>"));
+        assertEquals("if (a &lt; b &amp;&amp; c &gt; d) say(&quot;hi&quot;)\n", body(html));
+        assertTrue(html.endsWith("</html>\n"));
+    }
+
+    @Test
+    @DisplayName("Test styled runs are wrapped in spans and equal styles share one class")
+    void deduplicatesClasses() throws IOException {
+        String html = export("\u001b[1;31mERROR\u001b[0m one \u001b[31m\u001b[1mERROR\u001b[m two \u001b[32mok\u001b[0m");
+        assertEquals("<span class=\"s0\">ERROR</span> one <span class=\"s0\">ERROR</span> two "
+                + "<span class=\"s1\">ok</span>", body(html));
+        assertTrue(html.contains(".janis .s0 { color: #cd0000; font-weight: bold; }"));
+        assertTrue(html.contains(".janis .s1 { color: #00cd00; }"));
+        assertFalse(html.contains(".janis .s2"));
+    }
+
+    @Test
+    @DisplayName("Test the number of distinct styles is returned")
+    void returnsClassCount() throws IOException {
+        Path input = directory.resolve("in.log");
+        Files.writeString(input, "\u001b[4mu\u001b[0m \u001b[7mr\u001b[0m \u001b[4mu\u001b[0m");
+        assertEquals(2, HtmlExporter.export(input, directory.resolve("out.html")));
+    }
+
+    @Test
+    @DisplayName("Test class numbers with several digits are written in full")
+    void manyClasses() throws IOException {
+        StringBuilder log = new StringBuilder();
+        for (int i = 0; i < 120; i++) {
+            log.append("\u001b[38;5;").append(i).append("m<").append(i).append('>');
+        }
+        String body = body(export(log.toString()));
+        assertTrue(body.startsWith("<span class=\"s0\">&lt;0&gt;</span><span class=\"s1\">"));
+        assertTrue(body.endsWith("<span class=\"s119\">&lt;119&gt;</span>"));
+        assertTrue(body.contains("<span class=\"s10\">&lt;10&gt;</span><span class=\"s11\">"));
+    }
+
+    @Test
+    @DisplayName("Test RGB, palette, reversed and hidden styles are converted to CSS")
+    void convertsColorsAndAttributes() throws IOException {
+        String html = export("\u001b[38;2;255;128;0;48;5;21ma\u001b[0m\u001b[7mb\u001b[0m\u001b[3;4;5;8mc\u001b[0m");
+        assertTrue(html.contains(".janis .s0 { color: #ff8000; background: #0000ff; }"));
+        assertTrue(html.contains(".janis .s1 { color: #1e1e1e; background: #d4d4d4; }"));
+        assertTrue(html.contains(".janis .s2 { font-style: italic; text-decoration: underline blink;"
+                + " visibility: hidden; }"));
+    }
+
+    @Test
+    @DisplayName("Test UTF-8 text and non-SGR sequences are handled")
+    void passesThroughUtf8() throws IOException {
+        String html = export("\u001b]8;;https://example.com\u0007caf\u00e9 \u001b[2K\u001b[36m\u4e16\u754c\u001b[0m");
+        assertEquals("caf\u00e9 <span class=\"s0\">\u4e16\u754c</span>", body(html));
+    }
+
+    @Test
+    @DisplayName("Test output larger than the output buffer is written completely")
+    void writesLargeOutput() throws IOException {
+        StringBuilder log = new StringBuilder();
+        for (int i = 0; log.length() < 3 * HtmlExporter.OUTPUT_BUFFER_SIZE; i++) {
+            log.append("\u001b[3").append(i % 8).append("mline ").append(i).append(" <\u001b[0m\n");
+        }
+        String html = export(log.toString());
+        assertEquals(log.toString().split("\n").length, body(html).split("\n").length);
+        assertTrue(html.endsWith("</html>\n"));
+        assertTrue(html.contains(".janis .s7 {"));
+        assertFalse(html.contains(".janis .s8 {"));
+        assertEquals(-1, body(html).indexOf('<', body(html).lastIndexOf("</span>") + 7));
+    }
+
+    @Test
+    @DisplayName("Test exporting to a channel leaves the channel open")
+    void exportsToChannel() throws IOException {
+        Path input = directory.resolve("in.log");
+        Files.writeString(input, "\u001b[1mbold\u001b[0m");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        WritableByteChannel channel = Channels.newChannel(bytes);
+        assertEquals(1, HtmlExporter.export(input, channel));
+        assertTrue(channel.isOpen());
+        assertTrue(bytes.toString(StandardCharsets.UTF_8).contains("<span class=\"s0\">bold</span>"));
+    }
+
+    @Test
+    @DisplayName("Test an empty file gives an empty page")
+    void exportsEmptyFile() throws IOException {
+        assertEquals("", body(export("")));
+    }
+
+    @Test
+    @DisplayName("Test null arguments are rejected")
+    void rejectsNull() {
+        Path path = directory.resolve("x");
+        assertThrows(NullPointerException.class, () -> HtmlExporter.export(null, path));
+        assertThrows(NullPointerException.class, () -> HtmlExporter.export(path, (Path) null));
+        assertThrows(NullPointerException.class, () -> HtmlExporter.export(path, (WritableByteChannel) null));
+    }
+}
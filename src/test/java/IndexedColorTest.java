@@ -0,0 +1,54 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndexedColorTest {
+
+    @Test
+    @DisplayName("Test palette colors use the 38;5;n and 48;5;n forms")
+    void escapeCodes() {
+        assertEquals("\u001b[38;5;208m", IndexedColor.of(208).getAnsiCode(false));
+        assertEquals("\u001b[48;5;0m", IndexedColor.of(0).getAnsiCode(true));
+        assertEquals("38;5;255", IndexedColor.of(255).getSgrParameters(false));
+        assertArrayEquals("\u001b[48;5;17m".getBytes(StandardCharsets.US_ASCII),
+                IndexedColor.of(17).getAnsiCodeBytes(true));
+    }
+
+    @Test
+    @DisplayName("Test there is one shared instance per palette index")
+    void sharedInstances() {
+        assertSame(IndexedColor.of(42), IndexedColor.of(42));
+        assertEquals(42, IndexedColor.of(42).index());
+    }
+
+    @Test
+    @DisplayName("Test indices outside the palette are rejected")
+    void invalidIndex() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> IndexedColor.of(256));
+        assertEquals("Palette index must be in the range 0-255. Got: 256", e.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> IndexedColor.of(-1));
+        assertThrows(IllegalArgumentException.class, () -> Janis.style().color256(300));
+        assertThrows(IllegalArgumentException.class, () -> Janis.style().bgColor256(-5));
+    }
+
+    @Test
+    @DisplayName("Test styles with a single palette color share the prebuilt sequence")
+    void sharedStylePrefix() {
+        Style style = Janis.style().color256(208).build();
+        assertSame(IndexedColor.of(208).getAnsiCode(false), style.ansiPrefix());
+        assertSame(IndexedColor.of(208).getAnsiCodeBytes(false), style.ansiPrefixBytes());
+        assertEquals("\u001b[48;5;22mx\u001b[0m", Janis.of("x").bgColor256(22).render());
+    }
+
+    @Test
+    @DisplayName("Test palette colors combine with attributes and keep basic color precedence")
+    void combined() {
+        assertEquals("\u001b[1;38;5;208;48;5;236mx\u001b[0m",
+                Janis.of("x").bold().color256(208).bgColor256(236).render());
+        assertEquals("\u001b[31mx\u001b[0m", Janis.of("x").color(BasicColor.RED).color256(208).render());
+        assertEquals("\u001b[38;5;208mx\u001b[0m", Janis.of("x").rgb(1, 2, 3).color256(208).render());
+    }
+}
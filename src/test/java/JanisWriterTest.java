@@ -0,0 +1,184 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JanisWriterTest {
+
+    private static final Style RED = Janis.style().color(BasicColor.RED).build();
+    private static final Style RED_BOLD = Janis.style().color(BasicColor.RED).bold().build();
+
+    /**
+     * Records every write call the writer makes.
+     */
+    private static final class RecordingStream extends OutputStream {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final List<Integer> writes = new ArrayList<>();
+        int flushes;
+
+        @Override
+        public void write(int b) {
+            writes.add(1);
+            bytes.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            writes.add(len);
+            bytes.write(b, off, len);
+        }
+
+        @Override
+        public void flush() {
+            flushes++;
+        }
+
+        String text() {
+            return bytes.toString(StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    @DisplayName("Test segments are merged and buffered until flush")
+    void mergesAndBuffers() throws IOException {
+        RecordingStream stream = new RecordingStream();
+        JanisWriter writer = new JanisWriter(stream, 1024, Duration.ofHours(1), false);
+
+        writer.write(RED, "a").write(RED, "b").write(RED_BOLD, "c").write(" plain").newLine();
+        writer.write("no style").newLine();
+        assertTrue(stream.writes.isEmpty());
+
+        writer.flush();
+        assertEquals(List.of(stream.bytes.size()), stream.writes);
+        assertEquals("\u001b[31mab\u001b[1mc\u001b[0m plain\nno style\n", stream.text());
+    }
+
+    @Test
+    @DisplayName("Test a styled line ends with a reset before the line break")
+    void resetsBeforeNewLine() throws IOException {
+        RecordingStream stream = new RecordingStream();
+        try (JanisWriter writer = new JanisWriter(stream)) {
+            writer.println(RED_BOLD, "error").println(RED_BOLD, "again");
+        }
+        assertEquals("\u001b[1;31merror\u001b[0m\n\u001b[1;31magain\u001b[0m\n", stream.text());
+    }
+
+    @Test
+    @DisplayName("Test line flushing writes each line")
+    void flushOnNewLine() throws IOException {
+        RecordingStream stream = new RecordingStream();
+        JanisWriter writer = new JanisWriter(stream, 1024, Duration.ofHours(1), true);
+
+        writer.write(RED, "one").newLine();
+        assertEquals(1, stream.writes.size());
+        assertEquals(1, stream.flushes);
+    }
+
+    @Test
+    @DisplayName("Test zero delay flushes every segment")
+    void timeThreshold() throws IOException {
+        RecordingStream stream = new RecordingStream();
+        JanisWriter writer = new JanisWriter(stream, 1024, Duration.ZERO, false);
+
+        writer.write(RED, "one").write(RED, "two");
+        assertEquals(2, stream.writes.size());
+        assertEquals("\u001b[31monetwo", stream.text());
+    }
+
+    @Test
+    @DisplayName("Test text larger than the buffer is written in chunks")
+    void largeText() throws IOException {
+        RecordingStream stream = new RecordingStream();
+        String text = "\u00e9\ud83d\ude80x".repeat(1000);
+
+        try (JanisWriter writer = new JanisWriter(stream, 16, Duration.ofHours(1), false)) {
+            writer.write(Janis.style().rgb(1, 2, 3).bgRgb(4, 5, 6).bold().italic().build(), text);
+        }
+
+        assertEquals("\u001b[1;3;38;2;1;2;3;48;2;4;5;6m" + text + "\u001b[0m", stream.text());
+        assertTrue(stream.writes.stream().allMatch(length -> length <= 16));
+    }
+
+    @Test
+    @DisplayName("Test writing to a channel")
+    void channel() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (JanisWriter writer = new JanisWriter(Channels.newChannel(bytes))) {
+            writer.write(RED, "ch").write(RED, "annel");
+        }
+        assertEquals("\u001b[31mchannel\u001b[0m", bytes.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Test a failed channel write keeps the unsent bytes queued")
+    void failedChannelWrite() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        WritableByteChannel channel = new WritableByteChannel() {
+            private boolean failed;
+
+            @Override
+            public int write(ByteBuffer src) throws IOException {
+                if (!failed) {
+                    failed = true;
+                    for (int i = 0; i < 3; i++) {
+                        bytes.write(src.get());
+                    }
+                    throw new IOException("broken pipe");
+                }
+                int length = src.remaining();
+                while (src.hasRemaining()) {
+                    bytes.write(src.get());
+                }
+                return length;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        JanisWriter writer = new JanisWriter(channel);
+        writer.write("abcdefgh");
+        assertThrows(IOException.class, writer::flush);
+        assertEquals("abc", bytes.toString(StandardCharsets.UTF_8));
+
+        writer.write("XYZ");
+        writer.flush();
+        assertEquals("abcdefghXYZ", bytes.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Test writing after close fails and closing twice is allowed")
+    void closed() throws IOException {
+        JanisWriter writer = new JanisWriter(new ByteArrayOutputStream());
+        writer.close();
+        writer.close();
+
+        Exception exception = assertThrows(IOException.class, () -> writer.write(RED, "late"));
+        assertEquals("JanisWriter is closed", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Test invalid configuration")
+    void invalidConfiguration() {
+        OutputStream out = new ByteArrayOutputStream();
+        assertThrows(IllegalArgumentException.class, () -> new JanisWriter(out, 8, Duration.ZERO, false));
+        assertThrows(IllegalArgumentException.class, () -> new JanisWriter(out, 64, Duration.ofMillis(-1), false));
+        assertThrows(NullPointerException.class, () -> new JanisWriter((OutputStream) null));
+    }
+}
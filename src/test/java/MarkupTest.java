@@ -0,0 +1,87 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MarkupTest {
+
+    @Test
+    @DisplayName("Test tags style their text and slots take the enclosing style")
+    void tagsAndSlots() {
+        assertEquals("\u001b[1;31mERROR\u001b[0m \u001b[38;2;136;136;136mdisk full\u001b[0m",
+                Janis.format("[bold red]ERROR[/] [#888888]%s[/]", "disk full"));
+    }
+
+    @Test
+    @DisplayName("Test nested tags layer the inner style on top of the outer one")
+    void nesting() {
+        assertEquals("\u001b[31ma\u001b[1mb\u001b[0;32mc\u001b[0md",
+                Janis.format("[red]a[bold]b[/][green]c[/][/]d"));
+        assertEquals(Janis.format("[red]x"), Janis.format("[red]x[/]"));
+    }
+
+    @Test
+    @DisplayName("Test escapes produce literal brackets and percent signs")
+    void escapes() {
+        assertEquals("[x] 100% ]", Janis.format("[[x] 100%% ]"));
+    }
+
+    @Test
+    @DisplayName("Test repeated markup is compiled once")
+    void cached() {
+        Template first = Janis.markup("[italic]cached %s[/]");
+        assertSame(first, Janis.markup("[italic]cached %s[/]"));
+        assertEquals(1, first.slotCount());
+        assertTrue(Markup.cacheSize() <= Markup.MAXIMUM_CACHE_SIZE);
+    }
+
+    @Test
+    @DisplayName("Test markup in use stays cached while other markup is evicted")
+    void keepsRecentlyUsed() {
+        Template hot = Janis.markup("[bold]hot %s[/]");
+        for (int i = 0; i < Markup.MAXIMUM_CACHE_SIZE * 4; i++) {
+            Janis.markup("[dim]once " + i + "[/]");
+            assertSame(hot, Janis.markup("[bold]hot %s[/]"));
+        }
+        assertTrue(Markup.cacheSize() <= Markup.MAXIMUM_CACHE_SIZE);
+    }
+
+    @Test
+    @DisplayName("Test cached markup follows the color mode")
+    void followsColorMode() {
+        ColorMode previous = Janis.getColorMode();
+        try {
+            Janis.setColorMode(ColorMode.NEVER);
+            assertEquals("x y", Janis.format("[red]x[/] %s", "y"));
+            Janis.setColorMode(ColorMode.ALWAYS);
+            assertEquals("\u001b[31mx\u001b[0m y", Janis.format("[red]x[/] %s", "y"));
+            Janis.setColorMode(ColorMode.NEVER);
+            assertEquals("x y", Janis.format("[red]x[/] %s", "y"));
+        } finally {
+            Janis.setColorMode(previous);
+        }
+    }
+
+    @Test
+    @DisplayName("Test cached markup follows the color depth")
+    void followsColorDepth() {
+        try {
+            Janis.setColorDepth(ColorDepth.ANSI_16);
+            assertEquals("\u001b[91mx\u001b[0m", Janis.format("[#ff0000]x"));
+            Janis.setColorDepth(ColorDepth.TRUECOLOR);
+            assertEquals("\u001b[38;2;255;0;0mx\u001b[0m", Janis.format("[#ff0000]x"));
+        } finally {
+            Janis.setColorDepth(ColorDepth.TRUECOLOR);
+        }
+    }
+
+    @Test
+    @DisplayName("Test malformed markup is rejected")
+    void malformed() {
+        assertThrows(IllegalArgumentException.class, () -> Janis.markup("[bold"));
+        assertThrows(IllegalArgumentException.class, () -> Janis.markup("text[/]"));
+        assertThrows(IllegalArgumentException.class, () -> Janis.markup("[sparkly]x[/]"));
+        assertThrows(IllegalArgumentException.class, () -> Janis.format("%s and %s", "one"));
+        assertThrows(NullPointerException.class, () -> Janis.markup(null));
+    }
+}
@@ -0,0 +1,40 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NamedColorsTest {
+
+    @Test
+    @DisplayName("Test names are found case-insensitively and ignoring word separators")
+    void lookup() {
+        assertEquals(148, NamedColors.size());
+        assertEquals(0xF0F8FF, NamedColors.lookup("aliceblue"));
+        assertEquals(0x9ACD32, NamedColors.lookup("yellowgreen"));
+        assertEquals(0xFF8C00, NamedColors.lookup("DarkOrange"));
+        assertEquals(0xFF8C00, NamedColors.lookup("dark_orange"));
+        assertEquals(0x663399, NamedColors.lookup("[rebeccapurple]", 1, 14));
+    }
+
+    @Test
+    @DisplayName("Test unknown names and prefixes of names are not found")
+    void unknown() {
+        assertEquals(-1, NamedColors.lookup("darkorang"));
+        assertEquals(-1, NamedColors.lookup("darkoranges"));
+        assertEquals(-1, NamedColors.lookup(""));
+        assertEquals(-1, NamedColors.lookup("notacolor"));
+    }
+
+    @Test
+    @DisplayName("Test CSS names set RGB colors in StyleBuilder")
+    void styles() {
+        assertEquals("\u001b[38;2;255;165;0;48;2;25;25;112mx\u001b[0m",
+                Janis.of("x").cssColor("orange").bgCssColor("MidnightBlue").render());
+        assertEquals(Janis.style().hex("#FFA500").build(), Janis.style().cssColor("ORANGE").build());
+        assertEquals("\u001b[31mx\u001b[0m", Janis.of("x").color(BasicColor.RED).cssColor("blue").render());
+
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> Janis.style().cssColor("purplish"));
+        assertEquals("Unknown color name. Got: purplish", exception.getMessage());
+        assertThrows(NullPointerException.class, () -> Janis.style().bgCssColor(null));
+    }
+}
@@ -0,0 +1,87 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class PackedStyleTest {
+
+    @Test
+    @DisplayName("Test empty configuration packs to zero")
+    void emptyConfig() {
+        StyleConfig config = new StyleConfig(
+                null, null,
+                null, null,
+                false, false,
+                false, false,
+                false, false,
+                false, false
+        );
+        assertEquals(PackedStyle.EMPTY, PackedStyle.of(config));
+    }
+
+    @Test
+    @DisplayName("Test packing and unpacking keeps every color and attribute")
+    void roundTrip() {
+        StyleConfig config = new StyleConfig(
+                null, new Rgb(255, 100, 50),
+                BasicColor.BRIGHT_MAGENTA, null,
+                true, false,
+                true, false,
+                false, true,
+                false, true
+        );
+        long style = PackedStyle.of(config);
+
+        assertEquals(config, PackedStyle.toConfig(style));
+        assertEquals(PackedStyle.RGB, PackedStyle.foregroundKind(style));
+        assertEquals(0xFF6432, PackedStyle.foreground(style));
+        assertEquals(PackedStyle.BASIC, PackedStyle.backgroundKind(style));
+        assertEquals(BasicColor.BRIGHT_MAGENTA.ordinal(), PackedStyle.background(style));
+    }
+
+    @Test
+    @DisplayName("Test basic color takes precedence over RGB color when packing")
+    void basicPrecedence() {
+        StyleConfig config = new StyleConfig(
+                BasicColor.BLUE, new Rgb(0, 0, 255),
+                null, null,
+                false, false,
+                false, false,
+                false, false,
+                false, false
+        );
+        long style = PackedStyle.of(config);
+
+        assertEquals(PackedStyle.BASIC, PackedStyle.foregroundKind(style));
+        assertEquals(BasicColor.BLUE.ordinal(), PackedStyle.foreground(style));
+    }
+
+    @Test
+    @DisplayName("Test replacing a color keeps the other layer and the attributes")
+    void replaceColor() {
+        long style = PackedStyle.withAttributes(PackedStyle.EMPTY, PackedStyle.BOLD | PackedStyle.HIDE);
+        style = PackedStyle.withBackground(style, PackedStyle.RGB, 0xFFFFFF);
+        style = PackedStyle.withForeground(style, PackedStyle.RGB, 0x123456);
+        style = PackedStyle.withForeground(style, PackedStyle.BASIC, BasicColor.RED.ordinal());
+
+        assertEquals(PackedStyle.BOLD | PackedStyle.HIDE, PackedStyle.attributes(style));
+        assertEquals(PackedStyle.BASIC, PackedStyle.foregroundKind(style));
+        assertEquals(BasicColor.RED.ordinal(), PackedStyle.foreground(style));
+        assertEquals(PackedStyle.RGB, PackedStyle.backgroundKind(style));
+        assertEquals(0xFFFFFF, PackedStyle.background(style));
+        assertNotEquals(PackedStyle.UNKNOWN, style);
+    }
+
+    @Test
+    @DisplayName("Test builder keeps a basic color over a later RGB color")
+    void builderBasicPrecedence() {
+        Style style = Janis.style().color(BasicColor.GREEN).rgb(1, 2, 3).bgHex("#000").bgColor(BasicColor.RED).build();
+        long packed = style.packedStyle();
+
+        assertEquals(PackedStyle.BASIC, PackedStyle.foregroundKind(packed));
+        assertEquals(BasicColor.GREEN.ordinal(), PackedStyle.foreground(packed));
+        assertEquals(PackedStyle.BASIC, PackedStyle.backgroundKind(packed));
+        assertEquals(BasicColor.RED.ordinal(), PackedStyle.background(packed));
+    }
+}
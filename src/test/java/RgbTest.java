@@ -58,4 +58,23 @@ class RgbTest {
         String actualMessage = exception.getMessage();
         assertTrue(actualMessage.contains(expectedMessage));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Test parsing a hexadecimal range of a CharSequence into a packed color")
+    void parseHexRange() {
+        assertEquals(0x1A2B3C, Rgb.parseHex("#1a2B3c"));
+        assertEquals(0xFF00AA, Rgb.parseHex(new StringBuilder("color: #F0A;"), 7, 11));
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> Rgb.parseHex("x #12G456", 2, 9));
+        assertEquals("Invalid hexadecimal color value: #12G456", exception.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> Rgb.parseHex("#+1+2+3"));
+        assertThrows(IllegalArgumentException.class, () -> Rgb.parseHex("#12\u00e945"));
+    }
+
+    @Test
+    @DisplayName("Test repeated hexadecimal strings return the interned instance")
+    void fromHexInterned() {
+        Rgb first = Rgb.fromHex("#C0FFEE");
+        assertSame(first, Rgb.fromHex("#C0FFEE"));
+        assertEquals(new Rgb(0xC0, 0xFF, 0xEE), first);
+    }
+}
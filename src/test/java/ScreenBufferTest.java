@@ -0,0 +1,150 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScreenBufferTest {
+    private static final String CLEAR = "\u001B[H\u001B[2J";
+
+    @AfterEach
+    void restoreDepth() {
+        Janis.setColorDepth(ColorDepth.TRUECOLOR);
+    }
+
+    @Test
+    @DisplayName("Test the first frame clears the screen and writes only non-blank cells")
+    void firstFrame() {
+        ScreenBuffer screen = new ScreenBuffer(10, 3);
+        screen.print(0, 0, "ab", 0);
+        screen.print(4, 2, "c", 0);
+        assertEquals(CLEAR + "ab\u001B[3;5Hc", screen.render());
+    }
+
+    @Test
+    @DisplayName("Test a frame without changes renders nothing")
+    void unchangedFrame() {
+        ScreenBuffer screen = new ScreenBuffer(10, 3);
+        screen.print(0, 0, "hello", Janis.style().bold().build());
+        screen.render();
+        screen.print(0, 0, "hello", Janis.style().bold().build());
+        assertEquals("", screen.render());
+    }
+
+    @Test
+    @DisplayName("Test only changed cells are written, skipping unchanged ones with cursor moves")
+    void diff() {
+        ScreenBuffer screen = new ScreenBuffer(20, 2);
+        screen.print(0, 0, "cpu 10% mem 20%", 0);
+        screen.render();
+        screen.print(0, 0, "cpu 11% mem 25%", 0);
+        assertEquals("\u001B[1;6H1\u001B[7C5", screen.render());
+        screen.print(0, 1, "x", 0);
+        screen.print(2, 1, "y", 0);
+        assertEquals("\u001B[2;1Hx\u001B[Cy", screen.render());
+    }
+
+    @Test
+    @DisplayName("Test style changes use minimal transitions and a frame ends with one reset")
+    void transitions() {
+        ScreenBuffer screen = new ScreenBuffer(10, 1);
+        int bold = screen.styleId(Janis.style().bold().build());
+        int boldRed = screen.styleId(Janis.style().bold().color(BasicColor.RED).build());
+        screen.print(0, 0, "ab", bold);
+        screen.print(2, 0, "cd", boldRed);
+        assertEquals(CLEAR + "\u001B[1mab\u001B[31mcd\u001B[0m", screen.render());
+
+        screen.print(2, 0, "cd", bold);
+        assertEquals("\u001B[1;3H\u001B[1mcd\u001B[0m", screen.render());
+    }
+
+    @Test
+    @DisplayName("Test equal styles share one id and id 0 is unstyled")
+    void styleIds() {
+        ScreenBuffer screen = new ScreenBuffer(4, 1);
+        int first = screen.styleId(Janis.style().italic().build());
+        int second = screen.styleId(Janis.style().italic().build());
+        assertEquals(first, second);
+        assertEquals(0, screen.styleId(Janis.style().build()));
+        assertNotEquals(0, first);
+        assertThrows(IllegalArgumentException.class, () -> screen.print(0, 0, "x", 7));
+        assertThrows(IllegalArgumentException.class, () -> screen.styleId(new Style("\u001B[1m")));
+    }
+
+    @Test
+    @DisplayName("Test wide characters occupy two cells and partly overwritten ones are blanked")
+    void wideCharacters() {
+        ScreenBuffer screen = new ScreenBuffer(6, 1);
+        assertEquals(4, screen.print(0, 0, "\u4e16\u754c", 0));
+        assertEquals(CLEAR + "\u4e16\u754c", screen.render());
+        assertEquals(-1, screen.codePointAt(1, 0));
+
+        screen.print(1, 0, "x", 0);
+        assertEquals(' ', screen.codePointAt(0, 0));
+        assertEquals(" x", screen.render().replace("\u001B[1;1H", ""));
+
+        assertEquals(5, screen.print(4, 0, "y\u4e16", 0));
+    }
+
+    @Test
+    @DisplayName("Test text is clipped at the right edge and the cursor is repositioned after it")
+    void clipping() {
+        ScreenBuffer screen = new ScreenBuffer(3, 2);
+        assertEquals(3, screen.print(1, 0, "abcdef", 0));
+        screen.print(0, 1, "z", 0);
+        assertEquals(CLEAR + "\u001B[Cab\u001B[2;1Hz", screen.render());
+    }
+
+    @Test
+    @DisplayName("Test colors are reduced to the color depth when rendering")
+    void colorDepth() {
+        Janis.setColorDepth(ColorDepth.ANSI_16);
+        ScreenBuffer screen = new ScreenBuffer(2, 1);
+        screen.print(0, 0, "x", Janis.style().hex("#FF0000").build());
+        assertEquals(CLEAR + "\u001B[91mx\u001B[0m", screen.render());
+    }
+
+    @Test
+    @DisplayName("Test fill, clear and invalidate")
+    void fillClearInvalidate() {
+        ScreenBuffer screen = new ScreenBuffer(4, 2);
+        int reverse = screen.styleId(Janis.style().reverse().build());
+        screen.fill(1, 0, 10, 10, ' ', reverse);
+        assertEquals(CLEAR + "\u001B[C\u001B[7m   \u001B[2;2H   \u001B[0m", screen.render());
+
+        screen.clear();
+        assertEquals("\u001B[1;2H   \u001B[2;2H   ", screen.render());
+
+        screen.print(0, 0, "q", 0);
+        screen.render();
+        screen.invalidate();
+        assertEquals(CLEAR + "q", screen.render());
+        assertThrows(IllegalArgumentException.class, () -> screen.fill(0, 0, 1, 1, 0x4e16, 0));
+    }
+
+    @Test
+    @DisplayName("Test a frame with a few changes on a large screen is small")
+    void smallFrames() {
+        ScreenBuffer screen = new ScreenBuffer(200, 60);
+        int label = screen.styleId(Janis.style().bold().build());
+        int value = screen.styleId(Janis.style().color(BasicColor.GREEN).build());
+        for (int row = 0; row < 60; row++) {
+            screen.print(0, row, "metric " + row, label);
+            screen.print(20, row, "value 1000", value);
+        }
+        assertTrue(screen.render().length() > 1000);
+        screen.print(26, 30, "1234", value);
+        assertEquals("\u001B[31;28H\u001B[32m234\u001B[0m", screen.render());
+    }
+
+    @Test
+    @DisplayName("Test invalid sizes and positions are rejected")
+    void validation() {
+        assertEquals("Screen size must be at least 1x1. Got: 0x5",
+                assertThrows(IllegalArgumentException.class, () -> new ScreenBuffer(0, 5)).getMessage());
+        ScreenBuffer screen = new ScreenBuffer(2, 2);
+        assertThrows(IndexOutOfBoundsException.class, () -> screen.print(2, 0, "x", 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> screen.codePointAt(0, 2));
+        assertThrows(NullPointerException.class, () -> screen.print(0, 0, null, 0));
+    }
+}
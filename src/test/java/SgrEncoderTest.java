@@ -0,0 +1,49 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SgrEncoderTest {
+
+    @Test
+    @DisplayName("Test decimal table for every value from 0 to 255")
+    void decimalTable() {
+        for (int value = 0; value < 256; value++) {
+            StringBuilder out = new StringBuilder();
+            SgrEncoder.appendDecimal(out, value);
+            assertEquals(Integer.toString(value), out.toString());
+            assertEquals(out.length(), SgrEncoder.decimalLength(value));
+        }
+    }
+
+    @Test
+    @DisplayName("Test RGB sequences and their precomputed length")
+    void rgbSequence() {
+        int rgb = new Rgb(7, 42, 255).packed();
+        String foreground = SgrEncoder.appendRgb(new StringBuilder(), rgb, false).toString();
+        String background = SgrEncoder.appendRgb(new StringBuilder(), rgb, true).toString();
+
+        assertEquals("\u001b[38;2;7;42;255m", foreground);
+        assertEquals("\u001b[48;2;7;42;255m", background);
+        assertEquals(foreground.length(), SgrEncoder.rgbLength(rgb));
+    }
+
+    @Test
+    @DisplayName("Test prefix is appended to an existing builder with the precomputed length")
+    void appendPrefixToExistingBuilder() {
+        StyleConfig config = new StyleConfig(
+                BasicColor.BRIGHT_RED, null,
+                null, new Rgb(0, 150, 200),
+                true, false,
+                false, true,
+                false, false,
+                false, true
+        );
+        StringBuilder out = new StringBuilder("log: ");
+        AnsiCodeGenerator.appendAnsiPrefix(config, SgrMode.SEPARATE, out);
+
+        String expected = "\u001b[91m\u001b[48;2;0;150;200m\u001b[1m\u001b[4m\u001b[8m";
+        assertEquals("log: " + expected, out.toString());
+        assertEquals(expected.length(), AnsiCodeGenerator.getAnsiPrefixLength(config, SgrMode.SEPARATE));
+    }
+}
@@ -0,0 +1,172 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SgrParserTest {
+
+    /**
+     * Collects the reported runs, merging adjacent runs of the same style.
+     */
+    private static final class Runs implements SgrHandler {
+        final List<String> texts = new ArrayList<>();
+        final List<Long> styles = new ArrayList<>();
+        private final List<ByteArrayOutputStream> runs = new ArrayList<>();
+
+        @Override
+        public void onText(byte[] bytes, int start, int end, long style) {
+            int last = styles.size() - 1;
+            if (last < 0 || styles.get(last) != style) {
+                runs.add(new ByteArrayOutputStream());
+                texts.add("");
+                styles.add(style);
+                last++;
+            }
+            // runs may end inside a multi-byte character, so decode only what has been collected
+            runs.get(last).write(bytes, start, end - start);
+            texts.set(last, runs.get(last).toString(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static Runs parse(String output) {
+        Runs runs = new Runs();
+        byte[] bytes = output.getBytes(StandardCharsets.UTF_8);
+        new SgrParser(runs).feed(bytes, 0, bytes.length);
+        return runs;
+    }
+
+    @AfterEach
+    void restoreMode() {
+        Janis.setSgrMode(SgrMode.COMBINED);
+    }
+
+    @Test
+    @DisplayName("Test output of styles in both emission modes is parsed back into the same packed styles")
+    void roundTrip() {
+        for (SgrMode mode : SgrMode.values()) {
+            Janis.setSgrMode(mode);
+            Style first = Janis.style().bold().underlined().color(BasicColor.BRIGHT_RED).bgHex("#102030").build();
+            Style second = Janis.style().italic().color256(208).bgColor(BasicColor.BLUE).build();
+            Runs runs = parse(first.apply("one") + " plain " + second.apply("two"));
+
+            assertEquals(List.of("one", " plain ", "two"), runs.texts);
+            assertEquals(List.of(first.packedStyle(), PackedStyle.EMPTY, second.packedStyle()), runs.styles);
+        }
+    }
+
+    @Test
+    @DisplayName("Test attributes are turned off and colors reset individually")
+    void resets() {
+        Runs runs = parse("\u001b[1;2;3;31;42ma\u001b[22;39mb\u001b[23;49mc\u001b[mplain");
+        assertEquals(List.of("a", "b", "cplain"), runs.texts);
+        assertEquals(Janis.style().bold().dim().italic().color(BasicColor.RED).bgColor(BasicColor.GREEN).build()
+                .packedStyle(), runs.styles.get(0));
+        assertEquals(Janis.style().italic().bgColor(BasicColor.GREEN).build().packedStyle(), runs.styles.get(1));
+        assertEquals(PackedStyle.EMPTY, runs.styles.get(2));
+    }
+
+    @Test
+    @DisplayName("Test colon-separated extended colors with and without a color space id")
+    void colonForms() {
+        Runs runs = parse("\u001b[38:2::255:128:0ma\u001b[38:2:1:2:3;48:5:17mb");
+        assertEquals(Janis.style().rgb(255, 128, 0).build().packedStyle(), runs.styles.get(0));
+        assertEquals(Janis.style().rgb(1, 2, 3).bgColor256(17).build().packedStyle(), runs.styles.get(1));
+    }
+
+    @Test
+    @DisplayName("Test other escape sequences are dropped without changing the style")
+    void otherSequences() {
+        Runs runs = parse("\u001b[32m\u001b[2K\u001b]8;;https://example.com\u0007link\u001b]8;;\u001b\\\u001b[?25l!");
+        assertEquals(List.of("link!"), runs.texts);
+        assertEquals(List.of(Janis.style().color(BasicColor.GREEN).build().packedStyle()), runs.styles);
+    }
+
+    @Test
+    @DisplayName("Test sequences split at every possible buffer boundary are parsed the same")
+    void bufferBoundaries() {
+        String output = Janis.of("caf\u00e9").bold().rgb(10, 200, 30).render() + " and "
+                + Janis.of("tea").bgColor256(236).render();
+        byte[] bytes = output.getBytes(StandardCharsets.UTF_8);
+        Runs expected = parse(output);
+
+        for (int split = 0; split <= bytes.length; split++) {
+            Runs runs = new Runs();
+            SgrParser parser = new SgrParser(runs);
+            ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length - split).put(bytes, split, bytes.length - split);
+            parser.feed(bytes, 0, split);
+            parser.feed(direct.flip());
+            assertEquals(expected.texts, runs.texts, "split at " + split);
+            assertEquals(expected.styles, runs.styles, "split at " + split);
+        }
+    }
+
+    @Test
+    @DisplayName("Test direct buffers are parsed in place in either byte order for buffer handlers")
+    void parsesInPlace() {
+        String output = "plain text " + Janis.of("caf\u00e9 bold").bold().rgb(10, 200, 30).render()
+                + " between \u001b]8;;x\u0007 and " + Janis.of("tea").bgColor256(236).render() + " tail";
+        byte[] bytes = output.getBytes(StandardCharsets.UTF_8);
+        Runs expected = parse(output);
+
+        for (ByteOrder order : new ByteOrder[]{ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN}) {
+            for (int split = 0; split <= bytes.length; split++) {
+                Runs runs = new Runs();
+                SgrBufferHandler inPlace = new SgrBufferHandler() {
+                    @Override
+                    public void onText(byte[] text, int start, int end, long style) {
+                        fail("direct buffers must not be copied into an array");
+                    }
+
+                    @Override
+                    public void onText(ByteBuffer buffer, int start, int end, long style) {
+                        byte[] text = new byte[end - start];
+                        buffer.get(start, text);
+                        runs.onText(text, 0, text.length, style);
+                    }
+                };
+                SgrParser parser = new SgrParser(inPlace);
+                ByteBuffer first = ByteBuffer.allocateDirect(split).order(order).put(bytes, 0, split).flip();
+                ByteBuffer second = ByteBuffer.allocateDirect(bytes.length - split).order(order)
+                        .put(bytes, split, bytes.length - split).flip();
+                parser.feed(first);
+                parser.feed(second);
+                assertFalse(second.hasRemaining());
+                assertEquals(expected.texts, runs.texts, order + " split at " + split);
+                assertEquals(expected.styles, runs.styles, order + " split at " + split);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Test a channel is read to its end")
+    void readFromChannel() throws IOException {
+        StringBuilder output = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            output.append(Janis.of("line").color(BasicColor.values()[i % 16]).render()).append('\n');
+        }
+        long[] styledBytes = new long[1];
+        SgrParser parser = new SgrParser((bytes, start, end, style) -> {
+            if (style != 0) {
+                styledBytes[0] += end - start;
+            }
+        });
+        byte[] bytes = output.toString().getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(bytes.length, parser.readFrom(Channels.newChannel(new ByteArrayInputStream(bytes))));
+        assertEquals(20000 * "line".length(), styledBytes[0]);
+        assertEquals(PackedStyle.EMPTY, parser.style());
+        assertSame(Janis.style().color(BasicColor.RED).build(),
+                SgrParser.toStyle(Janis.style().color(BasicColor.RED).build().packedStyle()));
+    }
+}
@@ -0,0 +1,106 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SgrRendererTest {
+
+    private static final Style RED = Janis.style().color(BasicColor.RED).build();
+    private static final Style RED_BOLD = Janis.style().color(BasicColor.RED).bold().build();
+    private static final Style GREEN_BOLD = Janis.style().color(BasicColor.GREEN).bold().build();
+    private static final Style RED_BOLD_DIM = Janis.style().color(BasicColor.RED).bold().dim().build();
+
+    private static String render(SgrMode mode, Object... segments) {
+        SgrRenderer renderer = new SgrRenderer(new StringBuilder(), mode);
+        for (int i = 0; i < segments.length; i += 2) {
+            if (segments[i] == null) {
+                renderer.append((String) segments[i + 1]);
+            } else {
+                renderer.append((Style) segments[i], (String) segments[i + 1]);
+            }
+        }
+        return renderer.finish().out().toString();
+    }
+
+    @Test
+    @DisplayName("Test adjacent segments with the same style share one prefix")
+    void sameStyle() {
+        assertEquals("\u001b[31mabc\u001b[0m", render(SgrMode.COMBINED, RED, "a", RED, "b", RED, "c"));
+    }
+
+    @Test
+    @DisplayName("Test turning off bold emits only 22")
+    void boldOff() {
+        assertEquals("\u001b[1;31mab\u001b[22mcd\u001b[0m", render(SgrMode.COMBINED, RED_BOLD, "ab", RED, "cd"));
+    }
+
+    @Test
+    @DisplayName("Test changing only the foreground emits only the new color")
+    void foregroundOnly() {
+        assertEquals("\u001b[1;31mab\u001b[32mcd\u001b[0m", render(SgrMode.COMBINED, RED_BOLD, "ab", GREEN_BOLD, "cd"));
+    }
+
+    @Test
+    @DisplayName("Test turning off dim keeps bold by re-enabling it")
+    void dimOffKeepsBold() {
+        assertEquals("\u001b[1;2;31ma\u001b[22;1mb\u001b[0m", render(SgrMode.COMBINED, RED_BOLD_DIM, "a", RED_BOLD, "b"));
+    }
+
+    @Test
+    @DisplayName("Test removing the foreground color emits 39")
+    void foregroundRemoved() {
+        Style boldRed = Janis.style().color(BasicColor.RED).bold().underlined().build();
+        Style boldUnderlined = Janis.style().bold().underlined().build();
+        assertEquals("\u001b[1;4;31ma\u001b[39mb\u001b[0m", render(SgrMode.COMBINED, boldRed, "a", boldUnderlined, "b"));
+    }
+
+    @Test
+    @DisplayName("Test unstyled text resets once and empty segments emit nothing")
+    void unstyledAndEmpty() {
+        assertEquals("\u001b[31ma\u001b[0m b", render(SgrMode.COMBINED, RED, "a", RED_BOLD, "", null, " b"));
+    }
+
+    @Test
+    @DisplayName("Test reset is used when shorter than the difference")
+    void resetWhenShorter() {
+        Style all = Janis.style().bold().dim().italic().underlined().slowBlink().reverse().hide().build();
+        Style italic = Janis.style().italic().build();
+        String rendered = render(SgrMode.COMBINED, all, "a", italic, "b");
+        assertEquals("\u001b[1;2;3;4;5;7;8ma\u001b[0;3mb\u001b[0m", rendered);
+    }
+
+    @Test
+    @DisplayName("Test separate mode emits one sequence per parameter")
+    void separateMode() {
+        Style red = Janis.style().color(BasicColor.RED).bold().italic().build();
+        Style green = Janis.style().color(BasicColor.GREEN).bold().build();
+        assertEquals("\u001b[31m\u001b[1m\u001b[3mab\u001b[23m\u001b[32mcd\u001b[0me",
+                render(SgrMode.SEPARATE, red, "ab", green, "cd", null, "e"));
+    }
+
+    @Test
+    @DisplayName("Test styles created from a raw prefix always go through a reset")
+    void rawPrefixStyle() {
+        Style raw = new Style("\u001b[95m");
+        assertEquals("\u001b[31ma\u001b[0m\u001b[95mbc\u001b[0;31md\u001b[0m",
+                render(SgrMode.COMBINED, RED, "a", raw, "b", raw, "c", RED, "d"));
+    }
+
+    @Test
+    @DisplayName("Test many short tokens produce fewer bytes than reset and prefix per token")
+    void fewerBytes() {
+        Style key = Janis.style().color(BasicColor.CYAN).bold().build();
+        Style value = Janis.style().color(BasicColor.YELLOW).bold().build();
+        SgrRenderer renderer = new SgrRenderer(new StringBuilder(), SgrMode.COMBINED);
+        StringBuilder naive = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            renderer.append(key, "k").append(value, "v");
+            key.apply("k", naive);
+            value.apply("v", naive);
+        }
+        renderer.finish();
+
+        assertTrue(renderer.out().length() < naive.length() * 0.6);
+    }
+}
@@ -3,6 +3,9 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 
+import java.io.IOException;
+import java.io.StringWriter;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
@@ -94,4 +97,21 @@ class StyleBuilderTest {
         assertNotNull(styleExample);
         assertEquals("\u001B[1mSample Text\u001B[0m", styleExample.apply("Sample Text"));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Test render into a StringBuilder and an Appendable")
+    void testRenderToSinks() throws IOException {
+        StringBuilder out = Janis.of("Sample Text").italic().render(new StringBuilder("log: "));
+        assertEquals("log: \u001B[3mSample Text\u001B[0m", out.toString());
+
+        StringWriter writer = new StringWriter();
+        Janis.of("Sample Text").italic().render((Appendable) writer);
+        assertEquals("\u001B[3mSample Text\u001B[0m", writer.toString());
+    }
+
+    @Test
+    @DisplayName("Test render into a sink with style method")
+    void testStyleMethodAndRenderToSink() {
+        assertThrows(IllegalStateException.class, () -> style.render(new StringBuilder()));
+    }
+}
@@ -0,0 +1,138 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StyleCacheTest {
+
+    private static long basic(BasicColor color) {
+        return PackedStyle.withForeground(PackedStyle.EMPTY, PackedStyle.BASIC, color.ordinal());
+    }
+
+    @Test
+    @DisplayName("Test same configuration returns the same instance")
+    void canonicalInstance() {
+        StyleCache cache = new StyleCache(16, EvictionPolicy.LRU);
+        Style first = cache.get(basic(BasicColor.RED), SgrMode.COMBINED);
+        Style second = cache.get(basic(BasicColor.RED), SgrMode.COMBINED);
+
+        assertSame(first, second);
+        assertEquals("\u001b[31mText\u001b[0m", first.apply("Text"));
+        assertEquals(new CacheStats(1, 1, 0), cache.stats());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    @DisplayName("Test emission mode is part of the key")
+    void modeIsPartOfKey() {
+        StyleCache cache = new StyleCache(16, EvictionPolicy.LRU);
+        long style = PackedStyle.withAttributes(basic(BasicColor.RED), PackedStyle.BOLD);
+
+        assertEquals("\u001b[1;31mText\u001b[0m", cache.get(style, SgrMode.COMBINED).apply("Text"));
+        assertEquals("\u001b[31m\u001b[1mText\u001b[0m", cache.get(style, SgrMode.SEPARATE).apply("Text"));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    @DisplayName("Test FIFO discards the oldest entry even if it is used")
+    void fifoEviction() {
+        StyleCache cache = new StyleCache(2, EvictionPolicy.FIFO);
+        Style red = cache.get(basic(BasicColor.RED), SgrMode.COMBINED);
+        cache.get(basic(BasicColor.GREEN), SgrMode.COMBINED);
+        cache.get(basic(BasicColor.RED), SgrMode.COMBINED);
+        cache.get(basic(BasicColor.BLUE), SgrMode.COMBINED);
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.stats().evictionCount());
+        assertNotSame(red, cache.get(basic(BasicColor.RED), SgrMode.COMBINED));
+    }
+
+    @Test
+    @DisplayName("Test LRU keeps the recently used entry")
+    void lruEviction() {
+        StyleCache cache = new StyleCache(2, EvictionPolicy.LRU);
+        Style red = cache.get(basic(BasicColor.RED), SgrMode.COMBINED);
+        Style green = cache.get(basic(BasicColor.GREEN), SgrMode.COMBINED);
+        cache.get(basic(BasicColor.RED), SgrMode.COMBINED);
+        cache.get(basic(BasicColor.BLUE), SgrMode.COMBINED);
+
+        assertSame(red, cache.get(basic(BasicColor.RED), SgrMode.COMBINED));
+        assertNotSame(green, cache.get(basic(BasicColor.GREEN), SgrMode.COMBINED));
+    }
+
+    @Test
+    @DisplayName("Test size stays bounded under many distinct styles")
+    void bounded() {
+        StyleCache cache = new StyleCache(100, EvictionPolicy.LRU);
+        for (int rgb = 0; rgb < 10_000; rgb++) {
+            long style = PackedStyle.withForeground(PackedStyle.EMPTY, PackedStyle.RGB, rgb * 1667);
+            assertEquals(style, cache.get(style, SgrMode.COMBINED).packedStyle());
+        }
+
+        assertEquals(100, cache.size());
+        assertEquals(10_000 - 100, cache.stats().evictionCount());
+    }
+
+    @Test
+    @DisplayName("Test maximum size of 0 disables caching")
+    void disabled() {
+        StyleCache cache = new StyleCache(0, EvictionPolicy.FIFO);
+        Style first = cache.get(basic(BasicColor.RED), SgrMode.COMBINED);
+
+        assertNotSame(first, cache.get(basic(BasicColor.RED), SgrMode.COMBINED));
+        assertEquals(0, cache.size());
+        assertEquals(2, cache.stats().missCount());
+    }
+
+    @Test
+    @DisplayName("Test invalid arguments")
+    void invalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new StyleCache(-1, EvictionPolicy.LRU));
+        Exception exception = assertThrows(NullPointerException.class, () -> new StyleCache(1, null));
+        assertTrue(exception.getMessage().contains("EvictionPolicy cannot be null"));
+    }
+
+    @Test
+    @DisplayName("Test concurrent lookups agree on one instance per configuration")
+    void concurrentLookups() throws Exception {
+        StyleCache cache = new StyleCache(1024, EvictionPolicy.LRU);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Style[]>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                futures.add(executor.submit(() -> {
+                    Style[] styles = new Style[BasicColor.values().length];
+                    for (int round = 0; round < 1000; round++) {
+                        for (BasicColor color : BasicColor.values()) {
+                            styles[color.ordinal()] = cache.get(basic(color), SgrMode.COMBINED);
+                        }
+                    }
+                    return styles;
+                }));
+            }
+
+            Style[] expected = futures.get(0).get();
+            for (Future<Style[]> future : futures) {
+                assertArrayEquals(expected, future.get());
+            }
+            assertEquals(BasicColor.values().length, cache.stats().missCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Test builders share the cached style")
+    void buildersShareStyle() {
+        Style first = Janis.style().color(BasicColor.YELLOW).underlined().build();
+        Style second = Janis.style().underlined().color(BasicColor.YELLOW).build();
+
+        assertSame(first, second);
+    }
+}
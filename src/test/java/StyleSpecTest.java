@@ -0,0 +1,57 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StyleSpecTest {
+
+    private static long parse(String spec) {
+        return StyleSpec.parse(spec, 0, spec.length());
+    }
+
+    private static long packed(StyleBuilder builder) {
+        return builder.build().packedStyle();
+    }
+
+    @Test
+    @DisplayName("Test attributes and basic colors are parsed case-insensitively")
+    void attributesAndColors() {
+        assertEquals(packed(Janis.style().bold().underlined().color(BasicColor.BRIGHT_RED)),
+                parse("  BOLD underline bright-red "));
+        assertEquals(packed(Janis.style().slowBlink().dim()), parse("blink dim"));
+        assertEquals(PackedStyle.EMPTY, parse(""));
+    }
+
+    @Test
+    @DisplayName("Test colors after 'on' set the background")
+    void background() {
+        assertEquals(packed(Janis.style().hex("#888888").bgColor(BasicColor.BLUE)), parse("#888888 on blue"));
+        assertEquals(packed(Janis.style().bgHex("#ABC")), parse("on #abc"));
+    }
+
+    @Test
+    @DisplayName("Test basic colors take precedence over RGB colors like in StyleBuilder")
+    void precedence() {
+        assertEquals(packed(Janis.style().color(BasicColor.RED)), parse("red #00FF00"));
+        assertEquals(packed(Janis.style().color(BasicColor.RED)), parse("#00FF00 red"));
+    }
+
+    @Test
+    @DisplayName("Test color(n) selects an entry of the 256-color palette")
+    void paletteColors() {
+        assertEquals(packed(Janis.style().color256(208).bgColor256(17)), parse("color(208) on COLOR(17)"));
+        assertEquals(packed(Janis.style().color(BasicColor.RED)), parse("color(208) red"));
+        assertThrows(IllegalArgumentException.class, () -> parse("color(256)"));
+        assertThrows(IllegalArgumentException.class, () -> parse("color(x)"));
+    }
+
+    @Test
+    @DisplayName("Test unknown names and a dangling 'on' are rejected")
+    void invalid() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> parse("bold purple"));
+        assertEquals("Unknown style name. Got: purple", e.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> parse("red on"));
+        assertThrows(IllegalArgumentException.class, () -> parse("on on red"));
+        assertThrows(IllegalArgumentException.class, () -> parse("#12"));
+    }
+}
@@ -1,7 +1,17 @@
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class StyleTest {
 
@@ -10,6 +20,94 @@ class StyleTest {
     void testApply() {
         Style style = Janis.style().color(BasicColor.BRIGHT_CYAN).bold().build();
         String result = style.apply("Hello, World!");
-        assertEquals("\u001B[96m\u001B[1mHello, World!\u001B[0m", result);
+        assertEquals("\u001B[1;96mHello, World!\u001B[0m", result);
+    }
+
+    @Test
+    @DisplayName("Test apply method in separate mode")
+    void testApplySeparate() {
+        Janis.setSgrMode(SgrMode.SEPARATE);
+        try {
+            Style style = Janis.style().color(BasicColor.BRIGHT_CYAN).bold().build();
+            String result = style.apply("Hello, World!");
+            assertEquals("\u001B[96m\u001B[1mHello, World!\u001B[0m", result);
+        } finally {
+            Janis.setSgrMode(SgrMode.COMBINED);
+        }
+    }
+
+    @Test
+    @DisplayName("Test apply into a reused StringBuilder")
+    void testApplyToStringBuilder() {
+        Style red = Janis.style().color(BasicColor.RED).build();
+        Style bold = Janis.style().bold().build();
+        StringBuilder line = new StringBuilder("> ");
+
+        StringBuilder result = red.apply("ERROR", line);
+        line.append(' ');
+        bold.apply(new StringBuilder("disk full"), line);
+
+        assertSame(line, result);
+        assertEquals("> \u001B[31mERROR\u001B[0m \u001B[1mdisk full\u001B[0m", line.toString());
+    }
+
+    @Test
+    @DisplayName("Test apply to a character range")
+    void testApplyRange() {
+        Style style = Janis.style().color(BasicColor.GREEN).build();
+        StringBuilder out = style.apply("[OK] done", 1, 3, new StringBuilder());
+
+        assertEquals("\u001B[32mOK\u001B[0m", out.toString());
+        assertThrows(IndexOutOfBoundsException.class, () -> style.apply("short", 2, 9, new StringBuilder()));
+    }
+
+    @Test
+    @DisplayName("Test apply into an Appendable")
+    void testApplyToAppendable() throws IOException {
+        Style style = Janis.style().underlined().build();
+        StringWriter writer = new StringWriter();
+
+        style.apply("link", (Appendable) writer);
+        style.apply("a link here", 2, 6, (Appendable) writer);
+
+        assertEquals("\u001B[4mlink\u001B[0m\u001B[4mlink\u001B[0m", writer.toString());
+    }
+
+    @Test
+    @DisplayName("Test writing styled text into a direct ByteBuffer")
+    void testWriteToByteBuffer() {
+        Style style = Janis.style().color(BasicColor.RED).build();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(64);
+
+        int written = style.writeTo(buffer, "na\u00efve \ud83d\ude80");
+
+        byte[] expected = style.apply("na\u00efve \ud83d\ude80").getBytes(StandardCharsets.UTF_8);
+        assertEquals(expected.length, written);
+        assertEquals(expected.length, buffer.position());
+        byte[] actual = new byte[written];
+        buffer.flip().get(actual);
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test
+    @DisplayName("Test writing into a ByteBuffer without enough room writes nothing")
+    void testWriteToByteBufferOverflow() {
+        Style style = Janis.style().color(BasicColor.RED).build();
+        ByteBuffer buffer = ByteBuffer.allocate(8);
+
+        assertThrows(BufferOverflowException.class, () -> style.writeTo(buffer, "too long for the buffer"));
+        assertEquals(0, buffer.position());
+    }
+
+    @Test
+    @DisplayName("Test writing styled text to an OutputStream")
+    void testWriteToOutputStream() throws IOException {
+        Style style = Janis.style().bold().bgColor(BasicColor.BLUE).build();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        int written = style.writeTo(out, "\u65e5\u672c");
+
+        assertEquals(out.size(), written);
+        assertEquals(style.apply("\u65e5\u672c"), out.toString(StandardCharsets.UTF_8));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,67 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StyledCharSequenceTest {
+
+    private static final Style RED = Janis.style().color(BasicColor.RED).build();
+
+    @Test
+    @DisplayName("Test the lazy view reads like the applied string")
+    void matchesApply() {
+        StyledCharSequence lazy = RED.applyLazy("hello");
+        String expected = RED.apply("hello");
+
+        assertEquals(expected.length(), lazy.length());
+        for (int i = 0; i < expected.length(); i++) {
+            assertEquals(expected.charAt(i), lazy.charAt(i));
+        }
+        assertEquals(expected, lazy.toString());
+        assertSame(lazy.toString(), lazy.toString());
+        assertThrows(IndexOutOfBoundsException.class, () -> lazy.charAt(expected.length()));
+    }
+
+    @Test
+    @DisplayName("Test every sub-sequence matches the same range of the applied string")
+    void subSequences() {
+        StyledCharSequence lazy = RED.applyLazy("abc");
+        String expected = RED.apply("abc");
+
+        for (int from = 0; from <= expected.length(); from++) {
+            for (int to = from; to <= expected.length(); to++) {
+                assertEquals(expected.substring(from, to), lazy.subSequence(from, to).toString());
+            }
+        }
+        assertEquals("b", lazy.subSequence(6, 7).subSequence(0, 1).toString());
+        assertThrows(IndexOutOfBoundsException.class, () -> lazy.subSequence(2, 1));
+    }
+
+    @Test
+    @DisplayName("Test the text is only read when the view is consumed")
+    void deferred() {
+        StringBuilder message = new StringBuilder("draft");
+        StyledCharSequence lazy = RED.applyLazy(message);
+        message.setLength(0);
+        message.append("final");
+
+        assertEquals(RED.apply("final"), lazy.toString());
+    }
+
+    @Test
+    @DisplayName("Test sinks receive the styled text")
+    void sinks() throws IOException {
+        StyledCharSequence lazy = Janis.of("caf\u00e9").bold().renderLazy();
+        String expected = Janis.of("caf\u00e9").bold().render();
+
+        assertEquals(">" + expected, lazy.appendTo(new StringBuilder(">")).toString());
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        assertEquals(expected.getBytes(StandardCharsets.UTF_8).length, lazy.writeTo(stream));
+        assertEquals(expected, stream.toString(StandardCharsets.UTF_8));
+        assertThrows(IllegalStateException.class, () -> Janis.style().bold().renderLazy());
+    }
+}
@@ -0,0 +1,86 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StyledTextTest {
+
+    private static final Style RED = Janis.style().color(BasicColor.RED).build();
+    private static final Style BOLD = Janis.style().bold().build();
+    private static final Style GREEN_BG = Janis.style().bgColor(BasicColor.GREEN).build();
+
+    @Test
+    @DisplayName("Test concatenated segments render with minimal transitions")
+    void concat() {
+        StyledText text = StyledText.of(RED, "a").concat(StyledText.of(RED, "b")).concat(StyledText.of(" c"));
+
+        assertEquals("\u001b[31mab\u001b[0m c", text.render());
+        assertEquals("ab c", text.plainText());
+        assertEquals(4, text.length());
+        assertEquals(text.render().length(), text.renderedLength());
+        assertSame(text, text.concat(StyledText.empty()));
+    }
+
+    @Test
+    @DisplayName("Test nesting keeps the outer style after the inner segment")
+    void nesting() {
+        StyledText inner = StyledText.of("Build ").concat(StyledText.of(RED, "failed")).concat(StyledText.of("!"));
+        StyledText nested = StyledText.of(BOLD, inner);
+
+        assertEquals("\u001b[1mBuild \u001b[31mfailed\u001b[39m!\u001b[0m", nested.render());
+    }
+
+    @Test
+    @DisplayName("Test nested colors override outer colors while attributes combine")
+    void nestingOverrides() {
+        Style outer = Janis.style().color(BasicColor.BLUE).italic().build();
+        StyledText nested = StyledText.of(outer, StyledText.of(Janis.style().color(BasicColor.RED).bold().build(), "x"));
+
+        assertEquals(Janis.style().color(BasicColor.RED).bold().italic().build().apply("x"), nested.render());
+        assertEquals(Janis.style().color(BasicColor.RED).bgColor(BasicColor.GREEN).build().apply("z"),
+                StyledText.of(RED, StyledText.of(GREEN_BG, "z")).render());
+    }
+
+    @Test
+    @DisplayName("Test substrings keep the style of every character")
+    void substring() {
+        StyledText text = StyledText.of(RED, "abc").concat(StyledText.of("def")).concat(StyledText.of(BOLD, "ghi"));
+
+        assertEquals("\u001b[31mc\u001b[0mdef\u001b[1mg\u001b[0m", text.substring(2, 7).render());
+        assertEquals("\u001b[31mbc\u001b[0m", text.substring(1, 3).render());
+        assertEquals("e", text.substring(4, 5).render());
+        assertSame(StyledText.empty(), text.substring(3, 3));
+        assertSame(text, text.substring(0, 9));
+        assertThrows(IndexOutOfBoundsException.class, () -> text.substring(5, 10));
+    }
+
+    @Test
+    @DisplayName("Test chars, bytes and buffers render the same text")
+    void sinks() {
+        StyledText text = StyledText.of(RED, "caf\u00e9 ").concat(StyledText.of(BOLD, "\ud83d\ude00"));
+        String rendered = text.render();
+
+        assertArrayEquals(rendered.toCharArray(), text.toCharArray());
+        assertArrayEquals(rendered.getBytes(StandardCharsets.UTF_8), text.toBytes());
+        assertEquals(rendered, text.toString());
+        assertEquals(">" + rendered, text.render(new StringBuilder(">")).toString());
+
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        int written = text.writeTo(buffer);
+        assertEquals(rendered, new String(buffer.array(), 0, written, StandardCharsets.UTF_8));
+        assertThrows(BufferOverflowException.class, () -> text.writeTo(ByteBuffer.allocate(4)));
+    }
+
+    @Test
+    @DisplayName("Test raw prefix styles replace the outer style when nested")
+    void rawPrefix() {
+        Style raw = new Style("\u001b[5m");
+        StyledText nested = StyledText.of(RED, StyledText.of(raw, "x").concat(StyledText.of("y")));
+
+        assertEquals("\u001b[5mx\u001b[0;31my\u001b[0m", nested.render());
+    }
+}
@@ -0,0 +1,172 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TableTest {
+
+    private static List<Table.Cell[]> rows(String[]... texts) {
+        List<Table.Cell[]> rows = new ArrayList<>();
+        for (String[] row : texts) {
+            Table.Cell[] cells = new Table.Cell[row.length];
+            for (int i = 0; i < row.length; i++) {
+                cells[i] = Table.Cell.of(row[i]);
+            }
+            rows.add(cells);
+        }
+        return rows;
+    }
+
+    @Test
+    @DisplayName("Test columns are as wide as their widest cell and padded without trailing spaces")
+    void layout() {
+        Table table = Table.of("Name", "Count");
+        String result = table.render(rows(new String[]{"alpha", "1"}, new String[]{"b", "12345"}));
+        assertEquals("Name   Count\nalpha  1\nb      12345\n", result);
+    }
+
+    @Test
+    @DisplayName("Test right-aligned columns are padded on the left")
+    void rightAlign() {
+        Table table = Table.of("Name", "N").align(1, Table.Align.RIGHT).separator(" | ");
+        String result = table.render(rows(new String[]{"a", "7"}, new String[]{"b", "100"}));
+        assertEquals("Name |   N\na    |   7\nb    | 100\n", result);
+    }
+
+    @Test
+    @DisplayName("Test styles wrap only the text and padding stays unstyled")
+    void styledCells() {
+        Style red = Janis.style().color(BasicColor.RED).build();
+        Style bold = Janis.style().bold().build();
+        Table table = Table.of("Status", "Name").headerStyle(bold);
+        List<Table.Cell[]> rows = new ArrayList<>();
+        rows.add(new Table.Cell[]{Table.Cell.of(red, "FAIL"), Table.Cell.of("core")});
+        assertEquals("\u001B[1mStatus\u001B[0m  \u001B[1mName\u001B[0m\n"
+                + "\u001B[31mFAIL\u001B[0m    core\n", table.render(rows));
+    }
+
+    @Test
+    @DisplayName("Test cell widths count wide characters twice and are measured once")
+    void wideCharacters() {
+        Table.Cell cell = Table.Cell.of("\u4e16\u754c");
+        assertEquals(2, cell.text().length());
+        assertEquals(4, cell.width());
+        String result = Table.of("A", "B").render(rows(new String[]{"\u4e16\u754c", "x"}, new String[]{"y", "z"}));
+        assertEquals("A     B\n\u4e16\u754c  x\ny     z\n", result);
+    }
+
+    @Test
+    @DisplayName("Test cells wider than the maximum width are truncated with an ellipsis")
+    void truncation() {
+        Table table = Table.of("Path", "Size").maxWidth(0, 6);
+        String result = table.render(rows(new String[]{"src/main/java", "10"}, new String[]{"a", "2"}));
+        assertEquals("Path    Size\nsrc/m\u2026  10\na       2\n", result);
+
+        String wide = Table.of("W").maxWidth(0, 4).render(rows(new String[]{"\u4e16\u754c\u4e16"}));
+        assertEquals("W\n\u4e16 \u2026\n", wide);
+    }
+
+    @Test
+    @DisplayName("Test column widths are computed in one pass and limited by the maximum width")
+    void columnWidths() {
+        int[] passes = {0};
+        List<Table.Cell[]> data = rows(new String[]{"abc", "x"}, new String[]{"a", "xxxxxxxxxx"});
+        Iterable<Table.Cell[]> counted = () -> {
+            passes[0]++;
+            return data.iterator();
+        };
+        int[] widths = Table.of("Header", "H").maxWidth(1, 5).columnWidths(counted);
+        assertArrayEquals(new int[]{6, 5}, widths);
+        assertEquals(1, passes[0]);
+    }
+
+    @Test
+    @DisplayName("Test tables with fixed widths are rendered from a single iterator without measuring")
+    void fixedWidths() throws IOException {
+        Table table = Table.of("Id", "Name").width(0, 3).width(1, 4).showHeader(false);
+        Iterable<Table.Cell[]> once = new Iterable<>() {
+            private boolean used;
+
+            @Override
+            public Iterator<Table.Cell[]> iterator() {
+                assertFalse(used, "rows must be iterated once");
+                used = true;
+                return rows(new String[]{"1", "alphabet"}, new String[]{"22", "b"}).iterator();
+            }
+        };
+        StringBuilder out = new StringBuilder();
+        table.render(once, out);
+        assertEquals("1    alp\u2026\n22   b\n", out.toString());
+    }
+
+    @Test
+    @DisplayName("Test rows generated on demand are streamed line by line")
+    void streamsRows() throws IOException {
+        int count = 100_000;
+        Iterable<Table.Cell[]> generated = () -> new Iterator<>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < count;
+            }
+
+            @Override
+            public Table.Cell[] next() {
+                next++;
+                return new Table.Cell[]{Table.Cell.of(Integer.toString(next)), Table.Cell.of("row")};
+            }
+        };
+        int[] lines = {0};
+        int[] maxChunk = {0};
+        Appendable sink = new Appendable() {
+            @Override
+            public Appendable append(CharSequence csq) {
+                lines[0]++;
+                maxChunk[0] = Math.max(maxChunk[0], csq.length());
+                return this;
+            }
+
+            @Override
+            public Appendable append(CharSequence csq, int start, int end) {
+                return append(csq.subSequence(start, end));
+            }
+
+            @Override
+            public Appendable append(char c) {
+                return append(String.valueOf(c));
+            }
+        };
+        Table.of("N", "Text").render(generated, sink);
+        assertEquals(count + 1, lines[0]);
+        assertEquals("N       Text\n".length(), maxChunk[0]);
+    }
+
+    @Test
+    @DisplayName("Test short rows leave the remaining columns empty")
+    void shortRows() {
+        String result = Table.of("A", "B", "C").render(rows(new String[]{"1"}, new String[]{"1", "", "3"}));
+        assertEquals("A  B  C\n1\n1     3\n", result);
+    }
+
+    @Test
+    @DisplayName("Test invalid configuration and rows are rejected")
+    void validation() {
+        assertEquals("A table needs at least one column. Got: 0",
+                assertThrows(IllegalArgumentException.class, Table::of).getMessage());
+        Table table = Table.of("A");
+        assertEquals("Column width must be at least 1. Got: 0",
+                assertThrows(IllegalArgumentException.class, () -> table.maxWidth(0, 0)).getMessage());
+        assertThrows(IndexOutOfBoundsException.class, () -> table.align(1, Table.Align.LEFT));
+        assertThrows(IllegalArgumentException.class, () -> table.render(rows(new String[]{"1", "2"})));
+        assertThrows(IllegalArgumentException.class,
+                () -> table.render(Arrays.<Table.Cell[]>asList().iterator(), new int[2], new StringBuilder()));
+        assertThrows(NullPointerException.class, () -> Table.Cell.of(null));
+    }
+}
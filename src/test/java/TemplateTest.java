@@ -0,0 +1,90 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TemplateTest {
+
+    private static final Style RED = Janis.style().color(BasicColor.RED).build();
+    private static final Style RED_BOLD = Janis.style().color(BasicColor.RED).bold().build();
+
+    @Test
+    @DisplayName("Test slots are styled and literals are unstyled")
+    void rendersSlots() {
+        Template template = Janis.template("[{}] {} - {}", RED, RED_BOLD, null);
+
+        assertEquals(3, template.slotCount());
+        assertEquals("[\u001b[31mINFO\u001b[0m] \u001b[1;31mmain\u001b[0m - started",
+                template.render("INFO", "main", "started"));
+    }
+
+    @Test
+    @DisplayName("Test adjacent slots only emit the transition between their styles")
+    void adjacentSlots() {
+        Template template = Janis.template("{}{}{}", RED, RED_BOLD, RED_BOLD);
+
+        assertEquals("\u001b[31ma\u001b[1mbc\u001b[0m", template.render("a", "b", "c"));
+    }
+
+    @Test
+    @DisplayName("Test a pattern without slots renders its literal text")
+    void noSlots() {
+        Template template = Janis.template("plain");
+
+        assertEquals(0, template.slotCount());
+        assertEquals("plain", template.render());
+    }
+
+    @Test
+    @DisplayName("Test escaped slots are literal braces")
+    void escapedSlots() {
+        Template template = Janis.template("\\{} = {}", RED);
+
+        assertEquals(1, template.slotCount());
+        assertEquals("{} = \u001b[31mempty\u001b[0m", template.render("empty"));
+        assertEquals("C:\\\u001b[31mdir\u001b[0m", Janis.template("C:\\\\{}", RED).render("dir"));
+        assertEquals("a\\b {}", Janis.template("a\\b \\{}").render());
+    }
+
+    @Test
+    @DisplayName("Test rendering to builders, buffers and streams gives the same text")
+    void sinks() throws IOException {
+        Template template = Janis.template("{}: {}", RED, null);
+        String expected = template.render("k\u00e9y", "value \ud83d\ude00");
+
+        StringBuilder builder = new StringBuilder(">");
+        assertSame(builder, template.render(builder, "k\u00e9y", "value \ud83d\ude00"));
+        assertEquals(">" + expected, builder.toString());
+
+        ByteBuffer buffer = ByteBuffer.allocate(128);
+        int written = template.writeTo(buffer, "k\u00e9y", "value \ud83d\ude00");
+        assertEquals(expected, new String(buffer.array(), 0, written, StandardCharsets.UTF_8));
+        assertEquals(written, buffer.position());
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        assertEquals(written, template.writeTo(stream, "k\u00e9y", "value \ud83d\ude00"));
+        assertEquals(expected, stream.toString(StandardCharsets.UTF_8));
+
+        ByteBuffer small = ByteBuffer.allocate(8);
+        assertThrows(BufferOverflowException.class, () -> template.writeTo(small, "k\u00e9y", "value"));
+        assertEquals(0, small.position());
+    }
+
+    @Test
+    @DisplayName("Test invalid patterns and values are rejected")
+    void validation() {
+        assertThrows(IllegalArgumentException.class, () -> Janis.template("{} {}", RED));
+        assertThrows(NullPointerException.class, () -> Janis.template(null, RED));
+
+        Template template = Janis.template("{} {}", RED, null);
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> template.render("one"));
+        assertEquals("Expected 2 values. Got: 1", e.getMessage());
+        assertThrows(NullPointerException.class, () -> template.render("one", null));
+    }
+}
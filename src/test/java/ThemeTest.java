@@ -0,0 +1,73 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ThemeTest {
+
+    @Test
+    @DisplayName("Test entries, sections, quotes and comments are compiled into prebuilt styles")
+    void parse() {
+        Theme theme = Theme.parse("""
+                # levels
+                [level]
+                error = bold bright_red
+                warn: "yellow"
+                ; diff colors
+                [diff]
+                added = #00FF00 on #002000
+                """);
+
+        assertEquals(3, theme.size());
+        assertSame(Janis.style().bold().color(BasicColor.BRIGHT_RED).build(), theme.style("level.error"));
+        assertSame(Janis.style().color(BasicColor.YELLOW).build(), theme.style(theme.id("level.warn")));
+        assertEquals("\u001b[38;2;0;255;0;48;2;0;32;0m+\u001b[0m", theme.style("diff.added").apply("+"));
+        assertTrue(theme.contains("level.error"));
+        assertFalse(theme.contains("error"));
+    }
+
+    @Test
+    @DisplayName("Test malformed lines, invalid styles and duplicates are rejected with their line")
+    void invalid() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> Theme.parse("ok = red\nbad = bold purple"));
+        assertEquals("Invalid style for 'bad' at line 2. Got: bold purple", e.getMessage());
+        e = assertThrows(IllegalArgumentException.class, () -> Theme.parse("no separator"));
+        assertEquals("Invalid theme entry at line 1. Got: no separator", e.getMessage());
+        e = assertThrows(IllegalArgumentException.class, () -> Theme.parse("a = red\na = blue"));
+        assertEquals("Duplicate theme style at line 2. Got: a", e.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> Theme.parse("[level"));
+        assertThrows(IllegalArgumentException.class, () -> Theme.parse("a = #12345"));
+        assertThrows(IllegalArgumentException.class, () -> Theme.parse("a = red").id("b"));
+        assertThrows(IllegalStateException.class, () -> Theme.parse("a = red").reload());
+    }
+
+    @Test
+    @DisplayName("Test reload swaps the table and keeps ids of existing names")
+    void reload(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("janis.theme");
+        Files.writeString(file, "error = red\nwarn = yellow\n");
+        Theme theme = Theme.load(file);
+        int error = theme.id("error");
+        int warn = theme.id("warn");
+
+        Files.writeString(file, "info = blue\nerror = bold red\n");
+        theme.reload();
+
+        assertEquals(error, theme.id("error"));
+        assertSame(Janis.style().bold().color(BasicColor.RED).build(), theme.style(error));
+        assertEquals("x", theme.style(warn).apply("x").replace("\u001b[0m", ""));
+        assertFalse(theme.contains("warn"));
+        assertSame(Janis.style().color(BasicColor.BLUE).build(), theme.style("info"));
+        assertEquals(3, theme.size());
+
+        Files.writeString(file, "error = nocolor\n");
+        assertThrows(IllegalArgumentException.class, theme::reload);
+        assertSame(Janis.style().bold().color(BasicColor.RED).build(), theme.style(error));
+    }
+}
@@ -0,0 +1,63 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class Utf8Test {
+
+    private static final String[] SAMPLES = {
+            "",
+            "plain ASCII text",
+            "caf\u00e9 \u00fcber na\u00efve",
+            "\u65e5\u672c\u8a9e\u306e\u30c6\u30ad\u30b9\u30c8",
+            "emoji \ud83d\ude80 and \ud83c\udf08",
+            "lone \ud83d high and \ude80 low surrogates",
+            "trailing high \ud83d"
+    };
+
+    @Test
+    @DisplayName("Test encoding matches String.getBytes for ASCII, multi-byte and surrogate text")
+    void matchesStringGetBytes() {
+        for (String sample : SAMPLES) {
+            byte[] expected = sample.getBytes(StandardCharsets.UTF_8);
+            assertEquals(expected.length, Utf8.encodedLength(sample, 0, sample.length()), sample);
+
+            byte[] array = new byte[expected.length + 2];
+            int end = Utf8.encode(sample, 0, sample.length(), array, 1);
+            assertEquals(expected.length + 1, end);
+            assertArrayEquals(expected, Arrays.copyOfRange(array, 1, end));
+
+            ByteBuffer direct = ByteBuffer.allocateDirect(expected.length);
+            Utf8.encode(sample, 0, sample.length(), direct);
+            assertArrayEquals(expected, toArray(direct));
+
+            ByteBuffer heap = ByteBuffer.allocate(expected.length + 3).position(3).slice();
+            Utf8.encode(sample, 0, sample.length(), heap);
+            assertArrayEquals(expected, toArray(heap));
+        }
+    }
+
+    @Test
+    @DisplayName("Test encoding a range of characters")
+    void encodesRange() {
+        String text = "x\u00e9y\u00e9z";
+        byte[] expected = "\u00e9y".getBytes(StandardCharsets.UTF_8);
+        byte[] array = new byte[expected.length];
+
+        assertEquals(expected.length, Utf8.encodedLength(text, 1, 3));
+        Utf8.encode(text, 1, 3, array, 0);
+        assertArrayEquals(expected, array);
+    }
+
+    private static byte[] toArray(ByteBuffer buffer) {
+        buffer.flip();
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+}